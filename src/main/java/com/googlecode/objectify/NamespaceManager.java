@@ -1,15 +1,14 @@
 package com.googlecode.objectify;
 
+import com.googlecode.objectify.context.ObjectifyContext;
 import com.googlecode.objectify.util.Closeable;
 
 /**
- * A simple thread local namespace manager, similar to legacy GAE's {@code NamespaceManager}.
+ * A simple namespace manager, similar to legacy GAE's {@code NamespaceManager}. The namespace is kept in
+ * the current {@link ObjectifyContext}, which by default is per-thread.
  */
 public class NamespaceManager {
 
-	/** */
-	private static final ThreadLocal<String> NAMESPACE = new ThreadLocal<>();
-
 	/**
 	 * <p>Sets the default namespace for this thread. Similar to legacy GAE's {@code NamespaceManager}. While a namespace
 	 * is set, all keys which are not created with an explicit namespace and all queries without an explicit
@@ -34,15 +33,16 @@ public class NamespaceManager {
 	 * <p>You can call {@code set(null)} to clear the namespace; this is identical to calling {@code close()} on the return value.</p>
 	 */
 	public static Closeable set(final String namespaceName) {
-		final String previous = NAMESPACE.get();
-		NAMESPACE.set(namespaceName);
-		return () -> NAMESPACE.set(previous);
+		final ObjectifyContext context = ObjectifyContext.current();
+		final String previous = context.getNamespace();
+		context.setNamespace(namespaceName);
+		return () -> context.setNamespace(previous);
 	}
 
 	/**
 	 * @return the currently set default namespace, or null if one is not set
 	 */
 	public static String get() {
-		return NAMESPACE.get();
+		return ObjectifyContext.current().getNamespace();
 	}
 }
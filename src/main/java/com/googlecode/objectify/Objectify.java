@@ -1,11 +1,16 @@
 package com.googlecode.objectify;
 
+import com.googlecode.objectify.cmd.Async;
 import com.googlecode.objectify.cmd.Deferred;
 import com.googlecode.objectify.cmd.Deleter;
 import com.googlecode.objectify.cmd.Loader;
 import com.googlecode.objectify.cmd.Saver;
 import com.googlecode.objectify.impl.AsyncTransaction;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * <p>This is the main "business end" of Objectify.  It lets you load, save, and delete your typed POJO entities.</p>
  *
@@ -83,6 +88,21 @@ public interface Objectify
 	 */
 	Deferred defer();
 
+	/**
+	 * <p>Start an asynchronous command chain, whose operations return {@code CompletionStage}s instead of
+	 * blocking. Each operation runs on its own fork of this Objectify, with a private copy of the session;
+	 * results are not added to this session.</p>
+	 *
+	 * <p>A quick example:
+	 * {@code ofy().async().load().keys(k1, k2).thenAccept(things -> ...);}</p>
+	 *
+	 * <p>Not available inside a transaction.</p>
+	 *
+	 * @return the next step in the immutable command chain.
+	 * @throws IllegalStateException if called inside a transaction
+	 */
+	Async async();
+
 	/**
 	 * Obtain the ObjectifyFactory from which this Objectify instance was created.
 	 *
@@ -364,6 +384,33 @@ public interface Objectify
 		});
 	}
 
+	/**
+	 * <p>Runs the tasks concurrently and waits for all of them to finish. Inside each task, {@code ofy()} is a
+	 * fork of this Objectify: same options, same transaction (if any), and its own session which starts as
+	 * a copy of this one. When all tasks succeed, their sessions are merged back into this one. If any
+	 * task fails, the first failure (in task order) is thrown after all tasks have finished.</p>
+	 *
+	 * <p>For example, to load two unrelated things at once:
+	 * {@code ofy().parallel(Arrays.asList(() -> ofy().load().key(a).now(), () -> ofy().load().key(b).now()))}</p>
+	 *
+	 * <p>Tasks run on {@code ObjectifyFactory.getParallelExecutor()}.</p>
+	 *
+	 * @return the results of the tasks, in the same order
+	 */
+	<R> List<R> parallel(List<? extends Work<? extends R>> tasks);
+
+	/**
+	 * Convenience method for tasks that don't return anything.
+	 */
+	default void parallel(final Runnable... tasks) {
+		parallel(Arrays.stream(tasks)
+				.map(task -> (Work<Void>)() -> {
+					task.run();
+					return null;
+				})
+				.collect(Collectors.toList()));
+	}
+
 	/**
 	 * Synchronously flushes any deferred operations to the datastore. Objectify does this for you at the end
 	 * of transactions and requests, but if you need data to be written immediately - say, you're about to perform
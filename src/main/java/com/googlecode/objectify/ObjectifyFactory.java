@@ -3,21 +3,30 @@ package com.googlecode.objectify;
 import com.google.cloud.datastore.Datastore;
 import com.google.cloud.datastore.DatastoreOpenTelemetryOptions;
 import com.google.cloud.datastore.DatastoreOptions;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.cloud.datastore.IncompleteKey;
 import com.google.cloud.datastore.KeyFactory;
+import com.googlecode.objectify.cache.CacheWarmer;
 import com.googlecode.objectify.cache.CachingAsyncDatastore;
 import com.googlecode.objectify.cache.EntityMemcache;
 import com.googlecode.objectify.cache.MemcacheService;
+import com.googlecode.objectify.cache.MemcacheStats;
+import com.googlecode.objectify.cache.SnapshotCache;
 import com.googlecode.objectify.cache.spymemcached.SpyMemcacheService;
+import com.googlecode.objectify.context.ObjectifyContext;
 import com.googlecode.objectify.impl.AsyncDatastore;
 import com.googlecode.objectify.impl.AsyncDatastoreImpl;
 import com.googlecode.objectify.impl.CacheControlImpl;
+import com.googlecode.objectify.impl.ContentionStats;
 import com.googlecode.objectify.impl.EntityMemcacheStats;
 import com.googlecode.objectify.impl.EntityMetadata;
 import com.googlecode.objectify.impl.Forge;
 import com.googlecode.objectify.impl.Keys;
+import com.googlecode.objectify.impl.NPlusOneDetector;
 import com.googlecode.objectify.impl.ObjectifyImpl;
 import com.googlecode.objectify.impl.ObjectifyOptions;
+import com.googlecode.objectify.impl.OperationStats;
 import com.googlecode.objectify.impl.Registrar;
 import com.googlecode.objectify.impl.Spanipulator;
 import com.googlecode.objectify.impl.SpanipulatorImpl;
@@ -33,8 +42,14 @@ import io.opentelemetry.context.Scope;
 import net.spy.memcached.MemcachedClient;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
-import java.util.ArrayDeque;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -48,6 +63,9 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -75,10 +93,8 @@ public class ObjectifyFactory implements Forge {
 	/** Default memcache namespace */
 	public static final String MEMCACHE_NAMESPACE = "ObjectifyCache";
 
-	/**
-	 * Thread local stack of Objectify instances corresponding to transaction depth
-	 */
-	private final ThreadLocal<Deque<Objectify>> stacks = ThreadLocal.withInitial(ArrayDeque::new);
+	/** The classpath resource read by {@link #registerIndex()} */
+	public static final String INDEX_RESOURCE = "META-INF/objectify/index.tsv";
 
 	/** The raw interface to the datastore from the Cloud SDK */
 	protected final Datastore datastore;
@@ -98,9 +114,30 @@ public class ObjectifyFactory implements Forge {
 	/** */
 	protected final EntityMemcacheStats memcacheStats = new EntityMemcacheStats();
 
+	/** Transaction contention, by entity group */
+	protected final ContentionStats contentionStats = new ContentionStats();
+
 	/** Manages caching of entities; might be null to indicate "no cache" */
 	protected final EntityMemcache entityMemcache;
 
+	/** Entities read at fixed points in time; null unless enabled */
+	@Nullable
+	protected volatile SnapshotCache snapshotCache;
+
+	/** Receives the operation stats of each request as it ends; null if nobody is listening */
+	@Nullable
+	protected volatile Consumer<OperationStats> operationStatsListener;
+
+	/** Count operations even if nobody is listening, for getOperationStats() */
+	protected volatile boolean operationStatsEnabled;
+
+	/** Successive single-key load rounds of a kind worth reporting; 0 disables N+1 detection */
+	protected volatile int nPlusOneThreshold;
+
+	/** Runs the tasks of {@code ofy().parallel()}; created on first use unless set */
+	@Nullable
+	protected volatile Executor parallelExecutor;
+
 	/** This will be null if opentelemetry is not configured */
 	@Nullable
 	protected final Tracer tracer;
@@ -157,7 +194,30 @@ public class ObjectifyFactory implements Forge {
 		this.translators = new Translators(this);
 		this.memcache = memcache;
 
-		this.entityMemcache = memcache == null ? null : new EntityMemcache(memcache, MEMCACHE_NAMESPACE, new CacheControlImpl(this), this.memcacheStats);
+		this.entityMemcache = memcache == null ? null : new EntityMemcache(memcache, MEMCACHE_NAMESPACE, new CacheControlImpl(this), new MemcacheStats() {
+			@Override
+			public void recordHit(final com.google.cloud.datastore.Key key) {
+				memcacheStats.recordHit(key);
+
+				final OperationStats stats = getOperationStats();
+				if (stats != null)
+					stats.recordCacheHit(key.getKind());
+			}
+
+			@Override
+			public void recordMiss(final com.google.cloud.datastore.Key key) {
+				memcacheStats.recordMiss(key);
+
+				final OperationStats stats = getOperationStats();
+				if (stats != null)
+					stats.recordCacheMiss(key.getKind());
+			}
+
+			@Override
+			public void recordPut(final com.google.cloud.datastore.Key key, final Object value) {
+				memcacheStats.recordPut(key, value);
+			}
+		});
 
 		final OpenTelemetry openTelemetry = datastore.getOptions().getOpenTelemetryOptions().getOpenTelemetry();
 		this.tracer = openTelemetry == null ? null : openTelemetry.getTracer(TRACER_NAME);
@@ -253,6 +313,85 @@ public class ObjectifyFactory implements Forge {
 		this.registrar.register(clazz);
 	}
 
+	/**
+	 * <p>Register an entity class without building its metadata; that happens the first time the kind is
+	 * used. This keeps startup cheap when there are many entity classes and most requests touch only a few
+	 * of them. Unlike {@link #register(Class)}, this may be called while other threads are using Objectify.</p>
+	 *
+	 * <p>The first use of a kind pays the registration cost, so a kind with mistakes in its mapping will not
+	 * fail until then. Embedded {@code @Subclass} classes are registered immediately.</p>
+	 */
+	public <T> void registerLazily(final Class<T> clazz) {
+		this.registrar.registerLazily(clazz);
+	}
+
+	/**
+	 * <p>Register many classes, as if by calling {@link #register(Class)} for each in order. The class loading
+	 * and reflection which registration needs are done in parallel on the {@link #getParallelExecutor()}; the
+	 * translators themselves are built one class at a time. Like {@code register()}, this should be called
+	 * at application initialization.</p>
+	 */
+	public void registerAll(final Collection<? extends Class<?>> classes) {
+		this.registrar.registerAll(classes, getParallelExecutor());
+	}
+
+	/**
+	 * <p>Register every class named in the {@link #INDEX_RESOURCE} on the classpath, if there is one. Entity
+	 * classes are named but not loaded or introspected; the metadata for a kind is built the first time the
+	 * kind is used. This keeps startup cheap when there are many entity classes and most requests touch only a
+	 * few of them.</p>
+	 *
+	 * <p>Create the index with {@link #writeIndex(Writer)} after registering all classes the normal way, for
+	 * example in a build step that writes to {@code src/main/resources/META-INF/objectify/index.tsv}:</p>
+	 *
+	 * <pre>
+	 * if (!factory.registerIndex()) {
+	 *     factory.register(Thing.class);
+	 *     // ...
+	 * }
+	 * </pre>
+	 *
+	 * @return false if there is no index resource, in which case nothing was registered
+	 */
+	public boolean registerIndex() {
+		final ClassLoader loader = indexClassLoader();
+
+		final InputStream in = loader.getResourceAsStream(INDEX_RESOURCE);
+		if (in == null)
+			return false;
+
+		try (final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			this.registrar.registerIndex(reader, loader);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Register every class named in an index written by {@link #writeIndex(Writer)}. See {@link #registerIndex()}.
+	 * Classes are loaded with the context class loader.
+	 */
+	public void registerIndex(final Reader reader) throws IOException {
+		this.registrar.registerIndex(reader, indexClassLoader());
+	}
+
+	/**
+	 * Write an index of all registered classes, which {@link #registerIndex()} can read back at startup.
+	 * The index is a small text file naming each kind and class; it does not change unless the set of
+	 * registered classes (or their kinds, or {@code @Cache}) changes.
+	 */
+	public void writeIndex(final Writer writer) throws IOException {
+		this.registrar.writeIndex(writer);
+	}
+
+	/** The context class loader, if there is one */
+	private ClassLoader indexClassLoader() {
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		return loader != null ? loader : ObjectifyFactory.class.getClassLoader();
+	}
+
 	/**
 	 * <p>Gets the master list of all registered TranslatorFactory objects.  By adding Translators, Objectify
 	 * can process additional field types which are not part of the standard GAE SDK.  <b>You must
@@ -269,6 +408,123 @@ public class ObjectifyFactory implements Forge {
 	 */
 	public EntityMemcacheStats getMemcacheStats() { return this.memcacheStats; }
 
+	/**
+	 * Get the object that tracks transaction aborts, retries, and backoff by entity group.
+	 */
+	public ContentionStats getContentionStats() { return this.contentionStats; }
+
+	/**
+	 * <p>Get a tool for preloading entities into the global cache, for example after a memcache flush.
+	 * Keys can come from anywhere; to warm from an Objectify query, something like this works:</p>
+	 *
+	 * <pre>factory.cacheWarmer().warm(Iterables.transform(ofy().load().type(Thing.class).keys().iterable(), Key::getRaw));</pre>
+	 *
+	 * @throws IllegalStateException if this factory was not created with a memcache
+	 */
+	public CacheWarmer cacheWarmer() {
+		Preconditions.checkState(this.entityMemcache != null, "This ObjectifyFactory does not have a memcache");
+		return new CacheWarmer(asyncDatastore(), this.entityMemcache);
+	}
+
+	/**
+	 * <p>Run the cache invalidation that follows each transaction commit on the executor, so commits do not
+	 * wait for the cache. The invalidation is still guaranteed to finish before the session that started the
+	 * transaction closes (eg at the end of {@code ObjectifyService.run()} or the ObjectifyFilter). Until then,
+	 * that session sees its own writes, but other sessions may briefly read the old values from the cache.</p>
+	 *
+	 * <p>Pass null to go back to invalidating synchronously, which is the default.</p>
+	 *
+	 * @throws IllegalStateException if this factory was not created with a memcache
+	 */
+	public void setAsyncCacheInvalidation(@Nullable final Executor executor) {
+		Preconditions.checkState(this.entityMemcache != null, "This ObjectifyFactory does not have a memcache");
+		this.entityMemcache.setInvalidationExecutor(executor);
+	}
+
+	/**
+	 * <p>Serve loads at a fixed read time (from {@code ofy().load().readTime()} or a read-only transaction with
+	 * {@code TxnOptions.readTime()}) from an in-memory cache. Such reads are immutable, so the cache is never
+	 * invalidated. This does not require memcache.</p>
+	 *
+	 * <p>Pass null to disable, which is the default.</p>
+	 */
+	public void setSnapshotCache(@Nullable final SnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+
+	/** @return the snapshot cache, or null if it is not enabled */
+	@Nullable
+	public SnapshotCache getSnapshotCache() {
+		return this.snapshotCache;
+	}
+
+	/**
+	 * <p>Have the operation stats of every request (ie, every {@code run()} or pass through the ObjectifyFilter)
+	 * delivered as the request ends. The listener runs on the request's thread after all of Objectify's
+	 * housekeeping, so it should be quick; eg, log the totals or add them to a metrics registry.</p>
+	 *
+	 * <p>Setting a listener enables the stats. Pass null to stop listening, which is the default.</p>
+	 */
+	public void setOperationStatsListener(@Nullable final Consumer<OperationStats> listener) {
+		this.operationStatsListener = listener;
+	}
+
+	/**
+	 * <p>Count the operations of every request, for {@link #getOperationStats()}, even if no listener is set.
+	 * Counting sizes every entity read and written, so it is off by default. Takes effect at the start of the
+	 * next request.</p>
+	 */
+	public void setOperationStatsEnabled(final boolean enabled) {
+		this.operationStatsEnabled = enabled;
+	}
+
+	/**
+	 * @return the live operation stats of the current request, or null if there is no request (ie, we are
+	 * outside of {@code run()} and the ObjectifyFilter) or the request is not being counted because neither
+	 * stats, a stats listener, nor N+1 detection was enabled when it started
+	 */
+	@Nullable
+	public OperationStats getOperationStats() {
+		return ObjectifyContext.current().getStats(this);
+	}
+
+	/**
+	 * <p>Enable N+1 detection: each request watches for runs of load rounds which fetch a single key of the same
+	 * kind (eg, {@code Ref.get()} in a loop) and, as it ends, logs a warning with the call sites of each run at
+	 * least this long. The findings are also available from {@link OperationStats#getNPlusOneLoads()}.</p>
+	 *
+	 * <p>Detection samples the stack on every single-key load, so it is meant for development and tests.
+	 * Pass 0 to disable, which is the default.</p>
+	 */
+	public void setNPlusOneThreshold(final int threshold) {
+		Preconditions.checkArgument(threshold >= 0, "threshold must not be negative");
+		this.nPlusOneThreshold = threshold;
+	}
+
+	/**
+	 * Set the executor which runs the tasks of {@code ofy().parallel()}. It must not be bounded so tightly that
+	 * nested parallel() calls can starve. By default, an unbounded pool of daemon threads is used.
+	 */
+	public void setParallelExecutor(final Executor executor) {
+		Preconditions.checkNotNull(executor);
+		this.parallelExecutor = executor;
+	}
+
+	/** @return the executor which runs the tasks of {@code ofy().parallel()} */
+	public Executor getParallelExecutor() {
+		Executor executor = this.parallelExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.parallelExecutor;
+				if (executor == null) {
+					executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("objectify-parallel-%d").build());
+					this.parallelExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
 	/**
 	 * Allocates a single id from the allocator for the specified kind.  Safe to use in concert
 	 * with the automatic generator.  This is just a convenience method for allocateIds().
@@ -355,6 +611,9 @@ public class ObjectifyFactory implements Forge {
 	 * @return the result of the work.
 	 */
 	public <R> R run(final Work<R> work) {
+		if (!ObjectifyContext.isBound())
+			return requestContext().call(() -> run(work));
+
 		try (Closeable closeable = begin()) {
 			return work.run();
 		}
@@ -379,7 +638,33 @@ public class ObjectifyFactory implements Forge {
 	 * for you. However, in unit tests or remote API calls it can be useful.</p>
 	 */
 	public Closeable begin() {
-		return this.open();
+		if (ObjectifyContext.isBound())
+			return this.open();
+
+		final Closeable scope = requestContext().bind();
+		try {
+			final ObjectifyImpl ofy = this.open();
+			return () -> {
+				try {
+					ofy.close();
+				} finally {
+					scope.close();
+				}
+			};
+		} catch (RuntimeException ex) {
+			scope.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * A new context for a request which would otherwise run in the thread's fallback context (see
+	 * {@code ContextStorage.isBound()}); it keeps any namespace which was set before the request started.
+	 */
+	private static ObjectifyContext requestContext() {
+		final ObjectifyContext context = new ObjectifyContext();
+		context.setNamespace(ObjectifyContext.current().getNamespace());
+		return context;
 	}
 
 	/**
@@ -387,39 +672,68 @@ public class ObjectifyFactory implements Forge {
 	 * is the start point for queries and data manipulation.
 	 */
 	public Objectify ofy() {
-		final Deque<Objectify> stack = stacks.get();
+		final Deque<Objectify> stack = stack();
 
-		if (stack.isEmpty())
+		if (stack.isEmpty()) {
+			ObjectifyContext.current().release(this);
 			throw new IllegalStateException("You have not started an Objectify context. You are missing " +
 					"a call to run() or you do not have the ObjectifyFilter installed.");
+		}
 
 		return stack.getLast();
 	}
 
+	/**
+	 * Stack of Objectify instances corresponding to transaction depth, kept in the current context
+	 */
+	private Deque<Objectify> stack() {
+		return ObjectifyContext.current().stack(this);
+	}
+
 	/**
 	 * <p>This will be removed from the public API in the future.</p>
 	 */
 	private ObjectifyImpl open() {
+		final Deque<Objectify> stack = stack();
+
+		// The outermost begin() is a request; only count it if someone will look at the stats
+		if (stack.isEmpty()) {
+			final int threshold = this.nPlusOneThreshold;
+			if (threshold > 0 || this.operationStatsEnabled || this.operationStatsListener != null)
+				ObjectifyContext.current().startStats(this, new OperationStats(threshold > 0 ? new NPlusOneDetector(threshold) : null));
+		}
+
 		final ObjectifyImpl objectify = new ObjectifyImpl(this);
-		stacks.get().add(objectify);
+		stack.add(objectify);
 		return objectify;
 	}
 
 	/** This is for internal housekeeping and is not part of the public API */
 	public ObjectifyImpl open(final ObjectifyOptions opts, final Transactor transactor) {
 		final ObjectifyImpl objectify = new ObjectifyImpl(this, opts, transactor);
-		stacks.get().add(objectify);
+		stack().add(objectify);
 		return objectify;
 	}
 
 	/** This is for internal housekeeping and is not part of the public API */
 	public void close(final Objectify ofy) {
-		final Deque<Objectify> stack = stacks.get();
+		final Deque<Objectify> stack = stack();
 		if (stack.isEmpty())
 			throw new IllegalStateException("You have already destroyed the Objectify context.");
 
 		final Objectify popped = stack.removeLast();
 		assert popped == ofy : "Mismatched objectify instances; somehow the stack was corrupted";
+
+		final OperationStats stats = stack.isEmpty() ? ObjectifyContext.current().endStats(this) : null;
+
+		ObjectifyContext.current().release(this);
+
+		if (stats != null)
+			stats.finish();
+
+		final Consumer<OperationStats> listener = this.operationStatsListener;
+		if (stats != null && listener != null)
+			listener.accept(stats);
 	}
 
 	//
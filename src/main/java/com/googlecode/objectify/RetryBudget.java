@@ -0,0 +1,55 @@
+package com.googlecode.objectify;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * <p>Limits retries to a fraction of successful transactions, so that a burst of contention cannot turn
+ * into a retry storm.  Every successful transaction deposits {@code ratio} tokens (up to {@code maxTokens});
+ * every retry withdraws one.  When the budget is empty, retries are refused.</p>
+ *
+ * <p>One budget is normally shared by all the transactions of a workload, via
+ * {@link RetryPolicy#budget(RetryBudget)}. It is thread-safe.</p>
+ */
+public class RetryBudget {
+
+	/** Tokens deposited per success */
+	private final double ratio;
+
+	/** */
+	private final double maxTokens;
+
+	/** */
+	private double tokens;
+
+	/**
+	 * @param ratio is the number of retries allowed per successful transaction, eg 0.1 allows retries to add 10% load
+	 * @param maxTokens is both the initial balance and the cap, which allows for short bursts
+	 */
+	public RetryBudget(final double ratio, final double maxTokens) {
+		Preconditions.checkArgument(ratio >= 0, "ratio cannot be negative");
+		Preconditions.checkArgument(maxTokens >= 1, "maxTokens must be at least 1");
+
+		this.ratio = ratio;
+		this.maxTokens = maxTokens;
+		this.tokens = maxTokens;
+	}
+
+	/** @return true if a retry is permitted, in which case a token has been consumed */
+	public synchronized boolean tryAcquire() {
+		if (tokens < 1)
+			return false;
+
+		tokens -= 1;
+		return true;
+	}
+
+	/** Record a successful transaction */
+	public synchronized void recordSuccess() {
+		tokens = Math.min(maxTokens, tokens + ratio);
+	}
+
+	/** @return the current balance */
+	public synchronized double getTokens() {
+		return tokens;
+	}
+}
@@ -0,0 +1,136 @@
+package com.googlecode.objectify;
+
+import com.google.common.base.Preconditions;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>Decides how long to wait between attempts when a transaction fails with a concurrency error, and
+ * when to give up.  The number of attempts is still bounded by {@link TxnOptions#limitTries()}; the
+ * policy can stop earlier because of a deadline or an exhausted retry budget.</p>
+ *
+ * <p>This deliberately has a record-like API, like TxnOptions.</p>
+ */
+@Value
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Accessors(fluent = true)
+public class RetryPolicy {
+
+	/** How the delay grows from one retry to the next */
+	public enum Backoff {
+		/**
+		 * Delay is base x (retry + 2), scaled randomly by 50-100%, so the first retry falls between 1.5x and 3x
+		 * the base. This was Objectify's historical behavior.
+		 */
+		LINEAR,
+
+		/** Delay doubles with each retry, chosen uniformly between 0 and the doubled value ("full jitter") */
+		EXPONENTIAL,
+
+		/** Delay is chosen uniformly between base and three times the previous delay */
+		DECORRELATED_JITTER
+	}
+
+	private static final RetryPolicy DEFAULT = linear(Duration.ofMillis(200), Duration.ofSeconds(10));
+	public static RetryPolicy deflt() {
+		return DEFAULT;
+	}
+
+	/** */
+	Backoff backoff;
+
+	/** The scale of the first delay */
+	Duration base;
+
+	/** No single delay will be longer than this */
+	Duration max;
+
+	/**
+	 * If present, no retry will be attempted if it would start later than this long after the first attempt
+	 * started.  The transaction fails with the last concurrency error instead.
+	 */
+	Optional<Duration> deadline;
+
+	/**
+	 * If present, every retry must take a token from this budget, typically shared among many transactions.
+	 * When it is exhausted, transactions fail on the first concurrency error instead of piling retries onto
+	 * an already overloaded entity group.
+	 */
+	Optional<RetryBudget> budget;
+
+	/** */
+	public static RetryPolicy linear(final Duration base, final Duration max) {
+		return new RetryPolicy(Backoff.LINEAR, base, max, Optional.empty(), Optional.empty());
+	}
+
+	/** */
+	public static RetryPolicy exponential(final Duration base, final Duration max) {
+		return new RetryPolicy(Backoff.EXPONENTIAL, base, max, Optional.empty(), Optional.empty());
+	}
+
+	/** */
+	public static RetryPolicy decorrelatedJitter(final Duration base, final Duration max) {
+		return new RetryPolicy(Backoff.DECORRELATED_JITTER, base, max, Optional.empty(), Optional.empty());
+	}
+
+	/** @return a policy that stops retrying once this much time has passed since the first attempt */
+	public RetryPolicy deadline(final Duration deadline) {
+		Preconditions.checkArgument(!deadline.isNegative(), "deadline cannot be negative");
+		return new RetryPolicy(backoff, base, max, Optional.of(deadline), budget);
+	}
+
+	/** @return a policy that takes a token from the budget for every retry */
+	public RetryPolicy budget(final RetryBudget budget) {
+		return new RetryPolicy(backoff, base, max, deadline, Optional.of(budget));
+	}
+
+	/**
+	 * Compute the delay before the next attempt.
+	 *
+	 * @param retry is 1 for the first retry, 2 for the second, etc
+	 * @param previous is the delay before the previous retry, zero if this is the first
+	 */
+	public Duration delay(final int retry, final Duration previous) {
+		final long baseMillis = base.toMillis();
+		final long maxMillis = max.toMillis();
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		final long millis;
+		switch (backoff) {
+			case LINEAR:
+				// The historical formula counted from 2, so the first retry is 1.5x to 3x base
+				millis = (long)((0.5 * random.nextDouble() + 0.5) * baseMillis * (retry + 2));
+				break;
+
+			case EXPONENTIAL:
+				final long ceiling = baseMillis << Math.min(retry - 1, 30);
+				millis = random.nextLong(Math.min(maxMillis, Math.max(ceiling, 0)) + 1);
+				break;
+
+			case DECORRELATED_JITTER:
+				final long upper = Math.max(baseMillis, previous.toMillis() * 3);
+				millis = baseMillis + random.nextLong(Math.max(upper - baseMillis, 0) + 1);
+				break;
+
+			default:
+				throw new IllegalStateException("Impossible, some unknown backoff");
+		}
+
+		return Duration.ofMillis(Math.min(millis, maxMillis));
+	}
+
+	/**
+	 * @param elapsed is the time since the first attempt started
+	 * @param delay is the proposed delay before the next attempt
+	 * @return true if the deadline (if any) permits retrying after the delay
+	 */
+	public boolean withinDeadline(final Duration elapsed, final Duration delay) {
+		return !deadline.isPresent() || elapsed.plus(delay).compareTo(deadline.get()) < 0;
+	}
+}
@@ -46,6 +46,11 @@ public class TxnOptions {
 	 */
 	int limitTries;
 
+	/**
+	 * How long to wait between tries, and when to stop early.
+	 */
+	RetryPolicy retryPolicy;
+
 	/**
 	 * Construct with default options.
 	 */
@@ -53,9 +58,16 @@ public class TxnOptions {
 		this(false, Optional.empty(), 200);
 	}
 
+	/**
+	 * Construct with the default retry policy.
+	 */
+	public TxnOptions(final boolean readOnly, final Optional<Instant> readTime, final int limitTries) {
+		this(readOnly, readTime, limitTries, RetryPolicy.deflt());
+	}
+
 	/** @return options that have the readOnly flag set to the specified value */
 	public TxnOptions readOnly(final boolean readOnly) {
-		return new TxnOptions(readOnly, readTime, limitTries);
+		return new TxnOptions(readOnly, readTime, limitTries, retryPolicy);
 	}
 
 	/**
@@ -64,7 +76,7 @@ public class TxnOptions {
 	 * @return options that have the readTime flag set to the specified value
 	 */
 	public TxnOptions readTime(final Optional<Instant> readTime) {
-		return new TxnOptions(readOnly, readTime, limitTries);
+		return new TxnOptions(readOnly, readTime, limitTries, retryPolicy);
 	}
 
 	/**
@@ -79,6 +91,12 @@ public class TxnOptions {
 	 */
 	public TxnOptions limitTries(final int limitTries) {
 		Preconditions.checkArgument(limitTries >= 1, "limitTries must be at least 1");
-		return new TxnOptions(readOnly, readTime, limitTries);
+		return new TxnOptions(readOnly, readTime, limitTries, retryPolicy);
+	}
+
+	/** @return options that use the specified policy to pace retries */
+	public TxnOptions retryPolicy(final RetryPolicy retryPolicy) {
+		Preconditions.checkNotNull(retryPolicy);
+		return new TxnOptions(readOnly, readTime, limitTries, retryPolicy);
 	}
 }
\ No newline at end of file
@@ -20,4 +20,21 @@ public @interface Cache
 	 * time due to memory pressure or the whim of Google's operations team.
 	 */
 	int expirationSeconds() default 0;
+
+	/**
+	 * Percentage (0-100) by which the expiration of each individual cache write is randomly shortened.
+	 * When many entities are cached at the same moment (say, after a deploy or a cache flush) they would
+	 * otherwise all expire at the same moment too, sending a burst of reads to the datastore. Has no
+	 * effect when expirationSeconds is 0.
+	 */
+	int expirationJitterPercent() default 0;
+
+	/**
+	 * Percentage (0-100) of the expiration window, measured back from the end, during which a cache hit
+	 * schedules a refresh of the entry from the datastore. The caller still gets the cached value; the
+	 * refetch runs when pending futures are completed at the end of the request, and the new value is
+	 * written back with the normal compare-and-swap so it cannot clobber a concurrent write.  Has no
+	 * effect when expirationSeconds is 0.
+	 */
+	int refreshAheadPercent() default 0;
 }
\ No newline at end of file
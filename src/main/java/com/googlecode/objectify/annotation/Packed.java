@@ -0,0 +1,33 @@
+package com.googlecode.objectify.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>When placed on a field which is an array or collection of numeric primitives (long, int, short, double,
+ * float, or their boxed equivalents), the field is stored as a single unindexed Blob of packed little-endian
+ * values instead of a list of individual values. This is far smaller and faster to translate for large
+ * arrays, such as time series.</p>
+ *
+ * <ul>
+ * <li>The field is never indexed and cannot be used in queries.</li>
+ * <li>Collections must not contain null.</li>
+ * <li>Empty arrays and collections are stored (as an empty blob), unlike unpacked ones.</li>
+ * <li>Fields previously stored unpacked (as a list) can still be loaded; they are rewritten packed on the next save.</li>
+ * </ul>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+public @interface Packed
+{
+	/**
+	 * If true, integral values are stored as zigzag varints of the difference from the previous value.
+	 * This makes sorted or slowly-changing sequences (timestamps, counters) much smaller. Ignored for
+	 * floating point values.
+	 */
+	boolean delta() default false;
+}
@@ -1,5 +1,9 @@
 package com.googlecode.objectify.annotation;
 
+import com.googlecode.objectify.serializer.BinarySerializer;
+import com.googlecode.objectify.serializer.JavaSerializer;
+import com.googlecode.objectify.serializer.Serializer;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -33,7 +37,8 @@ public @interface Serialize
 {
 	/** 
 	 * If true, the data stream will be compressed on write using a DeflatorInputStream.  This only affects
-	 * writes; on read, Objectify will understand both compressed and uncompressed data. 
+	 * writes; on read, Objectify will understand both compressed and uncompressed data (the blob records
+	 * which it is). 
 	 */
 	boolean zip() default false;
 	
@@ -41,4 +46,12 @@ public @interface Serialize
 	 * If zip is true, sets the compression level of the Deflater.
 	 */
 	int compressionLevel() default Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * How to turn the value into bytes and back. {@link JavaSerializer} handles any Serializable object graph;
+	 * {@link BinarySerializer} is much faster and more compact for the common JDK types (and falls back to java
+	 * serialization for anything else), but its format is different. Changing the serializer of a field with
+	 * existing data requires migrating that data.
+	 */
+	Class<? extends Serializer> serializer() default JavaSerializer.class;
 }
\ No newline at end of file
@@ -20,6 +20,22 @@ public interface CacheControl
 	 */
 	Integer getExpirySeconds(Key key);
 
+	/**
+	 * @return the percentage (0-100) by which each individual expiry may be randomly shortened, so that
+	 * entries written together do not all expire together.
+	 */
+	default int getExpiryJitterPercent(final Key key) {
+		return 0;
+	}
+
+	/**
+	 * @return the percentage (0-100) of the expiry window, measured back from the end, during which a
+	 * cache hit should trigger a refresh of the cached value.  0 disables refresh-ahead.
+	 */
+	default int getRefreshAheadPercent(final Key key) {
+		return 0;
+	}
+
 	/** Convenience method */
 	default boolean isCacheable(final Key key) {
 		return getExpirySeconds(key) != null;
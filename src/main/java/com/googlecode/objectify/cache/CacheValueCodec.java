@@ -0,0 +1,134 @@
+package com.googlecode.objectify.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Serializes cache values, compressing any whose serialized form is larger than a threshold.</p>
+ *
+ * <p>Compressed values start with the header byte {@link #COMPRESSED} followed by a deflate stream.
+ * Uncompressed values are plain Java serialization, which always starts with the magic bytes
+ * {@code 0xAC 0xED}.  The first byte tells the two apart, so values written before compression was
+ * enabled (or below the threshold) remain readable and both formats can share a cache.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class CacheValueCodec
+{
+	/** Header byte marking a deflate-compressed value. Cannot collide with Java serialization (0xAC 0xED). */
+	public static final byte COMPRESSED = 0x1F;
+
+	/** Values whose serialized form is at least this many bytes are compressed by default */
+	public static final int DEFAULT_THRESHOLD = 8 * 1024;
+
+	/** Compresses values above the default threshold */
+	public static final CacheValueCodec DEFAULT = new CacheValueCodec(DEFAULT_THRESHOLD);
+
+	/** Never compresses */
+	public static final CacheValueCodec UNCOMPRESSED = new CacheValueCodec(0);
+
+	/** 0 or less disables compression */
+	private final int threshold;
+
+	/**
+	 * @param threshold is the serialized size in bytes at or above which values are compressed;
+	 *                  0 or less disables compression (values are still readable if compressed)
+	 */
+	public CacheValueCodec(final int threshold) {
+		this.threshold = threshold;
+	}
+
+	/** @return true if the bytes look like they came from encode() */
+	public static boolean isEncoded(final byte[] bytes) {
+		return bytes.length >= 2 && (bytes[0] == COMPRESSED || (bytes[0] == (byte)0xAC && bytes[1] == (byte)0xED));
+	}
+
+	/**
+	 * Serialize the value, compressing it if it is large enough and compression actually helps.
+	 */
+	public byte[] encode(final Object value) {
+		final byte[] serialized = serialize(value);
+
+		if (threshold <= 0 || serialized.length < threshold)
+			return serialized;
+
+		final byte[] compressed = deflate(serialized);
+		return compressed.length < serialized.length ? compressed : serialized;
+	}
+
+	/**
+	 * Deserialize bytes produced by encode(), compressed or not.
+	 */
+	public Object decode(final byte[] bytes) {
+		final byte[] serialized = bytes.length > 0 && bytes[0] == COMPRESSED ? inflate(bytes) : bytes;
+
+		try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return ois.readObject();
+		} catch (final IOException | ClassNotFoundException e) {
+			throw new RuntimeException("Failed to deserialize cache value", e);
+		}
+	}
+
+	/** */
+	private static byte[] serialize(final Object value) {
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			 final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(value);
+			oos.flush();
+			return baos.toByteArray();
+		} catch (final IOException e) {
+			throw new RuntimeException("Failed to serialize cache value", e);
+		}
+	}
+
+	/** @return the header byte followed by the deflated data */
+	private static byte[] deflate(final byte[] data) {
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+			out.write(COMPRESSED);
+
+			final byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				final int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/** Skips the header byte */
+	private static byte[] inflate(final byte[] data) {
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data, 1, data.length - 1);
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+			final byte[] buffer = new byte[8192];
+			while (!inflater.finished()) {
+				final int count = inflater.inflate(buffer);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new RuntimeException("Truncated compressed cache value");
+				out.write(buffer, 0, count);
+			}
+
+			return out.toByteArray();
+		} catch (final DataFormatException e) {
+			throw new RuntimeException("Failed to decompress cache value", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.googlecode.objectify.cache;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.QueryResults;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.RateLimiter;
+import com.googlecode.objectify.cache.EntityMemcache.Bucket;
+import com.googlecode.objectify.impl.AsyncDatastore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Preloads entities into the {@code EntityMemcache}, typically after a memcache flush or failover so that
+ * live traffic does not have to refill the cache one request at a time.  Keys can come from any iterable
+ * (for example a previously recorded list of hot keys), or from a keys-only query.</p>
+ *
+ * <p>Keys are processed in batches: one bulk cache read, one bulk datastore get for whatever was missing,
+ * and one compare-and-swap write of the results.  Entries which are already cached are left alone, and
+ * the compare-and-swap means a warm-up can never overwrite a concurrent write.  Up to {@code concurrency}
+ * batches run at once, and the overall pace is limited to {@code keysPerSecond} so the warm-up does not
+ * starve live traffic.</p>
+ *
+ * <p>Instances are immutable; the with*() methods return modified copies.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Slf4j
+public class CacheWarmer
+{
+	/** */
+	private final AsyncDatastore raw;
+
+	/** */
+	private final EntityMemcache memcache;
+
+	/** Keys per batch */
+	private final int batchSize;
+
+	/** Number of batches in flight at once */
+	private final int concurrency;
+
+	/** Overall pace; 0 means unlimited */
+	private final double keysPerSecond;
+
+	/**
+	 * Defaults to batches of 100 keys, 4 at a time, 1000 keys per second.
+	 *
+	 * @param raw should be a non-caching datastore
+	 */
+	public CacheWarmer(final AsyncDatastore raw, final EntityMemcache memcache) {
+		this(raw, memcache, 100, 4, 1000);
+	}
+
+	/** */
+	private CacheWarmer(final AsyncDatastore raw, final EntityMemcache memcache, final int batchSize, final int concurrency, final double keysPerSecond) {
+		this.raw = raw;
+		this.memcache = memcache;
+		this.batchSize = batchSize;
+		this.concurrency = concurrency;
+		this.keysPerSecond = keysPerSecond;
+	}
+
+	/** @param batchSize must be between 1 and 1000 (the datastore limit for a bulk get) */
+	public CacheWarmer withBatchSize(final int batchSize) {
+		Preconditions.checkArgument(batchSize > 0 && batchSize <= 1000, "batchSize must be between 1 and 1000");
+		return new CacheWarmer(raw, memcache, batchSize, concurrency, keysPerSecond);
+	}
+
+	/** @param concurrency is the number of batches processed at once; must be at least 1 */
+	public CacheWarmer withConcurrency(final int concurrency) {
+		Preconditions.checkArgument(concurrency > 0, "concurrency must be at least 1");
+		return new CacheWarmer(raw, memcache, batchSize, concurrency, keysPerSecond);
+	}
+
+	/** @param keysPerSecond limits the overall pace; 0 means unlimited */
+	public CacheWarmer withRateLimit(final double keysPerSecond) {
+		Preconditions.checkArgument(keysPerSecond >= 0, "keysPerSecond cannot be negative");
+		return new CacheWarmer(raw, memcache, batchSize, concurrency, keysPerSecond);
+	}
+
+	/**
+	 * Warm the cache with all the keys produced by a keys-only query. The query results are
+	 * consumed lazily, so this works for arbitrarily large result sets.
+	 *
+	 * @return the number of keys which were written to the cache
+	 */
+	public int warm(final KeyQuery query) {
+		final QueryResults<Key> results = raw.run(query);
+		return warm(() -> results);
+	}
+
+	/**
+	 * Warm the cache with the specified keys.  Uncacheable keys and keys which are already
+	 * in the cache are skipped.  Blocks until all batches are complete.
+	 *
+	 * @return the number of keys which were written to the cache (including negative results)
+	 */
+	public int warm(final Iterable<Key> keys) {
+		final RateLimiter limiter = keysPerSecond > 0 ? RateLimiter.create(keysPerSecond) : null;
+		final Semaphore inFlight = new Semaphore(concurrency);
+		final AtomicInteger warmed = new AtomicInteger();
+		final List<Future<?>> futures = new ArrayList<>();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			for (final List<Key> batch: Iterables.partition(keys, batchSize)) {
+				if (limiter != null)
+					limiter.acquire(batch.size());
+
+				inFlight.acquire();
+				futures.add(executor.submit(() -> {
+					try {
+						warmed.addAndGet(warmBatch(batch));
+					} finally {
+						inFlight.release();
+					}
+					return null;
+				}));
+			}
+
+			for (final Future<?> future: futures)
+				future.get();
+
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while warming cache", ex);
+		} catch (ExecutionException ex) {
+			throw new IllegalStateException("Error warming cache", ex.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return warmed.get();
+	}
+
+	/**
+	 * One bulk cache read, one bulk datastore read for the misses, one CAS write.
+	 * @return the number of keys put in the cache
+	 */
+	private int warmBatch(final List<Key> batch) throws Exception {
+		final Map<Key, Bucket> buckets = memcache.getAll(batch);
+
+		final List<Bucket> missing = new ArrayList<>();
+		for (final Bucket buck: buckets.values())
+			if (buck.isCacheable() && buck.isEmpty())
+				missing.add(buck);
+
+		if (missing.isEmpty())
+			return 0;
+
+		final Map<Key, Entity> fetched = raw.get(EntityMemcache.keysOf(missing)).get();
+
+		for (final Bucket buck: missing)
+			buck.setNext(fetched.get(buck.getKey()));
+
+		memcache.putAll(missing);
+
+		log.debug("Warmed {} cache entries", missing.size());
+
+		return missing.size();
+	}
+}
@@ -2,6 +2,8 @@ package com.googlecode.objectify.cache;
 
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.QueryResults;
 import com.google.cloud.datastore.ReadOption;
 import com.google.protobuf.ByteString;
 import com.googlecode.objectify.TxnOptions;
@@ -25,7 +27,8 @@ import java.util.concurrent.Future;
  * 
  * <ul>
  * <li>Caches negative results as well as positive results.</li>
- * <li>Queries do not affect the cache in any way.</li>
+ * <li>Queries do not affect the entity cache.  Keys-only query results can be cached separately (see
+ * {@code QueryKeysCache}); writes invalidate them by kind.</li>
  * <li>Transactional reads bypass the cache, but successful transaction commits will update the cache.</li>
  * <li>This cache has near-transactional integrity.  As long as DeadlineExceededException is not hit, cache should
  * not go out of sync even under heavy contention.</li>
@@ -58,6 +61,7 @@ public class CachingAsyncDatastore extends CachingAsyncDatastoreReaderWriter imp
 	@Override
 	protected void empty(final Iterable<Key> keys) {
 		memcache.empty(keys);
+		memcache.getQueryKeysCache().invalidate(keys);
 	}
 
 	@Override
@@ -70,14 +74,29 @@ public class CachingAsyncDatastore extends CachingAsyncDatastoreReaderWriter imp
 		final Map<Key, Bucket> soFar = this.memcache.getAll(keys);
 
 		final List<Bucket> uncached = new ArrayList<>(soFar.size());
+		final List<Bucket> refreshDue = new ArrayList<>();
 		final Map<Key, Entity> cached = new HashMap<>();
 
-		for (final Bucket buck: soFar.values())
+		for (final Bucket buck: soFar.values()) {
 			if (buck.isEmpty())
 				uncached.add(buck);
 			else if (!buck.isNegative())
 				cached.put(buck.getKey(), buck.getEntity());
 
+			if (buck.isRefreshDue())
+				refreshDue.add(buck);
+		}
+
+		// Hits that are close to expiry get refreshed later, without making the caller wait
+		if (!refreshDue.isEmpty())
+			new LazyFuture<Void>() {
+				@Override
+				protected Void compute() throws Exception {
+					refresh(refreshDue);
+					return null;
+				}
+			};
+
 		// Maybe we need to fetch some more
 		Future<Map<Key, Entity>> pending = null;
 		if (!uncached.isEmpty()) {
@@ -106,6 +125,28 @@ public class CachingAsyncDatastore extends CachingAsyncDatastoreReaderWriter imp
 		else
 			return new MergeFuture<>(cached, pending);
 	}
+
+	/**
+	 * Run a keys-only query through the query keys cache.
+	 *
+	 * @param expirySeconds how long the result may be cached; 0 means no limit
+	 */
+	public QueryResults<Key> runCached(final KeyQuery query, final int expirySeconds) {
+		return memcache.getQueryKeysCache().run(query, expirySeconds, () -> this.raw.run(query));
+	}
+
+	/**
+	 * Refetch the entities for buckets which are in their refresh-ahead window and write them back
+	 * to the cache, provided nobody else has touched the entries in the meantime.
+	 */
+	private void refresh(final List<Bucket> buckets) throws Exception {
+		final Map<Key, Entity> fresh = this.raw.get(EntityMemcache.keysOf(buckets)).get();
+
+		for (final Bucket buck: buckets)
+			buck.setNext(fresh.get(buck.getKey()));
+
+		memcache.refreshAll(buckets);
+	}
 }
 
 
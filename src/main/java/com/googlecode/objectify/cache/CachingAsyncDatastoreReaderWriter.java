@@ -15,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * <p>A write-through memcache for Entity objects that works for both transactional
@@ -70,6 +71,16 @@ abstract public class CachingAsyncDatastoreReaderWriter implements AsyncDatastor
 
 	@Override
 	public Future<List<Key>> put(final Iterable<? extends FullEntity<?>> entities) {
+		return putAndEmpty(entities, () -> this.raw.put(entities));
+	}
+
+	@Override
+	public Future<List<Key>> put(final List<? extends FullEntity<?>> entities, final List<Integer> sizes) {
+		return putAndEmpty(entities, () -> this.raw.put(entities, sizes));
+	}
+
+	/** */
+	private Future<List<Key>> putAndEmpty(final Iterable<? extends FullEntity<?>> entities, final Supplier<Future<List<Key>>> put) {
 		// There is one weird case we have to watch out for.  When you put() entities without
 		// a key, the backend autogenerates the key for you.  But the put() might throw an
 		// exception (eg timeout) even though it succeeded in the backend.  Thus we wrote
@@ -94,7 +105,7 @@ abstract public class CachingAsyncDatastoreReaderWriter implements AsyncDatastor
 
 		// Always trigger, even on failure - the delete might have succeeded even though a timeout
 		// exception was thrown.  We will always be safe emptying the key from the cache.
-		final Future<List<Key>> future = new TriggerFuture<List<Key>>(this.raw.put(entities)) {
+		final Future<List<Key>> future = new TriggerFuture<List<Key>>(put.get()) {
 			@Override
 			protected void trigger() {
 				// This is complicated by the fact that some entities may have been put() without keys,
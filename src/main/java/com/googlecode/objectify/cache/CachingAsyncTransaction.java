@@ -14,13 +14,20 @@ import com.googlecode.objectify.impl.PrivateAsyncTransaction;
 import com.googlecode.objectify.util.FutureHelper;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * <p>A write-through memcache for Entity objects that works for both transactional
@@ -28,7 +35,8 @@ import java.util.concurrent.Future;
  * 
  * <ul>
  * <li>Caches negative results as well as positive results.</li>
- * <li>Queries do not affect the cache in any way.</li>
+ * <li>Queries do not affect the entity cache.  Keys-only query results can be cached separately (see
+ * {@code QueryKeysCache}); writes invalidate them by kind.</li>
  * <li>Transactional reads bypass the cache, but successful transaction commits will update the cache.</li>
  * <li>This cache has near-transactional integrity.  As long as DeadlineExceededException is not hit, cache should
  * not go out of sync even under heavy contention.</li>
@@ -52,15 +60,15 @@ public class CachingAsyncTransaction extends CachingAsyncDatastoreReaderWriter i
 	/** */
 	private final EntityMemcache memcache;
 
-	/** Keys to remove from cache iff transaction commits */
-	private final Set<Key> deferred = new HashSet<>();
+	/** Keys to remove from cache iff transaction commits; concurrent because parallel tasks can share the transaction */
+	private final Set<Key> deferred = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * All futures that have been enlisted in this transaction.  In the future, when we can
 	 * hook into the raw Future<?>, we shouldn't need this - the GAE SDK automatically calls
 	 * quietGet() on all the enlisted Futures before a transaction commits.
 	 */
-	private final List<Future<?>> enlistedFutures = new ArrayList<>();
+	private final Queue<Future<?>> enlistedFutures = new ConcurrentLinkedQueue<>();
 
 	/** */
 	public CachingAsyncTransaction(final AsyncTransaction raw, final EntityMemcache memcache) {
@@ -100,7 +108,7 @@ public class CachingAsyncTransaction extends CachingAsyncDatastoreReaderWriter i
 			//		return;
 			//} catch (Exception ex) {}
 
-			memcache.empty(deferred);
+			invalidate(new ArrayList<>(deferred));
 		}
 
 		return response;
@@ -126,6 +134,11 @@ public class CachingAsyncTransaction extends CachingAsyncDatastoreReaderWriter i
 		return raw.getTransactionHandle();
 	}
 
+	@Override
+	public Optional<Instant> getReadTime() {
+		return raw.getReadTime();
+	}
+
 	@Override
 	public void runCommitListeners() {
 		((PrivateAsyncTransaction)raw).runCommitListeners();
@@ -136,6 +149,36 @@ public class CachingAsyncTransaction extends CachingAsyncDatastoreReaderWriter i
 		((PrivateAsyncTransaction)raw).enlist(result);
 	}
 
+	/**
+	 * Empty the committed keys from the cache.  With an invalidation executor, this happens in the background;
+	 * a LazyFuture waits for it when the enclosing session closes (or at the end of the request), so it
+	 * is always finished before the request completes.
+	 */
+	private void invalidate(final List<Key> keys) {
+		final Executor executor = memcache.getInvalidationExecutor();
+
+		if (executor == null) {
+			memcache.invalidate(keys);
+			return;
+		}
+
+		final CompletableFuture<Void> running;
+		try {
+			running = CompletableFuture.runAsync(() -> memcache.invalidate(keys), executor);
+		} catch (RejectedExecutionException ex) {
+			log.warn("Invalidation executor rejected work; invalidating synchronously", ex);
+			memcache.invalidate(keys);
+			return;
+		}
+
+		new LazyFuture<Void>() {
+			@Override
+			protected Void compute() throws Exception {
+				return running.get();
+			}
+		};
+	}
+
 	/**
 	 * Adds some keys which will be deleted if the commit is successful.
 	 */
@@ -178,6 +221,15 @@ public class CachingAsyncTransaction extends CachingAsyncDatastoreReaderWriter i
 		
 		return future;
 	}
+
+	@Override
+	public Future<List<Key>> put(final List<? extends FullEntity<?>> entities, final List<Integer> sizes) {
+		final Future<List<Key>> future = super.put(entities, sizes);
+
+		enlist(future);
+
+		return future;
+	}
 }
 
 
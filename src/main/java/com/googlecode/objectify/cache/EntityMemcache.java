@@ -3,10 +3,15 @@ package com.googlecode.objectify.cache;
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.Key;
 import com.googlecode.objectify.cache.MemcacheService.CasPut;
+import com.googlecode.objectify.impl.EntitySize;
+import com.googlecode.objectify.impl.ObjectifyEvents;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,6 +19,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +36,9 @@ import java.util.stream.Collectors;
  * we treat the key as uncacheable for the duration of the request.</p>
  *
  * <p>The values put in memcache are Key -> Entity, except for negative cache entries,
- * which are Key -> String (the value NEGATIVE).</p>
+ * which are Key -> String (the value NEGATIVE).  When refresh-ahead is enabled for a kind
+ * (see {@code CacheControl#getRefreshAheadPercent}), entities are stored wrapped in a
+ * {@code Refreshable} which records when the entry becomes due for refresh.</p>
  *
  * @author Jeff Schnitzer <jeff@infohazard.org>
  */
@@ -92,17 +101,31 @@ public class EntityMemcache
 		 * @return true if this is empty or uncacheable or something other than a nice entity or negative result.
 		 */
 		public boolean isEmpty() {
-			return !this.isCacheable() || (!this.isNegative() && !(identifiableValue.getValue() instanceof Entity));
+			return !this.isCacheable() || (!this.isNegative() && this.getEntity() == null);
 		}
 
 		/** Get the entity stored at this bucket, possibly the one that was set */
 		public Entity getEntity() {
-			if (identifiableValue != null && identifiableValue.getValue() instanceof Entity)
-				return (Entity)identifiableValue.getValue();
+			if (identifiableValue == null)
+				return null;
+
+			final Object value = identifiableValue.getValue();
+			if (value instanceof Entity)
+				return (Entity)value;
+			else if (value instanceof Refreshable)
+				return ((Refreshable)value).getEntity();
 			else
 				return null;
 		}
 
+		/** @return true if this bucket holds an entity which has entered its refresh-ahead window */
+		public boolean isRefreshDue() {
+			if (identifiableValue == null || !(identifiableValue.getValue() instanceof Refreshable))
+				return false;
+
+			return ((Refreshable)identifiableValue.getValue()).getRefreshAt() <= System.currentTimeMillis();
+		}
+
 		/**
 		 * Prepare the value that will be set in memcache in the next putAll().
 		 * Null (or not calling this method) will put a negative result in the cache.
@@ -120,6 +143,21 @@ public class EntityMemcache
 		}
 	}
 
+	/**
+	 * Wraps entities of kinds with refresh-ahead enabled, recording the time (in epoch millis)
+	 * after which a cache hit should trigger a refresh.
+	 */
+	@Value
+	public static class Refreshable implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/** */
+		Entity entity;
+
+		/** */
+		long refreshAt;
+	}
+
 	/**
 	 * The value stored in the memcache for a negative cache result.
 	 */
@@ -131,12 +169,22 @@ public class EntityMemcache
 	/** */
 	private final KeyMemcacheService memcache;
 	private final KeyMemcacheService memcacheWithRetry;
+	private final MemcacheService rawWithRetry;
 
 	@Getter
 	private final MemcacheStats stats;
 
 	private final CacheControl cacheControl;
 
+	/** Cached keys-only query results, invalidated by writes */
+	@Getter
+	private final QueryKeysCache queryKeysCache;
+
+	/** If not null, commit-time invalidation runs here instead of on the committing thread */
+	@Getter
+	@Setter
+	private volatile Executor invalidationExecutor;
+
 	/**
 	 * Creates a memcache which caches everything without expiry and doesn't record statistics.
 	 */
@@ -162,9 +210,11 @@ public class EntityMemcache
 
 		this.namespace = namespace;
 		this.memcache = new KeyMemcacheService(memcacheService);
-		this.memcacheWithRetry = new KeyMemcacheService(MemcacheServiceRetryProxy.createProxy(memcacheService));
+		this.rawWithRetry = MemcacheServiceRetryProxy.createProxy(memcacheService);
+		this.memcacheWithRetry = new KeyMemcacheService(this.rawWithRetry);
 		this.stats = stats;
 		this.cacheControl = cacheControl;
+		this.queryKeysCache = new QueryKeysCache(memcacheService, namespace, cacheControl);
 	}
 
 	/**
@@ -182,6 +232,9 @@ public class EntityMemcache
 	 * @return the buckets requested.  Buckets will never be null.  You will always get a bucket for every key.
 	 */
 	public Map<Key, Bucket> getAll(final Iterable<Key> keys) {
+		final ObjectifyEvents.MemcacheGet event = new ObjectifyEvents.MemcacheGet();
+		event.begin();
+
 		final Map<Key, Bucket> result = new HashMap<>();
 
 		// Sort out the ones that are uncacheable
@@ -205,15 +258,26 @@ public class EntityMemcache
 		}
 
 		// Now create the remaining buckets
+		int hits = 0;
 		for (final Key key: keys) {
 			final IdentifiableValue casValue = casValues.get(key);	// Might be null, which means uncacheable
 			final Bucket buck = new Bucket(key, casValue);
 			result.put(key, buck);
 
-			if (buck.isEmpty())
+			if (buck.isEmpty()) {
 				this.stats.recordMiss(buck.getKey());
-			else
+			} else {
 				this.stats.recordHit(buck.getKey());
+				hits++;
+			}
+		}
+
+		if (event.shouldCommit()) {
+			event.kind = ObjectifyEvents.kinds(result.keySet());
+			event.keys = result.size();
+			event.hits = hits;
+			event.hitRatio = result.isEmpty() ? 0 : (double)hits / result.size();
+			event.commit();
 		}
 
 		return result;
@@ -226,11 +290,25 @@ public class EntityMemcache
 	 *  been obtained from getAll().
 	 */
 	public void putAll(final Collection<Bucket> updates) {
+		final ObjectifyEvents.MemcachePut event = new ObjectifyEvents.MemcachePut();
+		event.begin();
+
 		final Set<Key> good = this.cachePutIfUntouched(updates);
 
-		if (good.size() == updates.size())
-			return;
+		if (good.size() != updates.size())
+			this.emptyCollisions(updates, good);
+
+		if (event.shouldCommit()) {
+			event.kind = ObjectifyEvents.kinds(updates.stream().map(Bucket::getKey).collect(Collectors.toList()));
+			event.keys = updates.size();
+			event.collisions = updates.size() - good.size();
+			event.bytes = updates.stream().filter(buck -> buck.next != null).mapToLong(buck -> EntitySize.of(buck.next)).sum();
+			event.commit();
+		}
+	}
 
+	/** Reset the keys which collided, if they are not already empty */
+	private void emptyCollisions(final Collection<Bucket> updates, final Set<Key> good) {
 		// Figure out which ones were bad
 		final List<Key> bad = updates.stream()
 				.map(Bucket::getKey)
@@ -252,6 +330,17 @@ public class EntityMemcache
 		}
 	}
 
+	/**
+	 * Update a set of buckets with refreshed values.  Unlike putAll(), collisions are left alone; a collision
+	 * means someone else has already written (or emptied) the entry since we read it, which is at least as
+	 * fresh as what we have.
+	 *
+	 * @param updates must have been obtained from getAll().
+	 */
+	public void refreshAll(final Collection<Bucket> updates) {
+		this.cachePutIfUntouched(updates);
+	}
+
 	/**
 	 * Revert a set of keys to the empty state.  Will loop on this several times just in case
 	 * the memcache write fails - we don't want to leave the cache in a nasty state.
@@ -266,6 +355,23 @@ public class EntityMemcache
 		this.memcacheWithRetry.putAll(updates);
 	}
 
+	/**
+	 * Like empty(), but also invalidates cached queries of the keys' kinds.  Everything goes to the cache
+	 * in a single putAll() so the cost does not grow with the number of kinds or entity groups involved.
+	 */
+	public void invalidate(final Collection<Key> keys) {
+		final Map<String, Object> updates = new HashMap<>();
+
+		for (final Key key: keys)
+			if (cacheControl.isCacheable(key))
+				updates.put(memcache.toCacheKey(key), null);
+
+		updates.putAll(queryKeysCache.generationBumps(keys));
+
+		if (!updates.isEmpty())
+			this.rawWithRetry.putAll(updates);
+	}
+
 	/**
 	 * Put buckets in the cache, checking for cacheability and collisions.
 	 * @return the set of keys that were *successfully* handled. That includes buckets that were put without collision
@@ -287,7 +393,10 @@ public class EntityMemcache
 				continue;
 			}
 
-			payload.put(buck.getKey(), new CasPut(buck.identifiableValue, buck.getNextToStore(), expirySeconds));
+			final int jittered = this.jitter(buck.getKey(), expirySeconds);
+			final Object value = this.stamp(buck, jittered);
+			this.stats.recordPut(buck.getKey(), value);
+			payload.put(buck.getKey(), new CasPut(buck.identifiableValue, value, jittered));
 		}
 
 		successes.addAll(this.memcache.putIfUntouched(payload));
@@ -295,6 +404,35 @@ public class EntityMemcache
 		return successes;
 	}
 
+	/**
+	 * Randomly shorten the expiry by up to the jitter percentage for the key.  Never produces 0 (which
+	 * would mean "no limit") from a limited expiry.
+	 */
+	private int jitter(final Key key, final int expirySeconds) {
+		final int percent = cacheControl.getExpiryJitterPercent(key);
+		if (expirySeconds <= 0 || percent <= 0)
+			return expirySeconds;
+
+		final int spread = (int)((long)expirySeconds * percent / 100);
+		return Math.max(1, expirySeconds - ThreadLocalRandom.current().nextInt(spread + 1));
+	}
+
+	/**
+	 * @return the value to store for the bucket, wrapped in a Refreshable if the key has refresh-ahead enabled
+	 */
+	private Object stamp(final Bucket buck, final int expirySeconds) {
+		final Object value = buck.getNextToStore();
+		if (!(value instanceof Entity) || expirySeconds <= 0)
+			return value;
+
+		final int percent = cacheControl.getRefreshAheadPercent(buck.getKey());
+		if (percent <= 0)
+			return value;
+
+		final long freshMillis = (long)expirySeconds * (100 - percent) * 10;
+		return new Refreshable((Entity)value, System.currentTimeMillis() + freshMillis);
+	}
+
 	/**
 	 * Bulk get on keys, getting the raw objects
 	 */
@@ -29,7 +29,7 @@ public class KeyMemcacheService
 		return Key.fromUrlSafe(key);
 	}
 
-	private String toCacheKey(final Key key) {
+	String toCacheKey(final Key key) {
 		return key.toUrlSafe();
 	}
 
@@ -0,0 +1,96 @@
+package com.googlecode.objectify.cache;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>
+ * A Future<?> which does not do any work until somebody asks for the result. It registers itself
+ * with {@code PendingFutures}, so if nobody asks sooner, the work is performed at the end of the
+ * request (when the ObjectifyFilter or AsyncCacheFilter completes all pending futures).
+ * </p>
+ *
+ * <p>This is useful for housekeeping that the caller should not have to wait on, like refreshing
+ * cache entries.  The work runs ONCE, on the thread that calls get().</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+abstract public class LazyFuture<T> implements Future<T>
+{
+	/** */
+	private boolean done;
+
+	/** */
+	private T result;
+
+	/** */
+	private ExecutionException failure;
+
+	/** Registers with PendingFutures */
+	public LazyFuture() {
+		PendingFutures.addPending(this);
+	}
+
+	/**
+	 * Perform the actual work. Called at most once.
+	 */
+	abstract protected T compute() throws Exception;
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.Future#cancel(boolean)
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		throw new UnsupportedOperationException("This makes my head spin. Don't do it.");
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.Future#isCancelled()
+	 */
+	@Override
+	public boolean isCancelled() {
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.Future#isDone()
+	 */
+	@Override
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Runs the work if it has not been run already.
+	 * @see java.util.concurrent.Future#get()
+	 */
+	@Override
+	public T get() throws ExecutionException {
+		if (!done) {
+			done = true;
+			PendingFutures.removePending(this);
+
+			try {
+				result = compute();
+			} catch (Exception ex) {
+				failure = new ExecutionException(ex);
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+
+		return result;
+	}
+
+	/**
+	 * The work is synchronous, so the timeout is meaningless.
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public T get(long timeout, TimeUnit unit) throws ExecutionException {
+		return this.get();
+	}
+}
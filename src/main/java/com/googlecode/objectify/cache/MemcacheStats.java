@@ -12,6 +12,14 @@ public interface MemcacheStats
 {
 	public void recordHit(Key key);
 	public void recordMiss(Key key);
+
+	/**
+	 * Called for every value the entity memcache attempts to store (an Entity, a wrapped Entity,
+	 * or the negative marker).  Implementations that care about value sizes should sample; this is
+	 * on the hot path.
+	 */
+	default void recordPut(Key key, Object value) {
+	}
 }
 
 
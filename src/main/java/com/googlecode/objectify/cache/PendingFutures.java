@@ -1,9 +1,9 @@
 package com.googlecode.objectify.cache;
 
+import com.googlecode.objectify.context.ObjectifyContext;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 /**
@@ -17,25 +17,27 @@ import java.util.concurrent.Future;
 public class PendingFutures
 {
 	/**
-	 * We use ConcurrentHashMap not for concurrency but because it doesn't throw
-	 * ConcurrentModificationException.  We need to be able to iterate while Futures remove
-	 * themselves from the set. A Set is just a Map of key to key.
+	 * The map lives in the current ObjectifyContext. It is a ConcurrentHashMap not for concurrency but
+	 * because it doesn't throw ConcurrentModificationException; we need to be able to iterate while
+	 * Futures remove themselves from the set.
 	 */
-	private static ThreadLocal<Map<Future<?>, Future<?>>> pending = ThreadLocal.withInitial(() -> new ConcurrentHashMap<>(64, 0.75f, 1));
+	private static Map<Future<?>, Future<?>> pending() {
+		return ObjectifyContext.current().getPending();
+	}
 	
 	/**
 	 * Register a pending Future that has a callback.
 	 * @param future must have at least one callback
 	 */
 	public static void addPending(Future<?> future) {
-		pending.get().put(future, future);
+		pending().put(future, future);
 	}
 	
 	/**
 	 * Deregister a pending Future that had a callback.
 	 */
 	public static void removePending(Future<?> future) {
-		pending.get().remove(future);
+		pending().remove(future);
 	}
 	
 	/**
@@ -45,7 +47,7 @@ public class PendingFutures
 	 */
 	public static void completeAllPendingFutures() {
 		// This will cause done Futures to fire callbacks and remove themselves
-		for (Future<?> fut: pending.get().keySet()) {
+		for (Future<?> fut: pending().keySet()) {
 			try {
 				fut.get();
 			}
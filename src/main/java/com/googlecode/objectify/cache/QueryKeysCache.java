@@ -0,0 +1,252 @@
+package com.googlecode.objectify.cache;
+
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.QueryResults;
+import com.google.common.hash.Hashing;
+import com.googlecode.objectify.cache.MemcacheService.CasPut;
+import com.google.datastore.v1.QueryResultBatch.MoreResultsType;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * <p>Caches the results of keys-only queries (including the keys-only half of hybrid queries) in the
+ * MemcacheService.  Only keys are cached; entities still come through the {@code EntityMemcache}.</p>
+ *
+ * <p>Each kind has a generation stamp held in the memcache.  Every cached result
+ * records the generation that was current before the query ran, and is only used while that generation
+ * is still current.  Any write or delete of an entity of the kind replaces the generation with a new random
+ * value, invalidating every cached query of that kind at once.  If the generation is evicted from the
+ * memcache, all cached queries of the kind are treated as misses.  Generations are not split by namespace,
+ * because a query with no explicit namespace runs in whatever the datastore default is; a write in one
+ * namespace invalidates queries of that kind in all of them.</p>
+ *
+ * <p>As with the entity cache, writes which bypass the cache (ie {@code ofy().cache(false)}) will not
+ * invalidate anything.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Slf4j
+public class QueryKeysCache
+{
+	/** What we actually store in the memcache for a query */
+	@Value
+	static class CachedKeys implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/** The kind generation that was current when the query was run */
+		long generation;
+
+		/** The keys, in query order */
+		ArrayList<Key> keys;
+
+		/** The cursor after each key; same length as keys */
+		ArrayList<Cursor> cursors;
+
+		/** The cursor before any keys have been read */
+		Cursor startCursor;
+
+		/** */
+		int skippedResults;
+
+		/** */
+		MoreResultsType moreResults;
+	}
+
+	/** */
+	private final String namespace;
+
+	/** */
+	private final MemcacheService memcache;
+
+	/** Generation bumps must not be lost */
+	private final MemcacheService memcacheWithRetry;
+
+	/** */
+	private final CacheControl cacheControl;
+
+	/**
+	 * @param namespace is a prefix used to distinguish our memcache entries from anything else
+	 */
+	public QueryKeysCache(final MemcacheService memcache, final String namespace, final CacheControl cacheControl) {
+		this.namespace = namespace;
+		this.memcache = memcache;
+		this.memcacheWithRetry = MemcacheServiceRetryProxy.createProxy(memcache);
+		this.cacheControl = cacheControl;
+	}
+
+	/**
+	 * Invalidate all cached queries for the kinds of the specified keys.  Called whenever entities are
+	 * written or deleted.
+	 */
+	public void invalidate(final Iterable<Key> keys) {
+		final Map<String, Object> bumps = generationBumps(keys);
+
+		if (!bumps.isEmpty())
+			this.memcacheWithRetry.putAll(bumps);
+	}
+
+	/**
+	 * @return the raw cache writes which invalidate all cached queries for the kinds of the specified keys,
+	 * so that they can be sent along with other writes
+	 */
+	Map<String, Object> generationBumps(final Iterable<Key> keys) {
+		final Set<String> generationKeys = new HashSet<>();
+
+		for (final Key key: keys)
+			if (cacheControl.isCacheable(key))
+				generationKeys.add(generationKey(key.getKind()));
+
+		final Map<String, Object> bumps = new HashMap<>();
+		for (final String generationKey: generationKeys)
+			bumps.put(generationKey, newGeneration());
+
+		return bumps;
+	}
+
+	/**
+	 * Run a keys-only query, using the cached result if the kind has not changed since it was stored.
+	 * The query must have a kind.  Errors talking to the memcache degrade to running the query.
+	 *
+	 * @param expirySeconds how long to keep the result; 0 means no limit
+	 * @param source runs the query against the datastore
+	 */
+	public QueryResults<Key> run(final KeyQuery query, final int expirySeconds, final Supplier<QueryResults<Key>> source) {
+		final String generationKey = generationKey(query.getKind());
+		final String resultKey = resultKey(query);
+
+		final long generation;
+		final IdentifiableValue resultIv;
+		try {
+			final Map<String, IdentifiableValue> found = memcache.getIdentifiables(Arrays.asList(generationKey, resultKey));
+			final IdentifiableValue generationIv = found.get(generationKey);
+			resultIv = found.get(resultKey);
+
+			final Object current = generationIv == null ? null : generationIv.getValue();
+			final Object cached = resultIv == null ? null : resultIv.getValue();
+
+			if (current instanceof Long && cached instanceof CachedKeys && ((CachedKeys)cached).getGeneration() == (Long)current) {
+				log.trace("Query keys cache hit for {}", query);
+				return new CachedKeyQueryResults((CachedKeys)cached);
+			}
+
+			// The generation must be established *before* the query runs, otherwise a write that lands between
+			// the query and the generation put would go unnoticed.
+			if (current instanceof Long) {
+				generation = (Long)current;
+			} else {
+				generation = newGeneration();
+				memcache.put(generationKey, generation);
+			}
+		} catch (Exception ex) {
+			log.warn("Error reading query keys cache for " + query, ex);
+			return source.get();
+		}
+
+		final CachedKeys fresh = collect(generation, source.get());
+
+		if (resultIv != null) {
+			try {
+				memcache.putIfUntouched(Collections.singletonMap(resultKey, new CasPut(resultIv, fresh, expirySeconds)));
+			} catch (Exception ex) {
+				log.warn("Error writing query keys cache for " + query, ex);
+			}
+		}
+
+		return new CachedKeyQueryResults(fresh);
+	}
+
+	/** Drain the query results into something we can store */
+	private CachedKeys collect(final long generation, final QueryResults<Key> results) {
+		final Cursor startCursor = results.getCursorAfter();
+		final ArrayList<Key> keys = new ArrayList<>();
+		final ArrayList<Cursor> cursors = new ArrayList<>();
+
+		while (results.hasNext()) {
+			keys.add(results.next());
+			cursors.add(results.getCursorAfter());
+		}
+
+		return new CachedKeys(generation, keys, cursors, startCursor, results.getSkippedResults(), results.getMoreResults());
+	}
+
+	/** */
+	private long newGeneration() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+	/** Hashed to keep within memcache key limits */
+	private String generationKey(final String kind) {
+		return this.namespace + ":gen:" + hash(kind);
+	}
+
+	/** The query's string form includes kind, namespace, filters, orders, limit, offset, and cursors */
+	private String resultKey(final KeyQuery query) {
+		return this.namespace + ":query:" + hash(query.toString());
+	}
+
+	/** */
+	private static String hash(final String value) {
+		return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+	}
+
+	/**
+	 * Replays a CachedKeys as if it were a live query
+	 */
+	@RequiredArgsConstructor
+	private static class CachedKeyQueryResults implements QueryResults<Key> {
+		/** */
+		private final CachedKeys cached;
+
+		/** */
+		private int index;
+
+		@Override
+		public boolean hasNext() {
+			return index < cached.getKeys().size();
+		}
+
+		@Override
+		public Key next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			return cached.getKeys().get(index++);
+		}
+
+		@Override
+		public Cursor getCursorAfter() {
+			return index == 0 ? cached.getStartCursor() : cached.getCursors().get(index - 1);
+		}
+
+		@Override
+		public Class<?> getResultClass() {
+			return Key.class;
+		}
+
+		@Override
+		public int getSkippedResults() {
+			return cached.getSkippedResults();
+		}
+
+		@Override
+		public MoreResultsType getMoreResults() {
+			return cached.getMoreResults();
+		}
+	}
+}
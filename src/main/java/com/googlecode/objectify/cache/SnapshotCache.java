@@ -0,0 +1,106 @@
+package com.googlecode.objectify.cache;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.googlecode.objectify.util.FutureNow;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * <p>An in-memory cache of entities as they were at a specific point in time.  A read at a fixed timestamp
+ * in the past always returns the same thing, so these results never need to be invalidated; they are only
+ * evicted (least recently used first) when the cache is full.  Missing entities are cached too.</p>
+ *
+ * <p>This serves {@code ofy().load().readTime(...)} and loads in transactions with
+ * {@code TxnOptions.readTime(...)}, when installed with {@code ObjectifyFactory.setSnapshotCache()}.
+ * It is shared by all threads using the factory, so parallel workers reading at the same timestamp
+ * only fetch each entity once.</p>
+ *
+ * <p>Read times that are very recent are not cached, since the local clock may be ahead of the datastore's.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class SnapshotCache
+{
+	/** Read times must be at least this far in the past to be cached */
+	public static final Duration MIN_AGE = Duration.ofSeconds(10);
+
+	/** */
+	@Value
+	private static class Snapshot {
+		Key key;
+		Instant readTime;
+	}
+
+	/** Empty optional for entities which did not exist at the read time */
+	private final Cache<Snapshot, Optional<Entity>> cache;
+
+	/**
+	 * @param maximumSize is the number of (key, readTime) entries to hold
+	 */
+	public SnapshotCache(final long maximumSize) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	/** @return true if reads at this time can be cached */
+	public boolean isCacheable(final Instant readTime) {
+		return readTime.isBefore(Instant.now().minus(MIN_AGE));
+	}
+
+	/**
+	 * Get entities as of the read time, fetching only the ones we don't have.  The read time must be cacheable.
+	 *
+	 * @param source fetches from the datastore at the read time
+	 */
+	public Future<Map<Key, Entity>> get(final Collection<Key> keys, final Instant readTime, final Function<Collection<Key>, Future<Map<Key, Entity>>> source) {
+		final Map<Key, Entity> cached = new HashMap<>();
+		final List<Key> uncached = new ArrayList<>();
+
+		for (final Key key: keys) {
+			final Optional<Entity> hit = cache.getIfPresent(new Snapshot(key, readTime));
+			if (hit == null)
+				uncached.add(key);
+			else
+				hit.ifPresent(entity -> cached.put(key, entity));
+		}
+
+		if (uncached.isEmpty())
+			return new FutureNow<>(cached);
+
+		final Future<Map<Key, Entity>> pending = new TriggerSuccessFuture<Map<Key, Entity>>(source.apply(uncached)) {
+			@Override
+			public void success(final Map<Key, Entity> result) {
+				for (final Key key: uncached)
+					cache.put(new Snapshot(key, readTime), Optional.ofNullable(result.get(key)));
+			}
+		};
+
+		return cached.isEmpty() ? pending : new MergeFuture<>(cached, pending);
+	}
+
+	/** @return hit and eviction counts */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	/** Drop everything */
+	public void clear() {
+		cache.invalidateAll();
+	}
+}
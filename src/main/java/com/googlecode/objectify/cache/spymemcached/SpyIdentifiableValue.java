@@ -8,8 +8,6 @@ import net.spy.memcached.CASValue;
 public class SpyIdentifiableValue implements IdentifiableValue {
 	private final CASValue<Object> casValue;
 
-	@Override
-	public Object getValue() {
-		return casValue.getValue();
-	}
+	/** The decoded value; the raw one in casValue may be serialized and compressed bytes */
+	private final Object value;
 }
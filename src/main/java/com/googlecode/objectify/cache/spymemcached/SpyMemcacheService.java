@@ -1,8 +1,8 @@
 package com.googlecode.objectify.cache.spymemcached;
 
+import com.googlecode.objectify.cache.CacheValueCodec;
 import com.googlecode.objectify.cache.IdentifiableValue;
 import com.googlecode.objectify.cache.MemcacheService;
-import lombok.RequiredArgsConstructor;
 import net.spy.memcached.CASResponse;
 import net.spy.memcached.CASValue;
 import net.spy.memcached.MemcachedClient;
@@ -13,24 +13,53 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
- * Among the issues this impl needs to be concerned with is that memcached doesn't store nulls. We have to replace it
- * with something (in our case, an empty string).
+ * <p>Among the issues this impl needs to be concerned with is that memcached doesn't store nulls. We have to replace it
+ * with something (in our case, an empty string).</p>
+ *
+ * <p>Values are serialized by a {@link CacheValueCodec} and stored as byte arrays, so that large values can be
+ * compressed before they hit the wire (and the 1MB item limit).  Values stored as plain objects by earlier versions
+ * are still read normally.</p>
  */
-@RequiredArgsConstructor
 public class SpyMemcacheService implements MemcacheService {
 	/** Stored as a value to indicate that this is a null; memcached doesn't store actual nulls */
 	private static final String NULL_VALUE = "";
 
 	private final MemcachedClient client;
 
+	private final CacheValueCodec codec;
+
+	/** Compresses values larger than {@link CacheValueCodec#DEFAULT_THRESHOLD} */
+	public SpyMemcacheService(final MemcachedClient client) {
+		this(client, CacheValueCodec.DEFAULT);
+	}
+
+	/** */
+	public SpyMemcacheService(final MemcachedClient client, final CacheValueCodec codec) {
+		this.client = client;
+		this.codec = codec;
+	}
+
 	private Object toCacheValue(final Object thing) {
-		return thing == null ? NULL_VALUE : thing;
+		return thing == null ? NULL_VALUE : codec.encode(thing);
 	}
 
 	private Object fromCacheValue(final Object thing) {
-		return NULL_VALUE.equals(thing) ? null : thing;
+		return NULL_VALUE.equals(thing) ? null : decode(thing);
+	}
+
+	/** Objects written by older versions come back from the transcoder already deserialized */
+	private Object decode(final Object thing) {
+		if (thing instanceof byte[] && CacheValueCodec.isEncoded((byte[])thing))
+			return codec.decode((byte[])thing);
+		else
+			return thing;
+	}
+
+	private SpyIdentifiableValue identifiable(final CASValue<Object> casValue) {
+		return new SpyIdentifiableValue(casValue, decode(casValue.getValue()));
 	}
 
 	public Object get(final String key) {
@@ -53,7 +82,7 @@ public class SpyMemcacheService implements MemcacheService {
 	private IdentifiableValue getIdentifiable(final String key) {
 		final CASValue<Object> casValue = client.gets(key);
 		if (casValue != null) {
-			return new SpyIdentifiableValue(casValue);
+			return identifiable(casValue);
 		} else {
 			try {
 				// use the fake null so that no other fetches get confused
@@ -63,7 +92,7 @@ public class SpyMemcacheService implements MemcacheService {
 			}
 
 			final CASValue<Object> try2 = client.gets(key);
-			return try2 == null ? null : new SpyIdentifiableValue(try2);
+			return try2 == null ? null : identifiable(try2);
 		}
 	}
 
@@ -80,13 +109,23 @@ public class SpyMemcacheService implements MemcacheService {
 	}
 
 	public Set<String> putIfUntouched(final Map<String, CasPut> values) {
-		final Set<String> successes = new HashSet<>();
+		// Pipeline the CAS operations; issue them all and then wait for the responses
+		final Map<String, Future<CASResponse>> pending = new LinkedHashMap<>();
 
 		values.forEach((key, vals) -> {
 			final long cas = ((SpyIdentifiableValue)vals.getIv()).getCasValue().getCas();
-			final CASResponse response = client.cas(key, cas, vals.getExpirationSeconds(), toCacheValue(vals.getNextToStore()));
-			if (response == CASResponse.OK) {
-				successes.add(key);
+			pending.put(key, client.asyncCAS(key, cas, vals.getExpirationSeconds(), toCacheValue(vals.getNextToStore())));
+		});
+
+		final Set<String> successes = new HashSet<>();
+
+		pending.forEach((key, future) -> {
+			try {
+				if (future.get() == CASResponse.OK) {
+					successes.add(key);
+				}
+			} catch (final InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
 			}
 		});
 
@@ -1,5 +1,6 @@
 package com.googlecode.objectify.cache.valkey;
 
+import com.googlecode.objectify.cache.CacheValueCodec;
 import com.googlecode.objectify.cache.IdentifiableValue;
 import com.googlecode.objectify.cache.MemcacheService;
 import glide.api.BaseClient;
@@ -12,11 +13,6 @@ import glide.api.models.configuration.RequestRoutingConfiguration.Route;
 import glide.api.models.configuration.RequestRoutingConfiguration.SlotKeyRoute;
 import glide.api.models.configuration.RequestRoutingConfiguration.SlotType;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -53,6 +49,12 @@ import static glide.api.models.GlideString.gs;
  * <p>Null values are stored as a single {@code 0x00} byte. Java-serialized objects always begin
  * with the magic bytes {@code 0xAC 0xED}, so the sentinel can never collide with a real value.</p>
  *
+ * <p><b>Compression.</b> Values are encoded by a {@link CacheValueCodec}. Serialized values above its
+ * threshold are deflated and prefixed with the {@link CacheValueCodec#COMPRESSED} header byte, which
+ * can collide with neither the null sentinel nor the Java serialization magic; values written
+ * uncompressed by earlier versions remain readable. CAS still compares the exact stored bytes, so
+ * compression is invisible to {@code IFEQ}.</p>
+ *
  * <p><b>Expiration.</b> Every write carries a TTL so the keyspace stays bounded. Memcache-backed
  * caches shed cold entries via LRU eviction; a Valkey cluster configured with {@code noeviction}
  * cannot, so a persistent write pattern grows until {@code maxmemory} is hit and every subsequent
@@ -81,6 +83,9 @@ public class ValkeyCacheService implements MemcacheService {
 	/** Fallback TTL (seconds) for writes that don't specify their own; keeps the keyspace bounded. */
 	private final int defaultExpirationSeconds;
 
+	/** Serializes values, compressing those above its size threshold. */
+	private final CacheValueCodec codec;
+
 	/**
 	 * SET options that expire the key after {@link #defaultExpirationSeconds}. {@link SetOptions} is immutable and
 	 * thread-safe once built, so we pre-build one instance instead of allocating a new builder on every
@@ -96,12 +101,18 @@ public class ValkeyCacheService implements MemcacheService {
 		this(client, DEFAULT_EXPIRATION_SECONDS);
 	}
 
+	/** Compresses values larger than {@link CacheValueCodec#DEFAULT_THRESHOLD}. */
 	public ValkeyCacheService(final BaseClient client, final int defaultExpirationSeconds) {
+		this(client, defaultExpirationSeconds, CacheValueCodec.DEFAULT);
+	}
+
+	public ValkeyCacheService(final BaseClient client, final int defaultExpirationSeconds, final CacheValueCodec codec) {
 		if (defaultExpirationSeconds <= 0) {
 			throw new IllegalArgumentException("defaultExpirationSeconds must be positive, got " + defaultExpirationSeconds);
 		}
 		this.client = client;
 		this.defaultExpirationSeconds = defaultExpirationSeconds;
+		this.codec = codec;
 		this.defaultSetOptions = SetOptions.builder()
 				.expiry(SetOptions.Expiry.Seconds((long) defaultExpirationSeconds))
 				.build();
@@ -111,30 +122,18 @@ public class ValkeyCacheService implements MemcacheService {
 				.build();
 	}
 
-	private static byte[] toCacheBytes(final Object thing) {
+	private byte[] toCacheBytes(final Object thing) {
 		if (thing == null) {
 			return NULL_VALUE;
 		}
-		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			 final ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-			oos.writeObject(thing);
-			oos.flush();
-			return baos.toByteArray();
-		} catch (final IOException e) {
-			throw new RuntimeException("Failed to serialize cache value", e);
-		}
+		return codec.encode(thing);
 	}
 
-	private static Object fromCacheBytes(final byte[] bytes) {
+	private Object fromCacheBytes(final byte[] bytes) {
 		if (bytes == null || Arrays.equals(bytes, NULL_VALUE)) {
 			return null;
 		}
-		try (final ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-			 final ObjectInputStream ois = new ObjectInputStream(bais)) {
-			return ois.readObject();
-		} catch (final IOException | ClassNotFoundException e) {
-			throw new RuntimeException("Failed to deserialize cache value", e);
-		}
+		return codec.decode(bytes);
 	}
 
 	private static GlideString gskey(final String key) {
@@ -0,0 +1,77 @@
+package com.googlecode.objectify.cmd;
+
+import com.googlecode.objectify.Work;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>The top element in the command chain for asynchronous operations. Each operation runs on its own
+ * fork of the current Objectify (same options and namespace, with a private copy of the session) and
+ * returns a {@code CompletionStage} which completes when the operation, including its cache housekeeping,
+ * has finished.</p>
+ *
+ * <p>Stages complete inside the fork, so dependent stages which run on completion can call {@code ofy()}
+ * and chain further asynchronous operations:</p>
+ *
+ * <pre>
+ * ofy().async().load().key(key)
+ *     .thenCompose(thing -&gt; ofy().async().save().entity(thing.touch()));
+ * </pre>
+ *
+ * <p>Entities loaded or saved asynchronously are not added to the caller's session. Saving or deleting
+ * asynchronously removes those keys from the caller's session as the operation starts, so later loads by
+ * the caller go to the cache or datastore rather than returning the old value. Writes made inside
+ * {@link #run(Work)} are not known in advance, so the caller's session can still hold the old values
+ * afterwards; call {@code ofy().clear()} once the work completes if that matters. Asynchronous
+ * operations cannot be started inside a transaction, since the transaction might commit before they finish;
+ * use {@code ofy().parallel()} there instead.</p>
+ *
+ * <p>The Cloud Datastore client is synchronous, so each in-flight operation occupies a thread of
+ * {@code ObjectifyFactory.getParallelExecutor()}; the caller's thread is never blocked.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface Async {
+	/**
+	 * <p>Start an asynchronous load command chain.</p>
+	 *
+	 * <p>A quick example:
+	 * {@code ofy().async().load().keys(k1, k2).thenAccept(things -> ...);}</p>
+	 *
+	 * @return the next step in the immutable command chain.
+	 */
+	AsyncLoader load();
+
+	/**
+	 * <p>Start an asynchronous save command chain.</p>
+	 *
+	 * <p>A quick example:
+	 * {@code ofy().async().save().entities(e1, e2).thenAccept(saved -> ...);}</p>
+	 *
+	 * @return the next step in the immutable command chain.
+	 */
+	AsyncSaver save();
+
+	/**
+	 * <p>Start an asynchronous delete command chain.</p>
+	 *
+	 * <p>A quick example:
+	 * {@code ofy().async().delete().keys(k1, k2).thenRun(() -> ...);}</p>
+	 *
+	 * @return the next step in the immutable command chain.
+	 */
+	AsyncDeleter delete();
+
+	/**
+	 * <p>Run arbitrary Objectify work asynchronously; inside the work, {@code ofy()} is the fork. This is
+	 * how to run queries:</p>
+	 *
+	 * <p>{@code ofy().async().run(() -> ofy().load().type(Thing.class).filter("size >", 10).list())}</p>
+	 *
+	 * <p>The result should be fully materialized by the work; lazy results (such as query iterables) must
+	 * not escape it.</p>
+	 *
+	 * @return a stage which completes with the result of the work
+	 */
+	<R> CompletionStage<R> run(Work<R> work);
+}
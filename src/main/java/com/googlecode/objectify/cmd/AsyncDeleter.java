@@ -0,0 +1,41 @@
+package com.googlecode.objectify.cmd;
+
+import com.googlecode.objectify.Key;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>Element in the command chain for deleting entities asynchronously. The semantics are the same as
+ * the equivalent methods of {@link Deleter}.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface AsyncDeleter
+{
+	/**
+	 * @return a stage which completes when the entity has been deleted
+	 */
+	CompletionStage<Void> key(Key<?> key);
+
+	/**
+	 * @return a stage which completes when the entities have been deleted
+	 */
+	CompletionStage<Void> keys(Iterable<? extends Key<?>> keys);
+
+	/**
+	 * A convenience method for keys(Iterable)
+	 */
+	CompletionStage<Void> keys(Key<?>... keys);
+
+	/**
+	 * @param entity must be a registered entity type with its id (and parent, if any) set
+	 * @return a stage which completes when the entity has been deleted
+	 */
+	CompletionStage<Void> entity(Object entity);
+
+	/**
+	 * @param entities must be registered entity types with their ids (and parents, if any) set
+	 * @return a stage which completes when the entities have been deleted
+	 */
+	CompletionStage<Void> entities(Iterable<?> entities);
+}
@@ -0,0 +1,58 @@
+package com.googlecode.objectify.cmd;
+
+import com.googlecode.objectify.Key;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>Element in the command chain for loading entities asynchronously. The semantics are the same as
+ * the equivalent methods of {@link Loader}.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface AsyncLoader
+{
+	/**
+	 * <p>Enables one or more fetch groups. See {@link Loader#group(Class[])}.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object rather than modifying the
+	 * current command object.</b></p>
+	 *
+	 * @return the next step in the immutable command chain.
+	 */
+	AsyncLoader group(Class<?>... groups);
+
+	/**
+	 * <p>Load a single entity by key.</p>
+	 *
+	 * @return a stage which completes with the entity, or null if it does not exist
+	 */
+	<E> CompletionStage<E> key(Key<E> key);
+
+	/**
+	 * <p>Load multiple entities by key.</p>
+	 *
+	 * @return a stage which completes with a map of the entities that exist; iteration order is the same as the keys
+	 */
+	<E> CompletionStage<Map<Key<E>, E>> keys(Iterable<Key<E>> keys);
+
+	/**
+	 * A convenience method for keys(Iterable)
+	 */
+	<E> CompletionStage<Map<Key<E>, E>> keys(Key<? extends E>... keys);
+
+	/**
+	 * <p>Load a single entity given an instance of the entity with the id (and parent, if any) set.</p>
+	 *
+	 * @return a stage which completes with the loaded entity, or null if it does not exist
+	 */
+	<E> CompletionStage<E> entity(E entity);
+
+	/**
+	 * <p>Load multiple entities given instances of the entities with ids (and parents, if any) set.</p>
+	 *
+	 * @return a stage which completes with a map of the entities that exist
+	 */
+	<E> CompletionStage<Map<Key<E>, E>> entities(Iterable<E> entities);
+}
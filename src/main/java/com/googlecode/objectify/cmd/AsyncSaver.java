@@ -0,0 +1,35 @@
+package com.googlecode.objectify.cmd;
+
+import com.googlecode.objectify.Key;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>Element in the command chain for saving entities asynchronously. The semantics are the same as
+ * the equivalent methods of {@link Saver}.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface AsyncSaver
+{
+	/**
+	 * <p>Save a single entity. If the entity has a null Long id, the value will be autogenerated and
+	 * populated on the entity object before the stage completes.</p>
+	 *
+	 * @return a stage which completes with the key of the saved entity
+	 */
+	<E> CompletionStage<Key<E>> entity(E entity);
+
+	/**
+	 * <p>Save a batch of entities.</p>
+	 *
+	 * @return a stage which completes with a map of key to entity, in the same order as the entities
+	 */
+	<E> CompletionStage<Map<Key<E>, E>> entities(Iterable<E> entities);
+
+	/**
+	 * A convenience method for entities(Iterable)
+	 */
+	<E> CompletionStage<Map<Key<E>, E>> entities(E... entities);
+}
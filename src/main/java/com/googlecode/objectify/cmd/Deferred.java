@@ -37,4 +37,16 @@ public interface Deferred {
 	 */
 	DeferredDeleter delete();
 
+	/**
+	 * <p>When the deferred operations are flushed, write them as a series of commits containing at most
+	 * {@code maxPerGroup} mutations to any one entity group. See {@link Saver#batchByEntityGroup(int)}.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object rather than modifying the
+	 * current command object.</b></p>
+	 *
+	 * @param maxPerGroup must be at least 1
+	 * @return the next step in the immutable command chain.
+	 */
+	Deferred batchByEntityGroup(int maxPerGroup);
+
 }
@@ -3,6 +3,8 @@ package com.googlecode.objectify.cmd;
 import com.google.cloud.datastore.Cursor;
 import com.google.cloud.datastore.StructuredQuery;
 
+import java.util.List;
+
 
 /**
  * The basic options for a typed Query.  In addition to adding a few methods that are only available for typed
@@ -146,6 +148,12 @@ public interface Query<T> extends SimpleQuery<T>
 	 */
 	@Override
 	public Query<T> hybrid(boolean force);
+
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#cacheResults(boolean)
+	 */
+	@Override
+	public Query<T> cacheResults(boolean value);
 	
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#project(String...)
@@ -158,4 +166,22 @@ public interface Query<T> extends SimpleQuery<T>
 	 */
 	@Override
 	public Query<T> distinct(boolean value);
+
+	/**
+	 * <p>Split this query into up to {@code count} queries over disjoint key ranges which together return
+	 * the same results. Each shard is an ordinary query; shards can be run in parallel (on different
+	 * threads, tasks, or machines) and each can be checkpointed and resumed with its own cursor. This
+	 * is intended for full scans of large kinds, such as reindexing or backfilling.</p>
+	 *
+	 * <p>Split points are chosen from a random sample of keys taken by ordering on the reserved
+	 * {@code __scatter__} property, so shards are roughly equal in size. Fewer shards are returned if the
+	 * sample is too small (or scatter sampling is unavailable, as on the emulator).</p>
+	 *
+	 * <p>The query must not have sort orders, limit, offset, or cursors. Note that combining key ranges
+	 * with other filters may require a composite index.</p>
+	 *
+	 * @param count is the desired number of shards, at least 1
+	 * @return the shards, in key order
+	 */
+	public List<Query<T>> shard(int count);
 }
@@ -42,6 +42,29 @@ public interface QueryExecute<T> extends QueryResultIterable<T> {
 		return StreamSupport.stream(iterable().spliterator(), false);
 	}
 
+	/**
+	 * <p>Execute the query and get the results as a parallel Stream. Results are still fetched
+	 * sequentially in cursor order, but they are split into chunks (the chunk() size, or the
+	 * maximum batch get size) so downstream operations run in parallel with fetching.</p>
+	 *
+	 * <p>Downstream operations run on ForkJoin threads, which have no Objectify context; they should
+	 * not call {@code ofy()}.</p>
+	 */
+	default Stream<T> parallelStream() {
+		return stream().parallel();
+	}
+
+	/**
+	 * <p>Execute the query as a reactive-streams publisher with backpressure. Pages are fetched only as
+	 * downstream demand allows, on the factory's parallel executor, so large result sets can be streamed
+	 * with bounded memory. The publisher tracks the cursor after the last delivered result, so an
+	 * interrupted stream can be resumed with {@code startAt()}.</p>
+	 *
+	 * <p>The query runs in a fork of the current Objectify with a private copy of the session; not
+	 * available inside a transaction.</p>
+	 */
+	QueryPublisher<T> publisher();
+
 	/**
 	 * Gets the first entity in the result set.  Obeys the offset value.
 	 *
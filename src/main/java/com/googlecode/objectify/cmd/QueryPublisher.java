@@ -0,0 +1,24 @@
+package com.googlecode.objectify.cmd;
+
+import com.google.cloud.datastore.Cursor;
+
+import java.util.concurrent.Flow;
+
+/**
+ * <p>A reactive-streams publisher of query results. Results are fetched only as fast as the subscriber
+ * requests them; when demand stops, fetching stops. Each page (and, for hybrid queries, each chunk of
+ * entity loads) is fetched on {@code ObjectifyFactory.getParallelExecutor()}, never on the subscriber's
+ * thread.</p>
+ *
+ * <p>A QueryPublisher is single-use, like an iterator: it accepts exactly one subscriber.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface QueryPublisher<T> extends Flow.Publisher<T>
+{
+	/**
+	 * @return the cursor just after the last result delivered to {@code onNext()}, suitable for resuming the
+	 * query with {@code startAt()}. Before any result has been delivered, this is null.
+	 */
+	Cursor getCursorAfter();
+}
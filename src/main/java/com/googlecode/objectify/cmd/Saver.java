@@ -53,4 +53,20 @@ public interface Saver
 	 * @return the native datastore Entity equivalent of the pojo; exactly what Objectify would save if you saved the POJO normally.
 	 */
 	FullEntity toEntity(Object pojo);
+
+	/**
+	 * <p>Save large batches as a series of commits, each containing at most {@code maxPerGroup} entities
+	 * from any one entity group. Entity groups are written in a consistent order. Use this when saving many
+	 * children of a few parents, which would otherwise cause contention with other writers to the
+	 * same parents. Has no effect inside a transaction, which commits everything at once anyway.</p>
+	 *
+	 * <p>Note that the save is no longer atomic per entity group; a failure can leave some batches written.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object rather than modifying the
+	 * current command object.</b></p>
+	 *
+	 * @param maxPerGroup must be at least 1
+	 * @return the next step in the immutable command chain.
+	 */
+	Saver batchByEntityGroup(int maxPerGroup);
 }
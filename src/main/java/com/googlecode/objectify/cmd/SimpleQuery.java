@@ -200,6 +200,23 @@ public interface SimpleQuery<T> extends QueryExecute<T>
 	 */
 	SimpleQuery<T> hybrid(boolean force);
 
+	/**
+	 * <p>Caches the keys produced by this query in the memcache, so that repeating the same query (same
+	 * filters, orders, limit, offset, and cursors) does not hit the datastore until an entity of the kind
+	 * is saved or deleted.  Only the keys are cached; entities are fetched through the normal entity cache,
+	 * so this is only useful for keys-only and hybrid queries.  Projection queries are never cached.</p>
+	 *
+	 * <p>The result is cached only when the kind is registered with {@code @Cache}, the query has a limit,
+	 * and it runs outside a transaction with the global cache enabled; otherwise this has no effect.
+	 * Cached results expire along with the entity cache expiry for the kind.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object instead of modifying the
+	 * current command object.</b></p>
+	 *
+	 * @return a new immutable query object that caches (or does not cache) its results
+	 */
+	SimpleQuery<T> cacheResults(boolean value);
+
 	/**
 	 * Switches to a keys-only query.  Keys-only responses are billed as "minor datastore operations"
 	 * which are faster and free compared to fetching whole entities.
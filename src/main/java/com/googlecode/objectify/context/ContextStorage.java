@@ -0,0 +1,43 @@
+package com.googlecode.objectify.context;
+
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.util.Closeable;
+
+/**
+ * <p>Decides where the current {@link ObjectifyContext} lives. The default keeps it in a thread local,
+ * which is how Objectify has always worked. Other implementations can carry it in an OpenTelemetry
+ * {@code Context} (see {@link OpenTelemetryContextStorage}), a {@code ScopedValue}, or whatever
+ * context mechanism your framework propagates across threads.</p>
+ *
+ * <p>Install with {@link ObjectifyContext#setStorage(ContextStorage)} before using Objectify.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface ContextStorage
+{
+	/**
+	 * @return the context for the current execution. Never null; if nothing has been bound, implementations
+	 * should fall back to a context associated with the current thread.
+	 */
+	ObjectifyContext current();
+
+	/**
+	 * Run the work with the context current, then restore whatever was current before.
+	 */
+	<R> R callWith(ObjectifyContext context, Work<R> work);
+
+	/**
+	 * Make the context current until the returned scope is closed, which restores whatever was current before.
+	 * Scopes must be closed in the reverse order they were opened, in the same execution.
+	 */
+	Closeable bind(ObjectifyContext context);
+
+	/**
+	 * @return false if {@link #current()} would only return a fallback because nothing has been bound. The
+	 * outermost {@code ObjectifyFactory.run()} or {@code begin()} then binds a new context, so that it follows
+	 * the execution rather than the thread. Storages which have no such distinction return true.
+	 */
+	default boolean isBound() {
+		return true;
+	}
+}
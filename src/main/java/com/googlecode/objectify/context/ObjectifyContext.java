@@ -0,0 +1,187 @@
+package com.googlecode.objectify.context;
+
+import com.google.common.base.Preconditions;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.impl.OperationStats;
+import com.googlecode.objectify.util.Closeable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * <p>Everything Objectify tracks for one logical flow of execution: the stack of {@code Objectify} instances
+ * for each factory (ie, what {@code ofy()} returns), futures with pending cache housekeeping, the
+ * {@code NamespaceManager} namespace, and the operation stats of the current request. Where the current context lives is up to the {@link ContextStorage};
+ * by default it is a thread local.</p>
+ *
+ * <p>To continue an Objectify scope on another thread, capture the context and run the continuation
+ * in it:</p>
+ *
+ * <pre>
+ * final ObjectifyContext context = ObjectifyContext.current();
+ * CompletableFuture.supplyAsync(() -&gt; ofy().load().key(key).now(), context.wrap(executor))
+ *     .thenApplyAsync(thing -&gt; ofy().save().entity(thing).now(), context.wrap(executor));
+ * </pre>
+ *
+ * <p>A context is a hand-off, not a way to share: like the session inside it, it must not be used by two
+ * threads at the same time. To run work concurrently, use {@code ofy().parallel()}.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class ObjectifyContext
+{
+	/** */
+	private static volatile ContextStorage storage = new ThreadLocalContextStorage();
+
+	/** Each factory has its own stack */
+	private final Map<ObjectifyFactory, Deque<Objectify>> stacks = new IdentityHashMap<>(2);
+
+	/**
+	 * We use ConcurrentHashMap not for concurrency but because it doesn't throw
+	 * ConcurrentModificationException.  A Set is just a Map of key to key.
+	 */
+	private final Map<Future<?>, Future<?>> pending = new ConcurrentHashMap<>(64, 0.75f, 1);
+
+	/** */
+	private String namespace;
+
+	/** Operation counts of the request this context belongs to, for each factory */
+	private final Map<ObjectifyFactory, OperationStats> stats = new IdentityHashMap<>(2);
+
+	/** The factories whose stats were started (not shared) by this context */
+	private final Map<ObjectifyFactory, Boolean> ownsStats = new IdentityHashMap<>(2);
+
+	/**
+	 * Replace the storage. This should be done once, at startup, before any Objectify contexts exist.
+	 */
+	public static void setStorage(final ContextStorage storage) {
+		Preconditions.checkNotNull(storage);
+		ObjectifyContext.storage = storage;
+	}
+
+	/** @return the context for the current execution */
+	public static ObjectifyContext current() {
+		return storage.current();
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * @return false if nothing has been bound and current() is only a fallback
+	 */
+	public static boolean isBound() {
+		return storage.isBound();
+	}
+
+	/**
+	 * Run the work with this context current, then restore the previous one.
+	 */
+	public <R> R call(final Work<R> work) {
+		return storage.callWith(this, work);
+	}
+
+	/**
+	 * Make this context current until the returned scope is closed, which restores the previous one.
+	 * Prefer {@link #call(Work)}; scopes must be closed in reverse order, in the same execution.
+	 */
+	public Closeable bind() {
+		return storage.bind(this);
+	}
+
+	/** @return a task which runs in this context */
+	public Runnable wrap(final Runnable task) {
+		return () -> call(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	/** @return a supplier which runs in this context */
+	public <T> Supplier<T> wrap(final Supplier<T> supplier) {
+		return () -> call(supplier::get);
+	}
+
+	/** @return an executor which runs every task in this context; useful for the *Async methods of CompletableFuture */
+	public Executor wrap(final Executor executor) {
+		return task -> executor.execute(wrap(task));
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * @return the live stack of Objectify instances for the factory
+	 */
+	public Deque<Objectify> stack(final ObjectifyFactory factory) {
+		return stacks.computeIfAbsent(factory, f -> new ArrayDeque<>());
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * Forget the factory's stack if it is empty, so we don't hold on to the factory.
+	 */
+	public void release(final ObjectifyFactory factory) {
+		final Deque<Objectify> stack = stacks.get(factory);
+		if (stack != null && stack.isEmpty())
+			stacks.remove(factory);
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * @return the live set (as a map of key to key) of futures with pending triggers
+	 */
+	public Map<Future<?>, Future<?>> getPending() {
+		return pending;
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * @return the operation stats for the factory's current request, or null if there is none
+	 */
+	public OperationStats getStats(final ObjectifyFactory factory) {
+		return stats.get(factory);
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * Start counting a new request for the factory.
+	 */
+	public void startStats(final ObjectifyFactory factory, final OperationStats operationStats) {
+		stats.put(factory, operationStats);
+		ownsStats.put(factory, true);
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * Count towards the stats of a request started in another context, eg the parent of a fork.
+	 */
+	public void shareStats(final ObjectifyFactory factory, final OperationStats operationStats) {
+		if (operationStats != null)
+			stats.put(factory, operationStats);
+	}
+
+	/**
+	 * This is for internal housekeeping and is not part of the public API.
+	 * Stop counting for the factory.
+	 * @return the stats if this context started them, otherwise null
+	 */
+	public OperationStats endStats(final ObjectifyFactory factory) {
+		final OperationStats ended = stats.remove(factory);
+		return ownsStats.remove(factory) != null ? ended : null;
+	}
+
+	/** @return the NamespaceManager namespace, or null */
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/** This is for internal housekeeping; use {@code NamespaceManager.set()} */
+	public void setNamespace(final String namespace) {
+		this.namespace = namespace;
+	}
+}
@@ -0,0 +1,51 @@
+package com.googlecode.objectify.context;
+
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.util.Closeable;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.Scope;
+
+/**
+ * <p>Carries the Objectify context inside the OpenTelemetry {@code Context}, so it follows wherever your
+ * instrumentation already propagates that: {@code Context.taskWrapping(executor)}, instrumented event
+ * loops, reactive operators, etc.</p>
+ *
+ * <p>The outermost {@code run()} or {@code begin()} (including the one in the ObjectifyFilter) binds a new
+ * context for its duration, as does {@link ObjectifyContext#call(com.googlecode.objectify.Work)}. Code which
+ * runs outside any bound context falls back to a thread local.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class OpenTelemetryContextStorage implements ContextStorage
+{
+	/** */
+	private static final ContextKey<ObjectifyContext> KEY = ContextKey.named("objectify");
+
+	/** */
+	private final ThreadLocalContextStorage fallback = new ThreadLocalContextStorage();
+
+	@Override
+	public ObjectifyContext current() {
+		final ObjectifyContext bound = Context.current().get(KEY);
+		return bound != null ? bound : fallback.current();
+	}
+
+	@Override
+	public <R> R callWith(final ObjectifyContext context, final Work<R> work) {
+		try (final Scope ignored = Context.current().with(KEY, context).makeCurrent()) {
+			return work.run();
+		}
+	}
+
+	@Override
+	public Closeable bind(final ObjectifyContext context) {
+		final Scope scope = Context.current().with(KEY, context).makeCurrent();
+		return scope::close;
+	}
+
+	@Override
+	public boolean isBound() {
+		return Context.current().get(KEY) != null;
+	}
+}
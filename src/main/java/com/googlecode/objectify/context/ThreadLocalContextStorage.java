@@ -0,0 +1,38 @@
+package com.googlecode.objectify.context;
+
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.util.Closeable;
+
+/**
+ * Keeps the current context in a thread local. This is the default.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class ThreadLocalContextStorage implements ContextStorage
+{
+	/** */
+	private final ThreadLocal<ObjectifyContext> current = ThreadLocal.withInitial(ObjectifyContext::new);
+
+	@Override
+	public ObjectifyContext current() {
+		return current.get();
+	}
+
+	@Override
+	public <R> R callWith(final ObjectifyContext context, final Work<R> work) {
+		final ObjectifyContext previous = current.get();
+		current.set(context);
+		try {
+			return work.run();
+		} finally {
+			current.set(previous);
+		}
+	}
+
+	@Override
+	public Closeable bind(final ObjectifyContext context) {
+		final ObjectifyContext previous = current.get();
+		current.set(context);
+		return () -> current.set(previous);
+	}
+}
@@ -40,6 +40,6 @@ public class AsyncDatastoreImpl extends AsyncDatastoreReaderWriterImpl implement
 			});
 		}
 
-		return new AsyncTransactionImpl(datastore.newTransaction(txnOptions.build()), afterCommit);
+		return new AsyncTransactionImpl(datastore.newTransaction(txnOptions.build()), afterCommit, options.readTime());
 	}
 }
\ No newline at end of file
@@ -32,6 +32,14 @@ public interface AsyncDatastoreReaderWriter {
 
 	Future<List<Key>> put(final Iterable<? extends FullEntity<?>> entities);
 
+	/**
+	 * Like put(), for callers which have already measured the entities
+	 * @param sizes are the {@code EntitySize.of()} of each entity, in the same order
+	 */
+	default Future<List<Key>> put(final List<? extends FullEntity<?>> entities, final List<Integer> sizes) {
+		return put(entities);
+	}
+
 	default Future<Map<Key, Entity>> get(final Key... keys) {
 		return get(Arrays.asList(keys));
 	}
@@ -11,7 +11,11 @@ import com.google.cloud.datastore.Query;
 import com.google.cloud.datastore.QueryResults;
 import com.google.cloud.datastore.ReadOption;
 import com.google.cloud.datastore.models.ExplainOptions;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
 import com.googlecode.objectify.util.FutureNow;
 import lombok.RequiredArgsConstructor;
 
@@ -82,12 +86,20 @@ public class AsyncDatastoreReaderWriterImpl implements AsyncDatastoreReaderWrite
 
 	@Override
 	public Future<List<Key>> put(final Iterable<? extends FullEntity<?>> entities) {
-		final Iterable<? extends List<? extends FullEntity<?>>> partitions = Iterables.partition(entities, MAX_WRITE_SIZE);
+		final List<FullEntity<?>> list = Lists.newArrayList(entities);
+		return put(list, Lists.transform(list, EntitySize::of));
+	}
+
+	/** Partitioned by count and also by size, since a batch of big entities can exceed the request size limit */
+	@Override
+	public Future<List<Key>> put(final List<? extends FullEntity<?>> entities, final List<Integer> sizes) {
+		final List<Integer> indexes = ContiguousSet.create(Range.closedOpen(0, entities.size()), DiscreteDomain.integers()).asList();
+		final List<List<Integer>> partitions = EntitySize.partition(indexes, sizes::get, MAX_WRITE_SIZE, EntitySize.MAX_WRITE_BYTES);
 
 		final List<Key> result = new ArrayList<>();
 
-		for (final List<? extends FullEntity<?>> partition : partitions) {
-			final List<Entity> saved = datastoreReaderWriter.put(Iterables.toArray(partition, FullEntity.class));
+		for (final List<Integer> partition : partitions) {
+			final List<Entity> saved = datastoreReaderWriter.put(Iterables.toArray(Lists.transform(partition, entities::get), FullEntity.class));
 			saved.stream().map(Entity::getKey).forEach(result::add);
 		}
 
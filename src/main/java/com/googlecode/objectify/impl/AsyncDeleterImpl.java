@@ -0,0 +1,54 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.cmd.AsyncDeleter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Implementation of the AsyncDeleter interface.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class AsyncDeleterImpl implements AsyncDeleter
+{
+	/** */
+	private final AsyncImpl async;
+
+	/** */
+	AsyncDeleterImpl(final AsyncImpl async) {
+		this.async = async;
+	}
+
+	@Override
+	public CompletableFuture<Void> key(final Key<?> key) {
+		async.evict(Collections.singleton(key));
+		return async.call(ofy -> ofy.delete().key(key).now());
+	}
+
+	@Override
+	public CompletableFuture<Void> keys(final Iterable<? extends Key<?>> keys) {
+		async.evict(keys);
+		return async.call(ofy -> ofy.delete().keys(keys).now());
+	}
+
+	@Override
+	public CompletableFuture<Void> keys(final Key<?>... keys) {
+		return keys(Arrays.asList(keys));
+	}
+
+	@Override
+	public CompletableFuture<Void> entity(final Object entity) {
+		async.evict(Collections.singleton(entity));
+		return async.call(ofy -> ofy.delete().entity(entity).now());
+	}
+
+	@Override
+	public CompletableFuture<Void> entities(final Iterable<?> entities) {
+		async.evict(entities);
+		return async.call(ofy -> ofy.delete().entities(entities).now());
+	}
+}
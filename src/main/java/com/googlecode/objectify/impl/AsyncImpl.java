@@ -0,0 +1,87 @@
+package com.googlecode.objectify.impl;
+
+import com.google.common.base.Preconditions;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.cmd.Async;
+import com.googlecode.objectify.cmd.AsyncDeleter;
+import com.googlecode.objectify.cmd.AsyncLoader;
+import com.googlecode.objectify.cmd.AsyncSaver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+
+/**
+ * Implementation of the Async interface.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class AsyncImpl implements Async
+{
+	/** */
+	private final ObjectifyImpl ofy;
+
+	/** */
+	public AsyncImpl(final ObjectifyImpl ofy) {
+		Preconditions.checkState(ofy.getTransaction() == null, "Asynchronous operations cannot be started inside a transaction");
+		this.ofy = ofy;
+	}
+
+	@Override
+	public AsyncLoader load() {
+		return new AsyncLoaderImpl(this, new Class<?>[0]);
+	}
+
+	@Override
+	public AsyncSaver save() {
+		return new AsyncSaverImpl(this);
+	}
+
+	@Override
+	public AsyncDeleter delete() {
+		return new AsyncDeleterImpl(this);
+	}
+
+	@Override
+	public <R> CompletableFuture<R> run(final Work<R> work) {
+		return ParallelRunner.supplyAsync(ofy, work);
+	}
+
+	/** For the command implementations; the function is given the forked Objectify */
+	<R> CompletableFuture<R> call(final Function<Objectify, R> function) {
+		return run(() -> function.apply(ofy.factory().ofy()));
+	}
+
+	/**
+	 * For the write commands, before they dispatch: drop what is about to change from the caller's session,
+	 * since the fork's session is never merged back. This thread is the only one which may touch that session.
+	 * Anything without a complete key is skipped; the write itself will report any problem with it.
+	 */
+	void evict(final Iterable<?> keysOrEntities) {
+		for (final Object keyOrEntity: keysOrEntities) {
+			final Key<?> key = completeKeyOf(keyOrEntity);
+			if (key != null)
+				ofy.getSession().remove(key);
+		}
+	}
+
+	/** @return null if there is no complete key */
+	private Key<?> completeKeyOf(final Object keyOrEntity) {
+		if (keyOrEntity == null)
+			return null;
+
+		final Keys keys = ofy.factory().keys();
+		try {
+			final boolean isKey = keyOrEntity instanceof Key || keyOrEntity instanceof com.google.cloud.datastore.Key || keyOrEntity instanceof Ref;
+			if (!isKey && keys.requiresAutogeneratedId(keyOrEntity))
+				return null;
+
+			return keys.anythingToKey(keyOrEntity, ofy.getOptions().getNamespace());
+		} catch (IllegalArgumentException | IllegalStateException ex) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.cmd.AsyncLoader;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Implementation of the AsyncLoader interface.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class AsyncLoaderImpl implements AsyncLoader
+{
+	/** */
+	private final AsyncImpl async;
+
+	/** */
+	private final Class<?>[] groups;
+
+	/** */
+	AsyncLoaderImpl(final AsyncImpl async, final Class<?>[] groups) {
+		this.async = async;
+		this.groups = groups;
+	}
+
+	@Override
+	public AsyncLoader group(final Class<?>... groups) {
+		final Class<?>[] combined = Arrays.copyOf(this.groups, this.groups.length + groups.length);
+		System.arraycopy(groups, 0, combined, this.groups.length, groups.length);
+		return new AsyncLoaderImpl(async, combined);
+	}
+
+	@Override
+	public <E> CompletableFuture<E> key(final Key<E> key) {
+		return async.call(ofy -> ofy.load().group(groups).key(key).now());
+	}
+
+	@Override
+	public <E> CompletableFuture<Map<Key<E>, E>> keys(final Iterable<Key<E>> keys) {
+		return async.call(ofy -> new LinkedHashMap<>(ofy.load().group(groups).keys(keys)));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E> CompletableFuture<Map<Key<E>, E>> keys(final Key<? extends E>... keys) {
+		return async.call(ofy -> new LinkedHashMap<>(ofy.load().group(groups).<E>keys(keys)));
+	}
+
+	@Override
+	public <E> CompletableFuture<E> entity(final E entity) {
+		return async.call(ofy -> ofy.load().group(groups).entity(entity).now());
+	}
+
+	@Override
+	public <E> CompletableFuture<Map<Key<E>, E>> entities(final Iterable<E> entities) {
+		return async.call(ofy -> new LinkedHashMap<>(ofy.load().group(groups).entities(entities)));
+	}
+}
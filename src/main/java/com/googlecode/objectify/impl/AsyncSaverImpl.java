@@ -0,0 +1,45 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.cmd.AsyncSaver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Implementation of the AsyncSaver interface.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class AsyncSaverImpl implements AsyncSaver
+{
+	/** */
+	private final AsyncImpl async;
+
+	/** */
+	AsyncSaverImpl(final AsyncImpl async) {
+		this.async = async;
+	}
+
+	@Override
+	public <E> CompletableFuture<Key<E>> entity(final E entity) {
+		async.evict(Collections.singleton(entity));
+		return async.call(ofy -> ofy.save().entity(entity).now());
+	}
+
+	@Override
+	public <E> CompletableFuture<Map<Key<E>, E>> entities(final Iterable<E> entities) {
+		async.evict(entities);
+		return async.call(ofy -> new LinkedHashMap<>(ofy.save().entities(entities).now()));
+	}
+
+	@Override
+	@SafeVarargs
+	public final <E> CompletableFuture<Map<Key<E>, E>> entities(final E... entities) {
+		return entities(Arrays.asList(entities));
+	}
+}
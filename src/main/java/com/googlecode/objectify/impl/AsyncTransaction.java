@@ -3,6 +3,9 @@ package com.googlecode.objectify.impl;
 import com.google.cloud.datastore.Transaction.Response;
 import com.google.protobuf.ByteString;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * The new datastore SDK has a neat structure of interfaces and implementations (transaction, datastorereader, etc)
  * but doesn't currently support async operations. We need to shim in a Future-based API so that we can seamlessly
@@ -19,4 +22,9 @@ public interface AsyncTransaction extends AsyncDatastoreReaderWriter {
 	void listenForCommit(final Runnable listener);
 
 	ByteString getTransactionHandle();
+
+	/** @return the fixed time this read-only transaction reads at, if any */
+	default Optional<Instant> getReadTime() {
+		return Optional.empty();
+	}
 }
\ No newline at end of file
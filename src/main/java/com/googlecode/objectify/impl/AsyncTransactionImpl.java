@@ -1,15 +1,20 @@
 package com.googlecode.objectify.impl;
 
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.Key;
 import com.google.cloud.datastore.Transaction;
 import com.google.cloud.datastore.Transaction.Response;
 import com.google.protobuf.ByteString;
 import com.googlecode.objectify.Result;
 import lombok.Getter;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Future;
 
 /** */
 public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl implements PrivateAsyncTransaction {
@@ -21,10 +26,15 @@ public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl impleme
 	 */
 	private final Runnable afterCommit;
 
+	/** If this is a read-only transaction at a fixed time */
+	@Getter
+	private final Optional<Instant> readTime;
+
 	/**
 	 * Operations which modify the session must be enlisted in the transaction and completed
 	 * before the transaction commits.  This is so that the session reaches a consistent state
-	 * before it is propagated to the parent session.
+	 * before it is propagated to the parent session.  Guarded by this, since parallel tasks
+	 * can share a transaction.
 	 */
 	private List<Result<?>> enlisted = new ArrayList<>();
 
@@ -41,16 +51,22 @@ public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl impleme
 
 	/** */
 	public AsyncTransactionImpl(final Transaction raw, final Runnable afterCommit) {
+		this(raw, afterCommit, Optional.empty());
+	}
+
+	/** */
+	public AsyncTransactionImpl(final Transaction raw, final Runnable afterCommit, final Optional<Instant> readTime) {
 		super(raw);
 		this.transaction = raw;
 		this.afterCommit = afterCommit;
+		this.readTime = readTime;
 	}
 
 	/**
 	 * Enlist any operations that modify the session.
 	 */
 	@Override
-	public void enlist(final Result<?> result) {
+	public synchronized void enlist(final Result<?> result) {
 		enlisted.add(result);
 	}
 
@@ -58,7 +74,7 @@ public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl impleme
 	 * Add a listener to be called after the transaction commits.
 	 */
 	@Override
-	public void listenForCommit(final Runnable listener) {
+	public synchronized void listenForCommit(final Runnable listener) {
 		listeners.add(listener);
 	}
 
@@ -82,9 +98,15 @@ public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl impleme
 		// Complete any enlisted operations so that the session becomes consistent. Note that some of the
 		// enlisted load operations might result in further enlistment... so we have to do this in a loop
 		// that protects against concurrent modification exceptions
-		while (!enlisted.isEmpty()) {
-			final List<Result<?>> last = enlisted;
-			enlisted = new ArrayList<>();
+		while (true) {
+			final List<Result<?>> last;
+			synchronized (this) {
+				if (enlisted.isEmpty())
+					break;
+
+				last = enlisted;
+				enlisted = new ArrayList<>();
+			}
 
 			for (final Result<?> result: last)
 				result.now();
@@ -95,6 +117,24 @@ public class AsyncTransactionImpl extends AsyncDatastoreReaderWriterImpl impleme
 		return response;
 	}
 
+	/** The raw transaction buffers mutations in unsynchronized collections */
+	@Override
+	public synchronized Future<List<Key>> put(final Iterable<? extends FullEntity<?>> entities) {
+		return super.put(entities);
+	}
+
+	/** The raw transaction buffers mutations in unsynchronized collections */
+	@Override
+	public synchronized Future<List<Key>> put(final List<? extends FullEntity<?>> entities, final List<Integer> sizes) {
+		return super.put(entities, sizes);
+	}
+
+	/** The raw transaction buffers mutations in unsynchronized collections */
+	@Override
+	public synchronized Future<Void> delete(final Iterable<Key> keys) {
+		return super.delete(keys);
+	}
+
 	@Override
 	public boolean isActive() {
 		return transaction.isActive();
@@ -24,4 +24,18 @@ public class CacheControlImpl implements CacheControl
 		final EntityMetadata<?> meta = fact.getMetadata(key.getKind());
 		return meta == null ? null : meta.getCacheExpirySeconds();
 	}
+
+	/** */
+	@Override
+	public int getExpiryJitterPercent(final Key key) {
+		final EntityMetadata<?> meta = fact.getMetadata(key.getKind());
+		return meta == null ? 0 : meta.getCacheExpiryJitterPercent();
+	}
+
+	/** */
+	@Override
+	public int getRefreshAheadPercent(final Key key) {
+		final EntityMetadata<?> meta = fact.getMetadata(key.getKind());
+		return meta == null ? 0 : meta.getCacheRefreshAheadPercent();
+	}
 }
\ No newline at end of file
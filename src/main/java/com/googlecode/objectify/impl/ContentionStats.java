@@ -0,0 +1,77 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.impl.SpaceSaving.Count;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Tracks transaction contention by entity group.  When a transaction fails with a concurrency error,
+ * the entity groups it touched (everything it loaded or saved) are charged with the abort.  Counters are
+ * kept per kind of the root entity, and the individual groups with the most aborts are tracked
+ * approximately with the Space-Saving algorithm so memory stays bounded.</p>
+ */
+public class ContentionStats
+{
+	/** How many hot entity groups to report */
+	public static final int TOP_K = 10;
+
+	/** */
+	public static class Stat
+	{
+		private final AtomicLong aborts = new AtomicLong();
+		private final AtomicLong retries = new AtomicLong();
+		private final AtomicLong backoffNanos = new AtomicLong();
+
+		/** Number of concurrency failures in transactions that touched this kind of entity group */
+		public long getAborts() { return this.aborts.get(); }
+
+		/** Number of times those transactions were retried */
+		public long getRetries() { return this.retries.get(); }
+
+		/** Total time those transactions spent waiting between tries */
+		public long getBackoffMillis() { return TimeUnit.NANOSECONDS.toMillis(this.backoffNanos.get()); }
+	}
+
+	/** Keyed by the kind of the root entity */
+	private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+	/** */
+	private final SpaceSaving<Key<?>> hotGroups = new SpaceSaving<>(TOP_K * 4);
+
+	/**
+	 * Get the live statistics, keyed by root kind.  You can clear it if you want.
+	 */
+	public Map<String, Stat> getStats() { return this.stats; }
+
+	/** @return the entity groups with the most aborts, most contended first */
+	public List<Count<Key<?>>> getHotGroups() {
+		return hotGroups.top(TOP_K);
+	}
+
+	/** @param groups are root keys */
+	public void recordAbort(final Iterable<Key<?>> groups) {
+		for (final Key<?> group: groups) {
+			getStat(group).aborts.incrementAndGet();
+			hotGroups.offer(group);
+		}
+	}
+
+	/** @param groups are root keys */
+	public void recordRetry(final Iterable<Key<?>> groups, final long backoffNanos) {
+		for (final Key<?> group: groups) {
+			final Stat stat = getStat(group);
+			stat.retries.incrementAndGet();
+			stat.backoffNanos.addAndGet(backoffNanos);
+		}
+	}
+
+	/** */
+	private Stat getStat(final Key<?> group) {
+		return this.stats.computeIfAbsent(group.getKind(), k -> new Stat());
+	}
+}
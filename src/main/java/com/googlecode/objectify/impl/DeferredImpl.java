@@ -1,5 +1,6 @@
 package com.googlecode.objectify.impl;
 
+import com.google.common.base.Preconditions;
 import com.googlecode.objectify.cmd.Deferred;
 import com.googlecode.objectify.cmd.DeferredDeleter;
 import com.googlecode.objectify.cmd.DeferredSaver;
@@ -29,4 +30,10 @@ public class DeferredImpl implements Deferred
 	public DeferredDeleter delete() {
 		return new DeferredDeleterImpl(ofy);
 	}
+
+	@Override
+	public Deferred batchByEntityGroup(final int maxPerGroup) {
+		Preconditions.checkArgument(maxPerGroup >= 1, "maxPerGroup must be at least 1");
+		return new DeferredImpl(ofy.options(ofy.getOptions().maxWritesPerGroup(maxPerGroup)));
+	}
 }
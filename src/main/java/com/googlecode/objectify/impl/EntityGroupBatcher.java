@@ -0,0 +1,125 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>Splits a large write into batches such that no batch contains more than a fixed number of
+ * mutations to any one entity group.  Each batch is a separate commit, so this spreads the writes to a
+ * hot parent over time instead of sending them all at once.</p>
+ *
+ * <p>Groups are visited in a consistent order (by root key) so that concurrent writers touching the
+ * same set of groups do not interleave in opposite orders. Within a group, the original order is
+ * preserved, so a later write to the same key still wins.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class EntityGroupBatcher
+{
+	/** Orders root keys; only needs to be consistent, not meaningful */
+	private static final Comparator<Key> ROOT_ORDER = Comparator.comparing(Key::toUrlSafe);
+
+	/**
+	 * @param keyOf extracts the key of an item, which may be incomplete
+	 * @param maxPerGroup is the most items from a single entity group allowed in one batch
+	 * @param maxBatchSize is the most items allowed in one batch
+	 * @return batches of indexes into the items
+	 */
+	public static <T> List<List<Integer>> batch(final List<T> items, final Function<T, IncompleteKey> keyOf, final int maxPerGroup, final int maxBatchSize) {
+		Preconditions.checkArgument(maxPerGroup >= 1, "maxPerGroup must be at least 1");
+		Preconditions.checkArgument(maxBatchSize >= 1, "maxBatchSize must be at least 1");
+
+		// Items with incomplete keys and no parent will be new root entities; they contend with nothing
+		final Map<Key, Iterator<Integer>> groups = new LinkedHashMap<>();
+		final List<Integer> independent = new ArrayList<>();
+		{
+			final Map<Key, List<Integer>> byRoot = new LinkedHashMap<>();
+			for (int i = 0; i < items.size(); i++) {
+				final Key root = rootOf(keyOf.apply(items.get(i)));
+				if (root == null)
+					independent.add(i);
+				else
+					byRoot.computeIfAbsent(root, k -> new ArrayList<>()).add(i);
+			}
+
+			byRoot.entrySet().stream()
+					.sorted(Map.Entry.comparingByKey(ROOT_ORDER))
+					.forEach(entry -> groups.put(entry.getKey(), entry.getValue().iterator()));
+		}
+
+		final List<List<Integer>> batches = new ArrayList<>();
+		List<Integer> current = new ArrayList<>();
+
+		for (final Integer index: independent) {
+			current = add(batches, current, index, maxBatchSize);
+		}
+
+		// Each round takes up to maxPerGroup from every group; a group never appears twice in a batch
+		while (!groups.isEmpty()) {
+			for (final Iterator<Iterator<Integer>> groupIt = groups.values().iterator(); groupIt.hasNext(); ) {
+				final Iterator<Integer> group = groupIt.next();
+
+				final List<Integer> taken = new ArrayList<>(maxPerGroup);
+				while (taken.size() < maxPerGroup && group.hasNext())
+					taken.add(group.next());
+
+				if (!group.hasNext())
+					groupIt.remove();
+
+				// Don't let a group straddle two batches in the same round
+				if (current.size() + taken.size() > maxBatchSize && !current.isEmpty()) {
+					batches.add(current);
+					current = new ArrayList<>();
+				}
+
+				for (final Integer index: taken)
+					current = add(batches, current, index, maxBatchSize);
+			}
+
+			if (!current.isEmpty()) {
+				batches.add(current);
+				current = new ArrayList<>();
+			}
+		}
+
+		if (!current.isEmpty())
+			batches.add(current);
+
+		return batches;
+	}
+
+	/**
+	 * @return the root of the entity group, or null if the key is incomplete and has no parent
+	 */
+	public static Key rootOf(final IncompleteKey key) {
+		Key root = key instanceof Key ? (Key)key : key.getParent();
+
+		if (root == null)
+			return null;
+
+		while (root.getParent() != null)
+			root = root.getParent();
+
+		return root;
+	}
+
+	/** @return the batch to continue adding to */
+	private static List<Integer> add(final List<List<Integer>> batches, final List<Integer> current, final Integer index, final int maxBatchSize) {
+		current.add(index);
+
+		if (current.size() < maxBatchSize)
+			return current;
+
+		batches.add(current);
+		return new ArrayList<>();
+	}
+}
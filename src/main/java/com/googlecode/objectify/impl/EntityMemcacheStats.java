@@ -1,23 +1,57 @@
 package com.googlecode.objectify.impl;
 
+import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.Key;
+import com.googlecode.objectify.cache.EntityMemcache.Refreshable;
 import com.googlecode.objectify.cache.MemcacheStats;
+import com.googlecode.objectify.impl.SpaceSaving.Count;
+import lombok.Value;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
-/** 
- * Tracks hit/miss statistics for the memcache. 
+/**
+ * <p>Tracks hit/miss statistics for the memcache.</p>
+ *
+ * <p>Also samples reads and writes to find the hottest keys (with the Space-Saving algorithm) and the
+ * largest cached entities for each kind. Hot-spotting on a single cache node is usually caused by one
+ * or two keys, and this is the cheapest way to find out which.  By default one in ten operations is
+ * sampled; hot key counts are therefore approximately one tenth of the true read counts.</p>
  */
 public class EntityMemcacheStats implements MemcacheStats
 {
+	/** How many hot keys and large values to report per kind */
+	public static final int TOP_K = 10;
+
+	/** Space-Saving needs some headroom beyond K to be accurate */
+	private static final int TRACKED_KEYS = TOP_K * 4;
+
+	/** An entity size observed for a key, estimated by {@link EntitySize#of} */
+	@Value
+	public static class ValueSize {
+		Key key;
+		long bytes;
+	}
+
 	/** */
 	public class Stat
 	{
 		private AtomicLong hits = new AtomicLong();
 		private AtomicLong misses = new AtomicLong();
-		
+
+		/** Sampled reads */
+		private final SpaceSaving<Key> hotKeys = new SpaceSaving<>(TRACKED_KEYS);
+
+		/** Sampled writes; at most TOP_K entries, guarded by synchronizing on the map */
+		private final Map<Key, Long> largest = new HashMap<>();
+
 		public long getHits() { return this.hits.get(); }
 		public long getMisses() { return this.misses.get(); }
 
@@ -26,51 +60,131 @@ public class EntityMemcacheStats implements MemcacheStats
 			long h = this.getHits();
 			long m = this.getMisses();
 			long total = h + m;
-			
+
 			if (total == 0)
 				return 0;
 			else
 				return (float)h / (float)total;
 		}
+
+		/** @return the most frequently read keys among sampled reads, hottest first */
+		public List<Count<Key>> getHotKeys() {
+			return hotKeys.top(TOP_K);
+		}
+
+		/** @return the largest values among sampled writes, largest first */
+		public List<ValueSize> getLargestValues() {
+			synchronized (largest) {
+				return largest.entrySet().stream()
+						.map(entry -> new ValueSize(entry.getKey(), entry.getValue()))
+						.sorted(Comparator.comparingLong(ValueSize::getBytes).reversed())
+						.collect(Collectors.toList());
+			}
+		}
+
+		/** Keep only the TOP_K largest */
+		private void offerSize(final Key key, final long bytes) {
+			synchronized (largest) {
+				largest.put(key, bytes);
+
+				if (largest.size() > TOP_K) {
+					final Key smallest = largest.entrySet().stream()
+							.min(Map.Entry.comparingByValue())
+							.map(Map.Entry::getKey)
+							.get();
+					largest.remove(smallest);
+				}
+			}
+		}
 	}
-	
+
 	/** */
 	private Map<String, Stat> stats = new ConcurrentHashMap<>();
-	
+
+	/** One in this many reads and writes is sampled; 1 samples everything, 0 disables sampling */
+	private final int sampleEvery;
+
+	/** Samples one in ten reads and writes */
+	public EntityMemcacheStats() {
+		this(10);
+	}
+
+	/**
+	 * @param sampleEvery one in this many reads and writes is sampled for hot keys and value sizes;
+	 *                    1 samples everything, 0 disables sampling
+	 */
+	public EntityMemcacheStats(final int sampleEvery) {
+		this.sampleEvery = sampleEvery;
+	}
+
 	/**
-	 * Get the live statistics.  You can clear it if you want. 
-	 *  
-	 * @return the live map, but you can iterate through it just fine 
+	 * Get the live statistics.  You can clear it if you want.
+	 *
+	 * @return the live map, but you can iterate through it just fine
 	 */
 	public Map<String, Stat> getStats() { return this.stats; }
 
+	/**
+	 * @return the hottest keys across all kinds, hottest first
+	 */
+	public List<Count<Key>> getHotKeys() {
+		final List<Count<Key>> all = new ArrayList<>();
+		for (final Stat stat: stats.values())
+			all.addAll(stat.getHotKeys());
+
+		return all.stream()
+				.sorted(Comparator.comparingLong((Count<Key> c) -> c.getCount()).reversed())
+				.limit(TOP_K)
+				.collect(Collectors.toList());
+	}
+
 	/** */
 	@Override
 	public void recordHit(Key key)
 	{
-		this.getStat(key.getKind()).hits.incrementAndGet();
+		final Stat stat = this.getStat(key.getKind());
+		stat.hits.incrementAndGet();
+
+		if (sample())
+			stat.hotKeys.offer(key);
 	}
 
 	/** */
 	@Override
 	public void recordMiss(Key key)
 	{
-		this.getStat(key.getKind()).misses.incrementAndGet();
+		final Stat stat = this.getStat(key.getKind());
+		stat.misses.incrementAndGet();
+
+		if (sample())
+			stat.hotKeys.offer(key);
 	}
 
 	/**
-	 * We're just tracking statistics so we don't really need to worry about these stepping on each other;
-	 * if there's a hit or miss lost no big deal.
+	 * Measures the entity with {@link EntitySize#of}, the same estimate the datastore writes use. Serializing it
+	 * again just to count would double the cost of the put, and the bytes actually stored depend on the cache
+	 * service's codec (which may compress them) anyway. Negative markers are not measured.
 	 */
+	@Override
+	public void recordPut(final Key key, final Object value) {
+		final Entity entity = value instanceof Refreshable ? ((Refreshable)value).getEntity()
+				: value instanceof Entity ? (Entity)value
+				: null;
+
+		if (entity == null || !sample())
+			return;
+
+		this.getStat(key.getKind()).offerSize(key, EntitySize.of(entity));
+	}
+
+	/** */
+	private boolean sample() {
+		return sampleEvery > 0 && (sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0);
+	}
+
+	/** */
 	private Stat getStat(String kind)
 	{
-		Stat stat = this.stats.get(kind);
-		if (stat == null)
-		{
-			stat = new Stat();
-			this.stats.put(kind, stat);
-		}
-		
-		return stat;
+		return this.stats.computeIfAbsent(kind, k -> new Stat());
 	}
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import com.google.cloud.datastore.EntityValue;
 import com.google.cloud.datastore.FullEntity;
 import com.google.cloud.datastore.FullEntity.Builder;
 import com.google.cloud.datastore.Value;
+import com.google.common.base.Preconditions;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.LoadException;
 import com.googlecode.objectify.ObjectifyFactory;
@@ -51,6 +52,14 @@ public class EntityMetadata<P>
 
 		this.entityClass = clazz;
 		this.cached = clazz.getAnnotation(Cache.class);
+
+		if (cached != null) {
+			Preconditions.checkArgument(cached.expirationJitterPercent() >= 0 && cached.expirationJitterPercent() <= 100,
+					"@Cache expirationJitterPercent must be between 0 and 100 on %s", clazz.getName());
+			Preconditions.checkArgument(cached.refreshAheadPercent() >= 0 && cached.refreshAheadPercent() <= 100,
+					"@Cache refreshAheadPercent must be between 0 and 100 on %s", clazz.getName());
+		}
+
 		this.translator = (ClassTranslator<P>)fact.getTranslators().getRoot(clazz);
 		this.keyMetadata = translator.getKeyMetadata();
 	}
@@ -66,6 +75,20 @@ public class EntityMetadata<P>
 		return this.cached == null ? null : this.cached.expirationSeconds();
 	}
 
+	/**
+	 * @return the @Cache expiration jitter percentage for this kind, 0 if not cached
+	 */
+	public int getCacheExpiryJitterPercent() {
+		return this.cached == null ? 0 : this.cached.expirationJitterPercent();
+	}
+
+	/**
+	 * @return the @Cache refresh-ahead percentage for this kind, 0 if not cached
+	 */
+	public int getCacheRefreshAheadPercent() {
+		return this.cached == null ? 0 : this.cached.refreshAheadPercent();
+	}
+
 	/**
 	 * Converts an entity to an object of the appropriate type for this metadata structure.
 	 * Does not check that the entity is appropriate; that should be done when choosing
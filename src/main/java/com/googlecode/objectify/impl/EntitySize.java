@@ -0,0 +1,195 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.Blob;
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.PathElement;
+import com.google.cloud.datastore.Value;
+import com.google.common.base.Utf8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>Estimates how big an entity will be on the wire, so that oversize entities can be reported before any
+ * I/O and writes can be split into requests the datastore will accept.</p>
+ *
+ * <p>The estimate counts only the payload (key, property names, and values), not the protocol overhead, so it
+ * is a lower bound. That way we never refuse an entity the datastore would have accepted; the request limit
+ * leaves headroom for the overhead.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class EntitySize
+{
+	/** The datastore's limit on the size of one entity */
+	public static final int MAX_ENTITY_BYTES = 1_048_572;
+
+	/** The datastore's limit on a commit request is 10MiB; leave room for what we don't count */
+	public static final int MAX_WRITE_BYTES = 9 * 1024 * 1024;
+
+	/** Fixed-size values */
+	private static final int NUMBER_BYTES = 8;
+	private static final int TIMESTAMP_BYTES = 12;
+	private static final int LAT_LNG_BYTES = 16;
+
+	/** @return the estimated size of the entity, including its key */
+	public static int of(final BaseEntity<?> entity) {
+		int size = entity.getKey() == null ? 0 : of(entity.getKey());
+
+		for (final Map.Entry<String, Value<?>> property: entity.getProperties().entrySet())
+			size += Utf8.encodedLength(property.getKey()) + of(property.getValue());
+
+		return size;
+	}
+
+	/** @return the estimated size of a key */
+	public static int of(final IncompleteKey key) {
+		int size = Utf8.encodedLength(key.getProjectId()) + Utf8.encodedLength(key.getNamespace());
+
+		for (final PathElement element: key.getAncestors())
+			size += Utf8.encodedLength(element.getKind()) + (element.hasName() ? Utf8.encodedLength(element.getName()) : NUMBER_BYTES);
+
+		size += Utf8.encodedLength(key.getKind());
+
+		if (key instanceof Key)
+			size += ((Key)key).hasName() ? Utf8.encodedLength(((Key)key).getName()) : NUMBER_BYTES;
+
+		return size;
+	}
+
+	/** @return the estimated size of a value */
+	@SuppressWarnings("unchecked")
+	public static int of(final Value<?> value) {
+		switch (value.getType()) {
+			case NULL:
+			case BOOLEAN:
+				return 1;
+			case LONG:
+			case DOUBLE:
+				return NUMBER_BYTES;
+			case TIMESTAMP:
+				return TIMESTAMP_BYTES;
+			case LAT_LNG:
+				return LAT_LNG_BYTES;
+			case STRING:
+				return Utf8.encodedLength((String)value.get());
+			case BLOB:
+				return ((Blob)value.get()).getLength();
+			case KEY:
+				return of((IncompleteKey)value.get());
+			case ENTITY:
+				return of((FullEntity<?>)value.get());
+			case LIST: {
+				int size = 0;
+				for (final Value<?> element: (List<? extends Value<?>>)value.get())
+					size += of(element);
+				return size;
+			}
+			case RAW_VALUE:
+				return ((com.google.datastore.v1.Value)value.get()).getSerializedSize();
+			default:
+				return NUMBER_BYTES;
+		}
+	}
+
+	/**
+	 * @return an estimate of the index entries the entity produces: one for the kind, plus ascending and
+	 * descending entries for each indexed value (each element of a list, each property of an embedded entity)
+	 */
+	public static int indexEntries(final BaseEntity<?> entity) {
+		return 1 + 2 * indexedValues(entity);
+	}
+
+	/** */
+	private static int indexedValues(final BaseEntity<?> entity) {
+		int count = 0;
+		for (final Value<?> value: entity.getProperties().values())
+			count += indexedValues(value);
+
+		return count;
+	}
+
+	/** */
+	@SuppressWarnings("unchecked")
+	private static int indexedValues(final Value<?> value) {
+		switch (value.getType()) {
+			case ENTITY:
+				return value.excludeFromIndexes() ? 0 : indexedValues((FullEntity<?>)value.get());
+			case LIST: {
+				int count = 0;
+				for (final Value<?> element: (List<? extends Value<?>>)value.get())
+					count += indexedValues(element);
+				return count;
+			}
+			default:
+				return value.excludeFromIndexes() ? 0 : 1;
+		}
+	}
+
+	/**
+	 * @return a description of why the entity is too big, naming the largest property (embedded properties are
+	 * dotted paths) so that whoever reads the error knows where to look
+	 */
+	public static String describeOverflow(final BaseEntity<?> entity, final int size) {
+		final String[] largestPath = { null };
+		final int[] largestSize = { -1 };
+		findLargest(entity, "", largestPath, largestSize);
+
+		final String where = entity.getKey() == null ? "Entity" : "Entity " + entity.getKey();
+		final String largest = largestPath[0] == null ? "" : "; the largest property is '" + largestPath[0] + "' at about " + largestSize[0] + " bytes";
+
+		return where + " is about " + size + " bytes, over the datastore limit of " + MAX_ENTITY_BYTES + " bytes" + largest;
+	}
+
+	/** Descends into embedded entities, because a big embedded field is more useful to report than its container */
+	private static void findLargest(final BaseEntity<?> entity, final String prefix, final String[] largestPath, final int[] largestSize) {
+		for (final Map.Entry<String, Value<?>> property: entity.getProperties().entrySet()) {
+			final String path = prefix + property.getKey();
+			final Value<?> value = property.getValue();
+
+			if (value.get() instanceof FullEntity) {
+				findLargest((FullEntity<?>)value.get(), path + ".", largestPath, largestSize);
+			} else {
+				final int size = of(value);
+				if (size > largestSize[0]) {
+					largestPath[0] = path;
+					largestSize[0] = size;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Split items into consecutive batches, each of which has no more than maxCount items and, unless it is
+	 * a single item, no more than maxBytes.
+	 */
+	public static <T> List<List<T>> partition(final List<T> items, final ToIntFunction<? super T> sizeOf, final int maxCount, final int maxBytes) {
+		final List<List<T>> batches = new ArrayList<>();
+
+		List<T> batch = new ArrayList<>();
+		long batchBytes = 0;
+
+		for (final T item: items) {
+			final int size = sizeOf.applyAsInt(item);
+
+			if (!batch.isEmpty() && (batch.size() >= maxCount || batchBytes + size > maxBytes)) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+				batchBytes = 0;
+			}
+
+			batch.add(item);
+			batchBytes += size;
+		}
+
+		if (!batch.isEmpty())
+			batches.add(batch);
+
+		return batches;
+	}
+}
@@ -1,5 +1,6 @@
 package com.googlecode.objectify.impl;
 
+import com.google.cloud.Timestamp;
 import com.google.cloud.datastore.BaseEntity;
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.ReadOption;
@@ -7,13 +8,17 @@ import com.google.common.collect.ImmutableSet;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.Result;
+import com.googlecode.objectify.cache.SnapshotCache;
 import com.googlecode.objectify.impl.translate.LoadContext;
 import com.googlecode.objectify.util.ResultCache;
+import com.googlecode.objectify.util.ResultWrapper;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
 
@@ -129,6 +134,10 @@ public class LoadEngine
 	 * Called by non-hybrid queries to add results and eliminate batch fetching.
 	 */
 	public void stuff(final Entity ent) {
+		final OperationStats stats = ofy.factory().getOperationStats();
+		if (stats != null)
+			stats.recordRead(ent);
+
 		round.stuff(ent);
 	}
 
@@ -175,8 +184,53 @@ public class LoadEngine
 	public Result<Map<com.google.cloud.datastore.Key, Entity>> fetch(Set<com.google.cloud.datastore.Key> keys) {
 		log.debug("Fetching {} keys: {}", keys.size(), keys);
 
-		final Future<Map<com.google.cloud.datastore.Key, Entity>> fut = datastore.get(keys, readOptions.toArray(new ReadOption[readOptions.size()]));
-		return ResultAdapter.create(fut);
+		final OperationStats stats = ofy.factory().getOperationStats();
+		if (stats != null)
+			stats.recordFetch(keys);
+
+		final ReadOption[] options = readOptions.toArray(new ReadOption[readOptions.size()]);
+
+		final SnapshotCache snapshots = ofy.factory().getSnapshotCache();
+		final Optional<Instant> readTime = readTime();
+
+		final Future<Map<com.google.cloud.datastore.Key, Entity>> fut = (snapshots != null && readTime.isPresent() && snapshots.isCacheable(readTime.get()))
+				? snapshots.get(keys, readTime.get(), uncached -> datastore.get(uncached, options))
+				: datastore.get(keys, options);
+
+		final Result<Map<com.google.cloud.datastore.Key, Entity>> result = ResultAdapter.create(fut);
+
+		if (stats == null)
+			return result;
+
+		return new ResultWrapper<Map<com.google.cloud.datastore.Key, Entity>, Map<com.google.cloud.datastore.Key, Entity>>(result) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Map<com.google.cloud.datastore.Key, Entity> wrap(final Map<com.google.cloud.datastore.Key, Entity> fetched) {
+				for (final com.google.cloud.datastore.Key key: keys) {
+					final Entity entity = fetched.get(key);
+					if (entity == null)
+						stats.recordReadMissing(key.getKind());
+					else
+						stats.recordRead(entity);
+				}
+
+				return fetched;
+			}
+		};
+	}
+
+	/**
+	 * @return the fixed point in time we are reading at, from either the load options or the transaction
+	 */
+	private Optional<Instant> readTime() {
+		for (final ReadOption option: readOptions)
+			if (option instanceof ReadOption.ReadTime) {
+				final Timestamp time = ((ReadOption.ReadTime)option).time();
+				return Optional.of(Instant.ofEpochSecond(time.getSeconds(), time.getNanos()));
+			}
+
+		return ofy.getTransaction() == null ? Optional.empty() : ofy.getTransaction().getReadTime();
 	}
 
 	/**
@@ -13,6 +13,7 @@ import com.googlecode.objectify.util.ResultProxy;
 
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -89,6 +90,11 @@ class LoadTypeImpl<T> extends Queryable<T> implements LoadType<T>
 		return q;
 	}
 
+	@Override
+	public List<Query<T>> shard(final int count) {
+		return createQuery().shard(count);
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.LoadIds#id(long)
 	 */
@@ -56,6 +56,11 @@ class LoaderImpl extends Queryable<Object> implements Loader {
 		this.readOptions = readOptions;
 	}
 
+	/** Same load groups and options, but loading through a different Objectify */
+	LoaderImpl withObjectify(final ObjectifyImpl other) {
+		return new LoaderImpl(other, loadArrangement, readOptions);
+	}
+
 	@Override
 	QueryImpl<Object> createQuery() {
 		return new QueryImpl<>(this);
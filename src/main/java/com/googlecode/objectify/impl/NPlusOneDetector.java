@@ -0,0 +1,194 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.Key;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Watches the load rounds of one request for the N+1 pattern: many rounds which each fetch a single key of
+ * the same kind, typically {@code Ref.get()} or {@code load().key()} inside a loop, where one batch load would
+ * have done. A run of single-key rounds for a kind ends when a round fetches several keys of that kind; a run
+ * of at least the threshold is reported, with the call sites that started the rounds.</p>
+ *
+ * <p>This is a diagnostic. Each single-key round walks the stack, so enable it in development and testing with
+ * {@code ObjectifyFactory.setNPlusOneThreshold()}, not in production.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Slf4j
+public class NPlusOneDetector
+{
+	/** A run of single-key rounds */
+	@Value
+	public static class Finding {
+		String kind;
+
+		/** The number of single-key rounds in the run */
+		int rounds;
+
+		/** Where the rounds came from, most frequent first */
+		List<CallSite> callSites;
+
+		@Override
+		public String toString() {
+			final StringBuilder bld = new StringBuilder();
+			bld.append(rounds).append(" single-key load rounds of kind '").append(kind).append("'; batch these loads");
+
+			for (final CallSite site: callSites) {
+				bld.append("\n  ").append(site.getCount()).append(" from ").append(site.getFrame());
+				for (final StackTraceElement frame: site.getSample().subList(1, site.getSample().size()))
+					bld.append("\n\tat ").append(frame);
+			}
+
+			return bld.toString();
+		}
+	}
+
+	/** */
+	@Value
+	public static class CallSite {
+		/** The first frame outside of Objectify */
+		StackTraceElement frame;
+
+		/** Rounds started from this frame */
+		int count;
+
+		/** A stack sample, starting at the frame */
+		List<StackTraceElement> sample;
+	}
+
+	/** How much of the stack to keep for each call site */
+	private static final int SAMPLE_FRAMES = 12;
+
+	/** */
+	private static final String OBJECTIFY_PACKAGE = "com.googlecode.objectify.";
+
+	/** Distinguishes our classes from applications (and tests) which share the package prefix */
+	private static final CodeSource OBJECTIFY_CODE = NPlusOneDetector.class.getProtectionDomain().getCodeSource();
+
+	/** */
+	private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	/** The run in progress for a kind */
+	private static class Run {
+		int rounds;
+
+		/** Keyed by the call site frame */
+		final Map<StackTraceElement, CallSiteCount> sites = new LinkedHashMap<>();
+	}
+
+	/** */
+	private static class CallSiteCount {
+		int count;
+		final List<StackTraceElement> sample;
+
+		CallSiteCount(final List<StackTraceElement> sample) {
+			this.sample = sample;
+		}
+	}
+
+	/** */
+	private final int threshold;
+
+	/** Keyed by kind */
+	private final Map<String, Run> runs = new HashMap<>();
+
+	/** */
+	private final List<Finding> findings = new ArrayList<>();
+
+	/** @param threshold is the number of successive single-key rounds of a kind worth reporting */
+	public NPlusOneDetector(final int threshold) {
+		this.threshold = threshold;
+	}
+
+	/** Called for each round which goes to the datastore (or memcache) */
+	public void recordFetch(final Set<Key> keys) {
+		if (keys.size() == 1) {
+			final String kind = keys.iterator().next().getKind();
+			final List<StackTraceElement> sample = sampleStack();
+
+			synchronized (this) {
+				final Run run = runs.computeIfAbsent(kind, k -> new Run());
+				run.rounds++;
+
+				if (!sample.isEmpty())
+					run.sites.computeIfAbsent(sample.get(0), frame -> new CallSiteCount(sample)).count++;
+			}
+		} else {
+			final Set<String> kinds = new HashSet<>();
+			for (final Key key: keys)
+				kinds.add(key.getKind());
+
+			synchronized (this) {
+				for (final String kind: kinds)
+					endRun(kind);
+			}
+		}
+	}
+
+	/**
+	 * End the request, logging a warning for each finding
+	 * @return all the findings of the request
+	 */
+	public synchronized List<Finding> finish() {
+		for (final String kind: new ArrayList<>(runs.keySet()))
+			endRun(kind);
+
+		for (final Finding finding: findings)
+			log.warn("N+1 loads: {}", finding);
+
+		return getFindings();
+	}
+
+	/** @return the findings so far; runs in progress are not included until they end */
+	public synchronized List<Finding> getFindings() {
+		return Collections.unmodifiableList(new ArrayList<>(findings));
+	}
+
+	/** */
+	private void endRun(final String kind) {
+		final Run run = runs.remove(kind);
+
+		if (run != null && run.rounds >= threshold) {
+			final List<CallSite> sites = run.sites.entrySet().stream()
+					.map(entry -> new CallSite(entry.getKey(), entry.getValue().count, entry.getValue().sample))
+					.sorted((a, b) -> Integer.compare(b.getCount(), a.getCount()))
+					.collect(Collectors.toList());
+
+			findings.add(new Finding(kind, run.rounds, sites));
+		}
+	}
+
+	/** @return the stack starting at the first frame outside of Objectify, possibly empty */
+	private static List<StackTraceElement> sampleStack() {
+		return WALKER.walk(frames -> frames
+				.dropWhile(NPlusOneDetector::isObjectify)
+				.limit(SAMPLE_FRAMES)
+				.map(StackWalker.StackFrame::toStackTraceElement)
+				.collect(Collectors.toList()));
+	}
+
+	/** */
+	private static boolean isObjectify(final StackWalker.StackFrame frame) {
+		if (!frame.getClassName().startsWith(OBJECTIFY_PACKAGE))
+			return false;
+
+		final CodeSource code = frame.getDeclaringClass().getProtectionDomain().getCodeSource();
+		if (code == null || code.getLocation() == null || OBJECTIFY_CODE == null || OBJECTIFY_CODE.getLocation() == null)
+			return true;
+
+		// Compare as strings; URL.equals() can resolve hosts
+		return code.getLocation().toExternalForm().equals(OBJECTIFY_CODE.getLocation().toExternalForm());
+	}
+}
@@ -0,0 +1,173 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.IncompleteKey;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>Java Flight Recorder events for Objectify's datastore and memcache operations, so that they can be
+ * correlated with GC, CPU, and lock activity in a flight recording. The events are recorded whenever a
+ * recording is running, unless its settings turn {@code objectify.*} off or raise the threshold. Without a
+ * recording an event costs next to nothing; the fields are only computed when {@code shouldCommit()} says
+ * the event will be kept.</p>
+ *
+ * <p>Durations are of the calls as Objectify makes them. Load rounds last until their results are first
+ * needed, so a round which is never materialized is never committed.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class ObjectifyEvents
+{
+	/** */
+	private static final String CATEGORY = "Objectify";
+
+	/** One round of batch loading by key; the keys not in the session */
+	@Name("objectify.LoadRound")
+	@Label("Load Round")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class LoadRound extends Event {
+		@Label("Kind")
+		@Description("The kinds of the keys, comma separated")
+		public String kind;
+
+		@Label("Keys")
+		public int keys;
+
+		@Label("Fetched Keys")
+		@Description("Keys which were not already provided by a query, so went to memcache or the datastore")
+		public int fetched;
+
+		@Label("Depth")
+		@Description("0 for the first round, more for rounds driven by @Load")
+		public int depth;
+
+		@Label("Bytes")
+		@DataAmount
+		public long bytes;
+	}
+
+	/** */
+	@Name("objectify.Save")
+	@Label("Save")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class Save extends Event {
+		@Label("Kind")
+		public String kind;
+
+		@Label("Keys")
+		public int keys;
+
+		@Label("Bytes")
+		@DataAmount
+		public long bytes;
+	}
+
+	/** */
+	@Name("objectify.Delete")
+	@Label("Delete")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class Delete extends Event {
+		@Label("Kind")
+		public String kind;
+
+		@Label("Keys")
+		public int keys;
+	}
+
+	/** Lasts as long as starting the query; results which stream in later are not included */
+	@Name("objectify.Query")
+	@Label("Query")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class Query extends Event {
+		@Label("Kind")
+		public String kind;
+
+		@Label("Type")
+		@Description("keys (also the first step of a hybrid query), normal, projection, or aggregation")
+		public String type;
+	}
+
+	/** */
+	@Name("objectify.MemcacheGet")
+	@Label("Memcache Get")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class MemcacheGet extends Event {
+		@Label("Kind")
+		public String kind;
+
+		@Label("Keys")
+		public int keys;
+
+		@Label("Hits")
+		public int hits;
+
+		@Label("Hit Ratio")
+		@Percentage
+		public double hitRatio;
+	}
+
+	/** */
+	@Name("objectify.MemcachePut")
+	@Label("Memcache Put")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class MemcachePut extends Event {
+		@Label("Kind")
+		public String kind;
+
+		@Label("Keys")
+		public int keys;
+
+		@Label("Collisions")
+		@Description("Keys which changed since they were read, so were emptied instead")
+		public int collisions;
+
+		@Label("Bytes")
+		@DataAmount
+		public long bytes;
+	}
+
+	/** One try of a transaction */
+	@Name("objectify.Transaction")
+	@Label("Transaction")
+	@Category(CATEGORY)
+	public static class Transaction extends Event {
+		@Label("Retry")
+		@Description("0 for the first try")
+		public int retry;
+
+		@Label("Keys")
+		@Description("Keys loaded or saved by the transaction")
+		public int keys;
+
+		@Label("Committed")
+		public boolean committed;
+	}
+
+	/** @return the distinct kinds of the keys, comma separated */
+	public static String kinds(final Collection<? extends IncompleteKey> keys) {
+		if (keys.size() == 1)
+			return keys.iterator().next().getKind();
+
+		final Set<String> kinds = new TreeSet<>();
+		for (final IncompleteKey key: keys)
+			kinds.add(key.getKind());
+
+		return String.join(",", kinds);
+	}
+}
@@ -12,6 +12,7 @@ import com.googlecode.objectify.TxnType;
 import com.googlecode.objectify.Work;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.cmd.Async;
 import com.googlecode.objectify.cmd.Deferred;
 import com.googlecode.objectify.cmd.Deleter;
 import com.googlecode.objectify.cmd.Loader;
@@ -88,6 +89,11 @@ public class ObjectifyImpl implements Objectify, Closeable {
 		return new DeferredImpl(this);
 	}
 
+	@Override
+	public Async async() {
+		return new AsyncImpl(this);
+	}
+
 	@Override
 	public Objectify deadline(final Double value) {
 		// A no-op
@@ -123,6 +129,11 @@ public class ObjectifyImpl implements Objectify, Closeable {
 		return transactor.getTransaction();
 	}
 
+	@Override
+	public <R> List<R> parallel(final List<? extends Work<? extends R>> tasks) {
+		return ParallelRunner.run(this, tasks);
+	}
+
 	@Override
 	public <R> R execute(final TxnType txnType, final Work<R> work) {
 		return transactor.execute(this, txnType, work);
@@ -259,7 +270,10 @@ public class ObjectifyImpl implements Objectify, Closeable {
 		// The order of these three operations is significant
 		flush();
 
-		PendingFutures.completeAllPendingFutures();
+		// A transaction's cache housekeeping (eg async invalidation) can finish when the enclosing
+		// session closes; there always is one, since transactions are opened from it.
+		if (getTransaction() == null)
+			PendingFutures.completeAllPendingFutures();
 
 		factory().close(this);
 	}
@@ -15,19 +15,26 @@ public class ObjectifyOptions {
 	boolean mandatoryTransactions;
 	String namespace;
 
+	/** If greater than 0, non-transactional writes are batched so no commit has more than this many per entity group */
+	int maxWritesPerGroup;
+
 	ObjectifyOptions() {
-		this(true, false, null);
+		this(true, false, null, 0);
 	}
 
 	public ObjectifyOptions cache(final boolean cache) {
-		return new ObjectifyOptions(cache, mandatoryTransactions, namespace);
+		return new ObjectifyOptions(cache, mandatoryTransactions, namespace, maxWritesPerGroup);
 	}
 
 	public ObjectifyOptions mandatoryTransactions(final boolean mandatoryTransactions) {
-		return new ObjectifyOptions(cache, mandatoryTransactions, namespace);
+		return new ObjectifyOptions(cache, mandatoryTransactions, namespace, maxWritesPerGroup);
 	}
 
 	public ObjectifyOptions namespace(final String namespace) {
-		return new ObjectifyOptions(cache, mandatoryTransactions, namespace);
+		return new ObjectifyOptions(cache, mandatoryTransactions, namespace, maxWritesPerGroup);
+	}
+
+	public ObjectifyOptions maxWritesPerGroup(final int maxWritesPerGroup) {
+		return new ObjectifyOptions(cache, mandatoryTransactions, namespace, maxWritesPerGroup);
 	}
 }
\ No newline at end of file
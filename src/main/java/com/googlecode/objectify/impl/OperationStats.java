@@ -0,0 +1,191 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.Key;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Counts the datastore and memcache operations of one request (ie, one {@code ObjectifyService.run()} or
+ * one pass through the ObjectifyFilter), broken down by kind. Tasks of {@code ofy().parallel()} and
+ * {@code ofy().async()} count towards the request that started them.</p>
+ *
+ * <p>Reads are entities fetched by key (including those then served by memcache, which are also counted as
+ * cache hits) and entities returned by non-keys-only queries. Index writes are an estimate: one entry for the
+ * kind plus two (ascending and descending) for each indexed value; composite indexes are not counted.</p>
+ *
+ * <p>Counting is off by default. Turn it on with {@code ObjectifyFactory.setOperationStatsEnabled()} and get
+ * the stats for the current request from {@code ObjectifyFactory.getOperationStats()}, or have them delivered
+ * at the end of every request with {@code ObjectifyFactory.setOperationStatsListener()}.</p>
+ *
+ * <p>If N+1 detection is enabled, the findings of the {@link NPlusOneDetector} are reported here too.</p>
+ */
+public class OperationStats
+{
+	/** */
+	public static class Stat
+	{
+		private final AtomicLong reads = new AtomicLong();
+		private final AtomicLong writes = new AtomicLong();
+		private final AtomicLong deletes = new AtomicLong();
+		private final AtomicLong indexWrites = new AtomicLong();
+		private final AtomicLong queries = new AtomicLong();
+		private final AtomicLong cacheHits = new AtomicLong();
+		private final AtomicLong cacheMisses = new AtomicLong();
+		private final AtomicLong bytesRead = new AtomicLong();
+		private final AtomicLong bytesWritten = new AtomicLong();
+
+		/** Entities read, by key or by query */
+		public long getReads() { return this.reads.get(); }
+
+		/** Entities saved */
+		public long getWrites() { return this.writes.get(); }
+
+		/** Entities deleted */
+		public long getDeletes() { return this.deletes.get(); }
+
+		/** Estimated index entries written by the saves */
+		public long getIndexWrites() { return this.indexWrites.get(); }
+
+		/** Queries run; a query that pages through several batches of results counts once */
+		public long getQueries() { return this.queries.get(); }
+
+		/** Entity memcache hits */
+		public long getCacheHits() { return this.cacheHits.get(); }
+
+		/** Entity memcache misses */
+		public long getCacheMisses() { return this.cacheMisses.get(); }
+
+		/** Estimated size of the entities read */
+		public long getBytesRead() { return this.bytesRead.get(); }
+
+		/** Estimated size of the entities written */
+		public long getBytesWritten() { return this.bytesWritten.get(); }
+
+		/** */
+		private void addTo(final Stat total) {
+			total.reads.addAndGet(getReads());
+			total.writes.addAndGet(getWrites());
+			total.deletes.addAndGet(getDeletes());
+			total.indexWrites.addAndGet(getIndexWrites());
+			total.queries.addAndGet(getQueries());
+			total.cacheHits.addAndGet(getCacheHits());
+			total.cacheMisses.addAndGet(getCacheMisses());
+			total.bytesRead.addAndGet(getBytesRead());
+			total.bytesWritten.addAndGet(getBytesWritten());
+		}
+
+		@Override
+		public String toString() {
+			return "reads=" + getReads() + ", writes=" + getWrites() + ", deletes=" + getDeletes()
+					+ ", indexWrites=" + getIndexWrites() + ", queries=" + getQueries()
+					+ ", cacheHits=" + getCacheHits() + ", cacheMisses=" + getCacheMisses()
+					+ ", bytesRead=" + getBytesRead() + ", bytesWritten=" + getBytesWritten();
+		}
+	}
+
+	/** Keyed by kind; concurrent because parallel tasks share the stats of their request */
+	private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+	/** Null unless N+1 detection is enabled */
+	private final NPlusOneDetector nPlusOneDetector;
+
+	/** */
+	public OperationStats() {
+		this(null);
+	}
+
+	/** @param nPlusOneDetector can be null */
+	public OperationStats(final NPlusOneDetector nPlusOneDetector) {
+		this.nPlusOneDetector = nPlusOneDetector;
+	}
+
+	/**
+	 * Get the live statistics, keyed by kind. Kindless queries are counted under the empty string.
+	 */
+	public Map<String, Stat> getStats() { return this.stats; }
+
+	/** @return the sum over all kinds */
+	public Stat getTotal() {
+		final Stat total = new Stat();
+		for (final Stat stat: this.stats.values())
+			stat.addTo(total);
+
+		return total;
+	}
+
+	/**
+	 * @return the N+1 loads found in this request, or empty if detection is not enabled. Runs of single-key
+	 * rounds are included as they end, and all are included once the request ends.
+	 */
+	public List<NPlusOneDetector.Finding> getNPlusOneLoads() {
+		return nPlusOneDetector == null ? Collections.emptyList() : nPlusOneDetector.getFindings();
+	}
+
+	/** Called for each round of key fetches */
+	public void recordFetch(final Set<Key> keys) {
+		if (nPlusOneDetector != null)
+			nPlusOneDetector.recordFetch(keys);
+	}
+
+	/** Called as the request ends */
+	public void finish() {
+		if (nPlusOneDetector != null)
+			nPlusOneDetector.finish();
+	}
+
+	/** */
+	public void recordRead(final BaseEntity<?> entity) {
+		final Stat stat = getStat(entity.getKey().getKind());
+		stat.reads.incrementAndGet();
+		stat.bytesRead.addAndGet(EntitySize.of(entity));
+	}
+
+	/** A read of a key that does not exist */
+	public void recordReadMissing(final String kind) {
+		getStat(kind).reads.incrementAndGet();
+	}
+
+	/** @param size is the estimated size, which the caller usually has already */
+	public void recordWrite(final BaseEntity<?> entity, final int size) {
+		final Stat stat = getStat(entity.getKey().getKind());
+		stat.writes.incrementAndGet();
+		stat.bytesWritten.addAndGet(size);
+		stat.indexWrites.addAndGet(EntitySize.indexEntries(entity));
+	}
+
+	/** */
+	public void recordDelete(final String kind) {
+		getStat(kind).deletes.incrementAndGet();
+	}
+
+	/** @param kind is null for kindless queries */
+	public void recordQuery(final String kind) {
+		getStat(kind == null ? "" : kind).queries.incrementAndGet();
+	}
+
+	/** */
+	public void recordCacheHit(final String kind) {
+		getStat(kind).cacheHits.incrementAndGet();
+	}
+
+	/** */
+	public void recordCacheMiss(final String kind) {
+		getStat(kind).cacheMisses.incrementAndGet();
+	}
+
+	/** */
+	private Stat getStat(final String kind) {
+		return this.stats.computeIfAbsent(kind, k -> new Stat());
+	}
+
+	@Override
+	public String toString() {
+		return "OperationStats" + this.stats;
+	}
+}
@@ -0,0 +1,128 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.context.ObjectifyContext;
+import com.googlecode.objectify.util.FutureHelper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Implements {@code ofy().parallel()}. Each task runs on the factory's parallel executor in its own
+ * Objectify context, forked from the caller's: same options, same transaction (if any), same default
+ * namespace, and a private session that starts with copies of the values already in the caller's.
+ * Sessions and transactions are not thread-safe to share, but a private session per task is; when all
+ * tasks have succeeded, what each task loaded or saved is merged back into the caller's session in task
+ * order.</p>
+ *
+ * <p>This is structured: the call does not return until every task has finished, even if one fails.</p>
+ *
+ * <p>Also implements {@code ofy().async()}, which uses the same fork but does not wait.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Slf4j
+class ParallelRunner
+{
+	/** */
+	static <R> List<R> run(final ObjectifyImpl parent, final List<? extends Work<? extends R>> tasks) {
+		if (tasks.isEmpty())
+			return Collections.emptyList();
+
+		final Executor executor = parent.factory().getParallelExecutor();
+		final String namespace = NamespaceManager.get();
+		final OperationStats stats = parent.factory().getOperationStats();
+
+		final List<Session> sessions = new ArrayList<>(tasks.size());
+		final List<Map<Key<?>, SessionValue<?>>> snapshots = new ArrayList<>(tasks.size());
+		final List<CompletableFuture<R>> futures = new ArrayList<>(tasks.size());
+
+		for (final Work<? extends R> task: tasks) {
+			final Session session = parent.getSession().fork();
+			sessions.add(session);
+			snapshots.add(session.snapshot());
+
+			futures.add(CompletableFuture.supplyAsync(() -> runForked(parent, session, namespace, stats, task), executor));
+		}
+
+		final List<R> results = new ArrayList<>(tasks.size());
+		Throwable failure = null;
+
+		for (final CompletableFuture<R> future: futures) {
+			try {
+				results.add(future.join());
+			} catch (CompletionException ex) {
+				if (failure == null)
+					failure = ex.getCause();
+				else
+					failure.addSuppressed(ex.getCause());
+			}
+		}
+
+		if (failure != null)
+			FutureHelper.unwrapAndThrow(failure);
+
+		for (int i = 0; i < sessions.size(); i++)
+			parent.getSession().addChanges(sessions.get(i), snapshots.get(i));
+
+		return results;
+	}
+
+	/**
+	 * Implements {@code ofy().async()}: runs the work in a single fork, whose session is not merged back.
+	 * The future is completed inside the fork after its housekeeping is done, so dependent stages which
+	 * run on completion see a usable {@code ofy()}.
+	 */
+	static <R> CompletableFuture<R> supplyAsync(final ObjectifyImpl parent, final Work<R> work) {
+		final Executor executor = parent.factory().getParallelExecutor();
+		final String namespace = NamespaceManager.get();
+		final OperationStats stats = parent.factory().getOperationStats();
+
+		final Session session = parent.getSession().fork();
+
+		final CompletableFuture<R> future = new CompletableFuture<>();
+
+		executor.execute(() -> {
+			try {
+				runForked(parent, session, namespace, stats, () -> {
+					final R result = work.run();
+					parent.factory().ofy().flush();
+					PendingFutures.completeAllPendingFutures();
+					future.complete(result);
+					return null;
+				});
+			} catch (Throwable ex) {
+				future.completeExceptionally(ex);
+			}
+		});
+
+		return future;
+	}
+
+	/** Runs on the executor thread, in a fresh context which counts towards the parent's request */
+	static <R> R runForked(final ObjectifyImpl parent, final Session session, final String namespace, final OperationStats stats, final Work<? extends R> task) {
+		return new ObjectifyContext().call(() -> {
+			NamespaceManager.set(namespace);
+			ObjectifyContext.current().shareStats(parent.factory(), stats);
+
+			final ObjectifyImpl child = parent.factory().open(parent.getOptions(), parent.transactor.fork(parent.factory(), session));
+			try {
+				return task.run();
+			} finally {
+				child.close();
+
+				// Transactional children leave housekeeping to the enclosing session, but that is on another thread
+				PendingFutures.completeAllPendingFutures();
+			}
+		});
+	}
+}
@@ -17,6 +17,7 @@ import com.google.cloud.datastore.models.ExplainOptions;
 import com.google.common.collect.Iterables;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.cache.CachingAsyncDatastore;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -37,32 +38,66 @@ public class QueryEngine {
 
 	/**
 	 * Perform a keys-only query.
+	 * @param cacheResults if the keys should be cached in the memcache (when possible)
 	 */
-	public <T> QueryResults<Key<T>> queryKeysOnly(final KeyQuery query, final Optional<ExplainOptions> explain) {
+	public <T> QueryResults<Key<T>> queryKeysOnly(final KeyQuery query, final boolean cacheResults, final Optional<ExplainOptions> explain) {
 		log.trace("Starting keys-only query");
 
-		final QueryResults<com.google.cloud.datastore.Key> results = explain.isPresent()
-			? ds.run(query, explain.get())
-			: ds.run(query);
+		final QueryResults<com.google.cloud.datastore.Key> results = runKeys(query, cacheResults, explain);
 
 		return new KeyQueryResults<>(results);
 	}
 
 	/**
 	 * Perform a keys-only plus batch gets.
+	 * @param cacheResults if the keys should be cached in the memcache (when possible)
 	 */
-	public <T> QueryResults<T> queryHybrid(final KeyQuery query, final int chunkSize, final Optional<ExplainOptions> explain) {
+	public <T> QueryResults<T> queryHybrid(final KeyQuery query, final int chunkSize, final boolean cacheResults, final Optional<ExplainOptions> explain) {
 		log.trace("Starting hybrid query");
 
-		final QueryResults<com.google.cloud.datastore.Key> rawResults = explain.isPresent()
-			? ds.run(query, explain.get())
-			: ds.run(query);
+		final QueryResults<com.google.cloud.datastore.Key> rawResults = runKeys(query, cacheResults, explain);
 
 		final QueryResults<Key<T>> results = new KeyQueryResults<>(rawResults);
 
 		return new HybridQueryResults<>(loader.createLoadEngine(), results, chunkSize);
 	}
 
+	/**
+	 * Run the keys-only query, going through the query keys cache if that was asked for and we are talking to
+	 * the caching datastore (ie, not in a transaction and the global cache is enabled).  Only limited queries of
+	 * cacheable kinds are cached.
+	 */
+	private QueryResults<com.google.cloud.datastore.Key> runKeys(final KeyQuery query, final boolean cacheResults, final Optional<ExplainOptions> explain) {
+		final ObjectifyEvents.Query event = startQuery(query, "keys");
+		try {
+			if (explain.isPresent())
+				return ds.run(query, explain.get());
+
+			if (cacheResults) {
+				final Integer expirySeconds = cacheExpirySeconds(query);
+
+				if (expirySeconds != null)
+					return ((CachingAsyncDatastore)ds).runCached(query, expirySeconds);
+			}
+
+			return ds.run(query);
+		} finally {
+			event.commit();
+		}
+	}
+
+	/**
+	 * @return how long the keys of the query may be cached, or null if they can't be: we aren't talking to the
+	 * caching datastore, the query has no kind or no limit, or the kind isn't cacheable
+	 */
+	Integer cacheExpirySeconds(final KeyQuery query) {
+		if (!(ds instanceof CachingAsyncDatastore) || query.getKind() == null || query.getLimit() == null)
+			return null;
+
+		final EntityMetadata<?> meta = loader.ofy.factory().getMetadata(query.getKind());
+		return meta == null ? null : meta.getCacheExpirySeconds();
+	}
+
 	/**
 	 * A normal, non-hybrid query
 	 */
@@ -75,10 +110,14 @@ public class QueryEngine {
 
 		final LoadEngine loadEngine = loader.createLoadEngine();
 
+		final ObjectifyEvents.Query event = startQuery(query, "normal");
+
 		final QueryResults<Entity> entityResults = explain.isPresent()
 			? ds.run(query, explain.get())
 			: ds.run(query);
 
+		event.commit();
+
 		final QueryResults<com.google.cloud.datastore.Key> stuffed = new StuffingQueryResults(loadEngine, entityResults);
 
 		final QueryResults<Key<T>> keyResults = new KeyQueryResults<>(stuffed);
@@ -94,10 +133,14 @@ public class QueryEngine {
 
 		final LoadEngine loadEngine = loader.createLoadEngine();
 
+		final ObjectifyEvents.Query event = startQuery(query, "projection");
+
 		final QueryResults<ProjectionEntity> results = explain.isPresent()
 			? ds.run(query, explain.get())
 			: ds.run(query);
 
+		event.commit();
+
 		return new ProjectionQueryResults<>(results, loadEngine);
 	}
 
@@ -114,7 +157,11 @@ public class QueryEngine {
 				.addAggregations(aggregations)
 				.build();
 
+		final ObjectifyEvents.Query event = startQuery(query, "aggregation");
+
 		final AggregationResults results = ds.runAggregation(aggQuery).get();
+
+		event.commit();
 		return Iterables.getOnlyElement(results);
 	}
 
@@ -131,7 +178,27 @@ public class QueryEngine {
 				.addAggregations(aggregations)
 				.build();
 
+		final ObjectifyEvents.Query event = startQuery(query, "aggregation");
+
 		final AggregationResults results = ds.runAggregation(aggQuery).get();
+
+		event.commit();
 		return Iterables.getOnlyElement(results);
 	}
+
+	/**
+	 * Count towards the request's operation stats, if there are any, and start the flight recorder event.
+	 * Commit the event once the query has been run.
+	 */
+	private ObjectifyEvents.Query startQuery(final StructuredQuery<?> query, final String type) {
+		final OperationStats stats = loader.ofy.factory().getOperationStats();
+		if (stats != null)
+			stats.recordQuery(query.getKind());
+
+		final ObjectifyEvents.Query event = new ObjectifyEvents.Query();
+		event.kind = query.getKind();
+		event.type = type;
+		event.begin();
+		return event;
+	}
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.googlecode.objectify.impl;
 
 import com.google.cloud.datastore.AggregationResult;
 import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.DatastoreException;
 import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.PathElement;
 import com.google.cloud.datastore.QueryResults;
 import com.google.cloud.datastore.StringValue;
 import com.google.cloud.datastore.StructuredQuery;
@@ -13,28 +15,37 @@ import com.google.cloud.datastore.aggregation.Aggregation;
 import com.google.cloud.datastore.aggregation.AggregationBuilder;
 import com.google.cloud.datastore.models.ExplainOptions;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.LoadResult;
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.annotation.Subclass;
 import com.googlecode.objectify.cmd.Filter;
 import com.googlecode.objectify.cmd.Query;
+import com.googlecode.objectify.cmd.QueryPublisher;
 import com.googlecode.objectify.cmd.QueryResultIterable;
 import com.googlecode.objectify.impl.translate.ClassTranslator;
 import com.googlecode.objectify.util.IteratorFirstResult;
 import com.googlecode.objectify.util.MakeListResult;
 import com.googlecode.objectify.util.ResultProxy;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of Query.
  *
  * @author Jeff Schnitzer <jeff@infohazard.org>
  */
+@Slf4j
 public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Cloneable {
 	/**
 	 * Because we process @Load batches, we need to always work in chunks.  So we should always specify
@@ -42,6 +53,30 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	 */
 	static final int DEFAULT_CHUNK_SIZE = 30;
 
+	/** When sharding, how many scatter samples to take per shard; more gives more even shards */
+	static final int SHARD_OVERSAMPLING = 32;
+
+	/** The reserved, randomly distributed property used for sampling */
+	private static final String SCATTER_RESERVED_PROPERTY = "__scatter__";
+
+	/**
+	 * The order in which the datastore returns the keys of one project and namespace: path element by path
+	 * element, so an ancestor comes before its descendants. Key.compareTo() differs; it compares ancestors
+	 * before kinds, so it puts every root key before every child key.
+	 */
+	static final Comparator<Key<?>> DATASTORE_KEY_ORDER = (a, b) -> {
+		final List<PathElement> pathA = path(a);
+		final List<PathElement> pathB = path(b);
+
+		for (int i = 0; i < Math.min(pathA.size(), pathB.size()); i++) {
+			final int result = comparePathElements(pathA.get(i), pathB.get(i));
+			if (result != 0)
+				return result;
+		}
+
+		return Integer.compare(pathA.size(), pathB.size());
+	};
+
 	/** Track this so we can prevent attempts to filter/sort by id or parent */
 	private Class<T> classRestriction;
 
@@ -54,6 +89,9 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	/** Three states; null is "figure it out automatically" */
 	private Boolean hybrid;
 
+	/** If true, keys are cached in the memcache when possible */
+	private boolean cacheResults;
+
 	/** */
 	QueryImpl(final LoaderImpl loader) {
 		super(loader);
@@ -80,6 +118,21 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		}
 	}
 
+	/** Copies the query definition to run through a different loader */
+	private QueryImpl(final LoaderImpl loader, final QueryImpl<T> other) {
+		super(loader);
+		this.classRestriction = other.classRestriction;
+		this.actual = other.actual;
+		this.chunk = other.chunk;
+		this.hybrid = other.hybrid;
+		this.cacheResults = other.cacheResults;
+	}
+
+	/** @return this query, but running through a different Objectify (and therefore session) */
+	QueryImpl<T> withObjectify(final ObjectifyImpl other) {
+		return new QueryImpl<>(loader.withObjectify(other), this);
+	}
+
 	@Override
 	QueryImpl<T> createQuery() {
 		return this.clone();
@@ -249,6 +302,11 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		this.hybrid = force;
 	}
 
+	/** Modifies the instance */
+	void setCacheResults(final boolean value) {
+		this.cacheResults = value;
+	}
+
 	/** Just a sanity check */
 	void checkKeysOnlyOk() {
 		if (!this.actual.getProjection().isEmpty())
@@ -330,7 +388,7 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 			if (!actual.getProjection().isEmpty())
 				return loader.createQueryEngine().queryProjection(this.actual.newProjectionQuery(), explain);
 			else if (shouldHybridize())
-				return loader.createQueryEngine().queryHybrid(this.actual.newKeyQuery(), chunk == null ? Integer.MAX_VALUE : chunk, explain);
+				return loader.createQueryEngine().queryHybrid(this.actual.newKeyQuery(), chunk == null ? Integer.MAX_VALUE : chunk, cacheResults, explain);
 			else
 				return loader.createQueryEngine().queryNormal(this.actual.newEntityQuery(), chunk == null ? Integer.MAX_VALUE : chunk, explain);
 		});
@@ -341,6 +399,129 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		return ResultProxy.create(List.class, new MakeListResult<>(this.chunk(Integer.MAX_VALUE).iterator()));
 	}
 
+	@Override
+	public List<Query<T>> shard(final int count) {
+		Preconditions.checkArgument(count >= 1, "count must be at least 1");
+		Preconditions.checkState(actual.getOrderBy().isEmpty(), "Sharded queries cannot have sort orders");
+		Preconditions.checkState(actual.getLimit() == null && actual.getOffset() == 0, "Sharded queries cannot have a limit or offset");
+		Preconditions.checkState(actual.getStartCursor() == null && actual.getEndCursor() == null, "Sharded queries cannot have cursors; checkpoint each shard instead");
+
+		return shardAt(splitPoints(sampleScatter(count), count));
+	}
+
+	/**
+	 * @param splitPoints must be in datastore key order
+	 * @return one query for each range of keys [lower, upper) between the split points
+	 */
+	List<Query<T>> shardAt(final List<Key<T>> splitPoints) {
+		final List<Query<T>> shards = new ArrayList<>(splitPoints.size() + 1);
+		Key<T> lower = null;
+		for (final Key<T> upper: splitPoints) {
+			shards.add(keyRange(lower, upper));
+			lower = upper;
+		}
+		shards.add(keyRange(lower, null));
+
+		return shards;
+	}
+
+	/**
+	 * Keys-only query over the same kind and filters, ordered by the reserved scatter property, which
+	 * yields an approximately uniform random sample of the keys without a scan.
+	 */
+	private List<Key<T>> sampleScatter(final int count) {
+		if (count == 1)
+			return Collections.emptyList();
+
+		final KeyQuery sampleQuery = actual
+				.orderBy(OrderBy.asc(SCATTER_RESERVED_PROPERTY))
+				.limit(count * SHARD_OVERSAMPLING)
+				.newKeyQuery();
+
+		final List<Key<T>> sample = new ArrayList<>();
+		try {
+			loader.createQueryEngine().<T>queryKeysOnly(sampleQuery, false, Optional.empty()).forEachRemaining(sample::add);
+		} catch (DatastoreException ex) {
+			// The emulator, for one, does not know about __scatter__
+			log.warn("Unable to sample " + SCATTER_RESERVED_PROPERTY + " for sharding; returning a single shard", ex);
+			return Collections.emptyList();
+		}
+
+		sample.sort(DATASTORE_KEY_ORDER);
+		return sample;
+	}
+
+	/** @return the full path of the key, including its own element */
+	private static List<PathElement> path(final Key<?> key) {
+		final com.google.cloud.datastore.Key raw = key.getRaw();
+
+		final List<PathElement> path = new ArrayList<>(raw.getAncestors());
+		path.add(raw.hasId() ? PathElement.of(raw.getKind(), raw.getId()) : PathElement.of(raw.getKind(), raw.getName()));
+		return path;
+	}
+
+	/** Kind first, then ids before names */
+	private static int comparePathElements(final PathElement here, final PathElement there) {
+		final int result = compareUtf8(here.getKind(), there.getKind());
+		if (result != 0)
+			return result;
+		else if (here.hasId())
+			return there.hasId() ? Long.compare(here.getId(), there.getId()) : -1;
+		else
+			return there.hasId() ? 1 : compareUtf8(here.getName(), there.getName());
+	}
+
+	/** The datastore compares strings as UTF-8 bytes, which is code point order rather than String.compareTo()'s char order */
+	private static int compareUtf8(final String a, final String b) {
+		int i = 0;
+		while (i < a.length() && i < b.length()) {
+			final int ca = a.codePointAt(i);
+			final int cb = b.codePointAt(i);
+			if (ca != cb)
+				return Integer.compare(ca, cb);
+
+			i += Character.charCount(ca);
+		}
+
+		return Integer.compare(a.length() - i, b.length() - i);
+	}
+
+	/**
+	 * @param sample must be sorted
+	 * @return at most count-1 distinct keys, evenly spaced through the sample
+	 */
+	static <K> List<K> splitPoints(final List<K> sample, final int count) {
+		final List<K> points = new ArrayList<>(count - 1);
+
+		for (int i = 1; i < count; i++) {
+			final K point = sample.size() < count ? null : sample.get(i * sample.size() / count);
+			if (point != null && (points.isEmpty() || !points.get(points.size() - 1).equals(point)))
+				points.add(point);
+		}
+
+		return points;
+	}
+
+	/** @return this query restricted to lower <= key < upper; either bound may be null */
+	private QueryImpl<T> keyRange(final Key<T> lower, final Key<T> upper) {
+		QueryImpl<T> q = this;
+		if (lower != null)
+			q = q.filterKey(">=", lower);
+		if (upper != null)
+			q = q.filterKey("<", upper);
+		return q;
+	}
+
+	@Override
+	public Stream<T> stream() {
+		return StreamSupport.stream(new QuerySpliterator<>(loader.ofy, fork -> withObjectify(fork).iterator(), splitSize()), false);
+	}
+
+	@Override
+	public QueryPublisher<T> publisher() {
+		return new QueryPublisherImpl<>(loader.ofy, fork -> withObjectify(fork).iterator());
+	}
+
 	@Override
 	public QueryResults<T> explain(final ExplainOptions options) {
 		return iterator(Optional.of(options));
@@ -353,7 +534,12 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	QueryResults<Key<T>> keysIterator(final Optional<ExplainOptions> explain) {
 		final QueryEngine queryEngine = loader.createQueryEngine();
 		final KeyQuery query = this.actual.newKeyQuery();
-		return queryEngine.queryKeysOnly(query, explain);
+		return queryEngine.queryKeysOnly(query, cacheResults, explain);
+	}
+
+	/** @return the number of results per split of a stream; the same as the hybrid load batches */
+	int splitSize() {
+		return chunk == null ? AsyncDatastoreReaderWriterImpl.MAX_READ_SIZE : Math.min(chunk, AsyncDatastoreReaderWriterImpl.MAX_READ_SIZE);
 	}
 
 	/**
@@ -363,6 +549,10 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		if (hybrid != null)
 			return hybrid;
 
+		// Cached results are keys, so we need to hybridize to use them, but only if they will really be cached
+		if (cacheResults && loader.createQueryEngine().cacheExpirySeconds(actual.newKeyQuery()) != null)
+			return true;
+
 		// If the class is cacheable
 		if (classRestriction != null && loader.getObjectifyImpl().getOptions().isCache() && fact().getMetadata(classRestriction).getCacheExpirySeconds() != null)
 			return true;
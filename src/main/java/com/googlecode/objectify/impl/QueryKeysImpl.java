@@ -6,6 +6,7 @@ import com.googlecode.objectify.Key;
 import com.googlecode.objectify.LoadResult;
 import com.googlecode.objectify.Result;
 import com.googlecode.objectify.cmd.QueryKeys;
+import com.googlecode.objectify.cmd.QueryPublisher;
 import com.googlecode.objectify.cmd.QueryResultIterable;
 import com.googlecode.objectify.util.IteratorFirstResult;
 import com.googlecode.objectify.util.MakeListResult;
@@ -14,6 +15,8 @@ import com.googlecode.objectify.util.ResultProxy;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of QueryKeys.
@@ -52,6 +55,16 @@ class QueryKeysImpl<T> implements QueryKeys<T>
 		return impl.keysIterator(Optional.empty());
 	}
 
+	@Override
+	public Stream<Key<T>> stream() {
+		return StreamSupport.stream(new QuerySpliterator<>(impl.loader.ofy, fork -> impl.withObjectify(fork).keysIterator(Optional.empty()), impl.splitSize()), false);
+	}
+
+	@Override
+	public QueryPublisher<Key<T>> publisher() {
+		return new QueryPublisherImpl<>(impl.loader.ofy, fork -> impl.withObjectify(fork).keysIterator(Optional.empty()));
+	}
+
 	@Override
 	public QueryResults<Key<T>> explain(final ExplainOptions options) {
 		return impl.keysIterator(Optional.of(options));
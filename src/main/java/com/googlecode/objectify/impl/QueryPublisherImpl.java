@@ -0,0 +1,194 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.QueryResults;
+import com.google.common.base.Preconditions;
+import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.cmd.QueryPublisher;
+import com.googlecode.objectify.context.ObjectifyContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>Implementation of QueryPublisher. The query runs in a fork of the Objectify which created it (same
+ * options and namespace, private fork of the session), in a context of its own which lives as long as the
+ * subscription. Iteration is serialized through a work-in-progress counter, so only one executor thread
+ * touches the fork at a time, and it only pulls from the underlying results while there is demand.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+@Slf4j
+class QueryPublisherImpl<T> implements QueryPublisher<T>
+{
+	/** */
+	private final ObjectifyImpl parent;
+
+	/** Starts the query in the fork */
+	private final Function<ObjectifyImpl, QueryResults<T>> start;
+
+	/** */
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	/** */
+	private volatile Cursor cursorAfter;
+
+	/** */
+	QueryPublisherImpl(final ObjectifyImpl parent, final Function<ObjectifyImpl, QueryResults<T>> start) {
+		Preconditions.checkState(parent.getTransaction() == null, "Query publishers cannot be used inside a transaction");
+		this.parent = parent;
+		this.start = start;
+	}
+
+	@Override
+	public Cursor getCursorAfter() {
+		return cursorAfter;
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+		Preconditions.checkNotNull(subscriber);
+
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override public void request(final long n) {}
+				@Override public void cancel() {}
+			});
+			subscriber.onError(new IllegalStateException("A QueryPublisher accepts only one subscriber"));
+			return;
+		}
+
+		subscriber.onSubscribe(new Subscription(subscriber));
+	}
+
+	/**
+	 * The drain loop. Everything touching the fork happens inside {@link #step()}, which never runs
+	 * concurrently with itself.
+	 */
+	private class Subscription implements Flow.Subscription
+	{
+		private final Flow.Subscriber<? super T> subscriber;
+		private final Executor executor = parent.factory().getParallelExecutor();
+		private final ObjectifyContext context = new ObjectifyContext();
+		private final String namespace = NamespaceManager.get();
+		private final OperationStats stats = parent.factory().getOperationStats();
+		private final Session session;
+
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile Throwable badRequest;
+
+		/** Only touched inside step() */
+		private ObjectifyImpl child;
+		private QueryResults<T> results;
+		private boolean done;
+
+		Subscription(final Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+			this.session = parent.getSession().fork();
+		}
+
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				badRequest = new IllegalArgumentException("Requested " + n + " items; must be positive (rule 3.9)");
+			} else {
+				demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0)
+				executor.execute(this::drain);
+		}
+
+		private void drain() {
+			int missed = 1;
+			do {
+				context.call(() -> {
+					step();
+					return null;
+				});
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void step() {
+			if (done)
+				return;
+
+			try {
+				if (cancelled) {
+					finish();
+					return;
+				}
+
+				if (badRequest != null) {
+					finish();
+					subscriber.onError(badRequest);
+					return;
+				}
+
+				if (child == null) {
+					NamespaceManager.set(namespace);
+					context.shareStats(parent.factory(), stats);
+					child = parent.factory().open(parent.getOptions(), parent.transactor.fork(parent.factory(), session));
+				}
+
+				while (demand.get() > 0 && !cancelled) {
+					if (results == null)
+						results = start.apply(child);
+
+					if (!results.hasNext()) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+
+					final T next = results.next();
+					cursorAfter = results.getCursorAfter();
+
+					if (demand.get() != Long.MAX_VALUE)
+						demand.decrementAndGet();
+
+					subscriber.onNext(next);
+				}
+
+				if (cancelled)
+					finish();
+			} catch (Throwable ex) {
+				if (!done) {
+					finish();
+					subscriber.onError(ex);
+				} else {
+					log.warn("Error after query publisher finished", ex);
+				}
+			}
+		}
+
+		/** Release the fork; the drain loop never calls the subscriber after this */
+		private void finish() {
+			done = true;
+
+			if (child != null) {
+				child.close();
+				child = null;
+				PendingFutures.completeAllPendingFutures();
+			}
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.context.ObjectifyContext;
+import com.googlecode.objectify.util.FutureHelper;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Spliterator over query results. Fetching is sequential and in cursor order, but {@code trySplit()}
+ * hands off whole chunks (the same size as the hybrid load batches) so that downstream operations of a
+ * parallel stream can work on one chunk while the next is being fetched.</p>
+ *
+ * <p>Until it is split, the query runs in the Objectify which created it, on the thread consuming the
+ * stream. Once a parallel stream splits, the remaining results as well as the chunks may be consumed by any
+ * ForkJoin worker while the thread running the terminal operation works on other chunks, so the context
+ * which created the query can no longer be used for them. Instead the query continues in a fork (same
+ * options and namespace, private copy of the session), fetched one chunk ahead on
+ * {@code ObjectifyFactory.getParallelExecutor()}; and chunks consumed on other threads run the downstream
+ * operations in forks of their own, so {@code ofy()} works there. Neither kind of fork is merged back into
+ * the session. Streams are not split inside transactions.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class QuerySpliterator<T> implements Spliterator<T>
+{
+	/** */
+	private static final int CHARACTERISTICS = ORDERED | NONNULL;
+
+	/** */
+	private static final Object[] EMPTY = new Object[0];
+
+	/** The only thread which may use the context of the parent */
+	private final Thread owner = Thread.currentThread();
+
+	/** */
+	private final ObjectifyContext context = ObjectifyContext.current();
+
+	/** */
+	private final ObjectifyImpl parent;
+
+	/** Starts the query in the given Objectify; not called until results are needed */
+	private final Function<ObjectifyImpl, ? extends Iterator<T>> start;
+
+	/** */
+	private final int chunkSize;
+
+	/** Until split, the results in the parent */
+	private Iterator<T> results;
+
+	/** Once split */
+	private Forks forks;
+
+	/** The chunk being consumed by tryAdvance() once split */
+	private Object[] chunk = EMPTY;
+	private int index;
+
+	/** */
+	QuerySpliterator(final ObjectifyImpl parent, final Function<ObjectifyImpl, ? extends Iterator<T>> start, final int chunkSize) {
+		this.parent = parent;
+		this.start = start;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean tryAdvance(final Consumer<? super T> action) {
+		if (forks == null) {
+			final T next = context.call(() -> {
+				final Iterator<T> it = results();
+				return it.hasNext() ? it.next() : null;
+			});
+
+			if (next == null)
+				return false;
+
+			action.accept(next);
+			return true;
+		}
+
+		if (index == chunk.length) {
+			chunk = forks.take();
+			index = 0;
+
+			if (chunk.length == 0)
+				return false;
+		}
+
+		final T next = (T)chunk[index++];
+		forks.run(() -> action.accept(next));
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEachRemaining(final Consumer<? super T> action) {
+		if (forks == null) {
+			// Sequential streams land here; no need to go through the context for each item
+			context.call(() -> {
+				results().forEachRemaining(action);
+				return null;
+			});
+			return;
+		}
+
+		Object[] items = Arrays.copyOfRange(chunk, index, chunk.length);
+		chunk = EMPTY;
+		index = 0;
+
+		while (true) {
+			final Object[] current = items;
+			if (current.length > 0) {
+				forks.run(() -> {
+					for (final Object item: current)
+						action.accept((T)item);
+				});
+			}
+
+			items = forks.take();
+			if (items.length == 0)
+				return;
+		}
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		if (forks == null) {
+			// Only the thread which owns the context may fork it, and only before it has started the query
+			if (Thread.currentThread() != owner || results != null || parent.getTransaction() != null)
+				return null;
+
+			forks = new Forks();
+		}
+
+		final Object[] next;
+		if (index < chunk.length) {
+			next = Arrays.copyOfRange(chunk, index, chunk.length);
+			chunk = EMPTY;
+			index = 0;
+		} else {
+			next = forks.take();
+		}
+
+		if (next.length == 0)
+			return null;
+
+		return new Chunk(Spliterators.spliterator(next, CHARACTERISTICS));
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	/** */
+	private Iterator<T> results() {
+		if (results == null)
+			results = start.apply(parent);
+
+		return results;
+	}
+
+	/** @return up to chunkSize results; fewer only at the end */
+	private Object[] readChunk(final Iterator<T> it) {
+		final Object[] buffer = new Object[chunkSize];
+		int count = 0;
+		while (count < chunkSize && it.hasNext())
+			buffer[count++] = it.next();
+
+		return count == chunkSize ? buffer : Arrays.copyOf(buffer, count);
+	}
+
+	/**
+	 * Where the work of a split stream runs. Created on the owner thread, which is the only time the parent's
+	 * session is read; after that the base session is never changed, so forks can copy it from any thread.
+	 */
+	private class Forks
+	{
+		/** */
+		private final Session base = parent.getSession().fork();
+		private final String namespace = NamespaceManager.get();
+		private final OperationStats stats = parent.factory().getOperationStats();
+
+		/** The fork which runs the query; only one fetch runs at a time, each on some executor thread */
+		private final ObjectifyContext fetchContext = new ObjectifyContext();
+		private ObjectifyImpl fetcher;
+		private Iterator<T> fetched;
+
+		/** The chunk being fetched */
+		private CompletableFuture<Object[]> next = fetch();
+
+		/** @return the next chunk, empty at the end */
+		Object[] take() {
+			final Object[] chunk = FutureHelper.quietGet(next);
+			next = chunk.length == chunkSize ? fetch() : CompletableFuture.completedFuture(EMPTY);
+			return chunk;
+		}
+
+		/** Run downstream work; in a fork of its own unless this is the owner thread */
+		void run(final Runnable work) {
+			if (Thread.currentThread() == owner) {
+				work.run();
+			} else {
+				ParallelRunner.runForked(parent, base.fork(), namespace, stats, () -> {
+					work.run();
+					return null;
+				});
+			}
+		}
+
+		/** */
+		private CompletableFuture<Object[]> fetch() {
+			return CompletableFuture.supplyAsync(() -> fetchContext.call(this::fetchChunk), parent.factory().getParallelExecutor());
+		}
+
+		/** Runs in the fetch context */
+		private Object[] fetchChunk() {
+			try {
+				if (fetcher == null) {
+					NamespaceManager.set(namespace);
+					fetchContext.shareStats(parent.factory(), stats);
+					fetcher = parent.factory().open(parent.getOptions(), parent.transactor.fork(parent.factory(), base.fork()));
+					fetched = start.apply(fetcher);
+				}
+
+				final Object[] chunk = readChunk(fetched);
+				if (chunk.length < chunkSize)
+					finish();
+
+				return chunk;
+			} catch (RuntimeException ex) {
+				finish();
+				throw ex;
+			}
+		}
+
+		/** */
+		private void finish() {
+			if (fetcher != null) {
+				fetcher.close();
+				fetcher = null;
+				PendingFutures.completeAllPendingFutures();
+			}
+		}
+	}
+
+	/** A chunk handed out by trySplit(); the downstream work runs wherever the chunk is consumed */
+	private class Chunk implements Spliterator<T>
+	{
+		/** */
+		private final Spliterator<T> items;
+
+		/** */
+		Chunk(final Spliterator<T> items) {
+			this.items = items;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super T> action) {
+			final boolean[] advanced = new boolean[1];
+			forks.run(() -> advanced[0] = items.tryAdvance(action));
+			return advanced[0];
+		}
+
+		@Override
+		public void forEachRemaining(final Consumer<? super T> action) {
+			forks.run(() -> items.forEachRemaining(action));
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			final Spliterator<T> half = items.trySplit();
+			return half == null ? null : new Chunk(half);
+		}
+
+		@Override
+		public long estimateSize() {
+			return items.estimateSize();
+		}
+
+		@Override
+		public int characteristics() {
+			return items.characteristics();
+		}
+	}
+}
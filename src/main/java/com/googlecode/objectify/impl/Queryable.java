@@ -6,9 +6,11 @@ import com.google.cloud.datastore.aggregation.Aggregation;
 import com.google.cloud.datastore.aggregation.AggregationBuilder;
 import com.google.cloud.datastore.models.ExplainOptions;
 import com.googlecode.objectify.LoadResult;
+import com.googlecode.objectify.cmd.QueryPublisher;
 import com.googlecode.objectify.cmd.QueryResultIterable;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 
 /**
@@ -65,6 +67,18 @@ abstract class Queryable<T> extends SimpleQueryImpl<T> {
 		return q.list();
 	}
 
+	@Override
+	public Stream<T> stream() {
+		final QueryImpl<T> q = createQuery();
+		return q.stream();
+	}
+
+	@Override
+	public QueryPublisher<T> publisher() {
+		final QueryImpl<T> q = createQuery();
+		return q.publisher();
+	}
+
 // TODO uncomment when this api lands in the google-cloud-datastore SDK
 //	@Override
 //	public ExplainResults<Entity> explain(final ExplainOptions options) {
@@ -2,11 +2,28 @@ package com.googlecode.objectify.impl;
 
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Subclass;
 
-import java.util.HashMap;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * <p>Maintains information about registered entity classes<p>
@@ -14,18 +31,57 @@ import java.util.Map;
  * <p>There logic here is convoluted by polymorphic hierarchies.  Entity classes can
  * be registered in any particular order, requiring some considerable care.</p>
  *
+ * <p>Classes can also be registered lazily, or from an index (see {@link #writeIndex(Writer)}) which names
+ * them without loading them. The metadata for a pending kind is built the first time the kind is used.</p>
+ *
  * @author Jeff Schnitzer <jeff@infohazard.org>
  */
 public class Registrar
 {
+	/** First line of an index; the version lets us change the format later */
+	private static final String INDEX_HEADER = "objectify-index 1";
+
 	/** Needed to obtain the converters */
 	protected ObjectifyFactory fact;
 
-	/** This maps kind to EntityMetadata */
-	protected Map<String, EntityMetadata<?>> byKind = new HashMap<>();
+	/** This maps kind to EntityMetadata; concurrent because indexed kinds are built on first use */
+	protected Map<String, EntityMetadata<?>> byKind = new ConcurrentHashMap<>();
+
+	/** Every @Subclass that has been registered, in order */
+	protected Set<Class<?>> subclasses = new LinkedHashSet<>();
+
+	/** Kinds registered lazily or from an index which have not been built yet */
+	protected Map<String, PendingKind> pending = new ConcurrentHashMap<>();
 
 	/** True if any @Cached entities have been registered */
-	protected boolean cacheEnabled;
+	protected volatile boolean cacheEnabled;
+
+	/** A class we know by name, which is not loaded until it is needed */
+	protected static class PendingClass {
+		final String name;
+		final ClassLoader loader;
+
+		PendingClass(final String name, final ClassLoader loader) {
+			this.name = name;
+			this.loader = loader;
+		}
+
+		Class<?> load() {
+			try {
+				return Class.forName(name, true, loader);
+			} catch (ClassNotFoundException ex) {
+				throw new IllegalStateException("Class " + name + " was registered but cannot be loaded", ex);
+			}
+		}
+	}
+
+	/** Everything we know about a kind that has not been built yet */
+	protected static class PendingKind {
+		/** Null if only subclasses have been registered so far */
+		PendingClass entity;
+		boolean cached;
+		final List<PendingClass> subclasses = new ArrayList<>();
+	}
 
 	/** @return true if any entities are cacheable */
 	public boolean isCacheEnabled()
@@ -49,7 +105,7 @@ public class Registrar
 	 *
 	 * @param clazz must be annotated with either @Entity or @Subclass
 	 */
-	public <T> void register(Class<T> clazz) {
+	public synchronized <T> void register(Class<T> clazz) {
 		// There are two possible cases
 		// 1) This might be a simple class with @Entity
 		// 2) This might be a class annotated with @Subclass
@@ -63,7 +119,15 @@ public class Registrar
 				return;
 
 			EntityMetadata<T> cmeta = new EntityMetadata<>(this.fact, clazz);
+
+			// Pending subclasses come along, before other threads can see the kind
+			final PendingKind pendingKind = this.pending.get(kind);
+			if (pendingKind != null)
+				for (final PendingClass subclass: pendingKind.subclasses)
+					register(subclass.load());
+
 			this.byKind.put(kind, cmeta);
+			this.pending.remove(kind);
 
 			if (cmeta.getCacheExpirySeconds() != null)
 				this.cacheEnabled = true;
@@ -71,17 +135,200 @@ public class Registrar
 		else if (clazz.isAnnotationPresent(Subclass.class)) {
 			// We just need to make sure that a translator was created
 			fact.getTranslators().getRoot(clazz);
+			this.subclasses.add(clazz);
 		}
 		else {
 			throw new IllegalArgumentException(clazz + " must be annotated with either @Entity or @Subclass");
 		}
 	}
 
+	/**
+	 * <p>Like {@link #register(Class)}, but for an entity class (or entity subclass) the metadata is not built
+	 * until the kind is first used. Embedded subclasses are registered immediately, because there is no way
+	 * to know when they will be needed. Safe to call while other threads are using the factory.</p>
+	 *
+	 * @param clazz must be annotated with either @Entity or @Subclass
+	 */
+	public synchronized <T> void registerLazily(final Class<T> clazz) {
+		final ClassLoader loader = clazz.getClassLoader();
+
+		if (TypeUtils.isDeclaredAnnotationPresent(clazz, Entity.class))
+			addPendingEntity(Key.getKind(clazz), new PendingClass(clazz.getName(), loader), clazz.isAnnotationPresent(Cache.class));
+		else if (clazz.isAnnotationPresent(Subclass.class) && clazz.isAnnotationPresent(Entity.class))
+			addPendingSubclass(Key.getKind(clazz), new PendingClass(clazz.getName(), loader));
+		else
+			register(clazz);
+	}
+
+	/**
+	 * <p>Register many classes, as if by {@link #register(Class)} in order. Class loading and the reflective
+	 * discovery of fields, methods, and annotations, which is most of the cost, is done for all classes
+	 * in parallel on the executor. Building the translators themselves is then done in order, because
+	 * translators of related classes (superclasses, embedded classes) are shared.</p>
+	 */
+	public void registerAll(final Collection<? extends Class<?>> classes, final Executor executor) {
+		final List<CompletableFuture<Void>> warmups = new ArrayList<>(classes.size());
+		for (final Class<?> clazz: classes)
+			warmups.add(CompletableFuture.runAsync(() -> warmUp(clazz), executor));
+
+		for (final CompletableFuture<Void> warmup: warmups) {
+			try {
+				warmup.join();
+			} catch (CompletionException ex) {
+				// Registration will run into the same problem and report it properly
+			}
+		}
+
+		synchronized (this) {
+			for (final Class<?> clazz: classes)
+				register(clazz);
+		}
+	}
+
+	/**
+	 * Touch all the reflection that registration will need, so the JVM loads, parses, and caches it.
+	 */
+	private static void warmUp(final Class<?> clazz) {
+		for (Class<?> here = clazz; here != null && here != Object.class; here = here.getSuperclass()) {
+			here.getDeclaredAnnotations();
+			here.getDeclaredConstructors();
+
+			for (final Field field: here.getDeclaredFields()) {
+				field.getDeclaredAnnotations();
+				field.getGenericType();
+			}
+
+			for (final Method method: here.getDeclaredMethods()) {
+				method.getDeclaredAnnotations();
+				method.getParameterAnnotations();
+				method.getGenericParameterTypes();
+			}
+		}
+	}
+
+	/** Caller must hold the lock */
+	private void addPendingEntity(final String kind, final PendingClass entity, final boolean cached) {
+		if (this.byKind.containsKey(kind))
+			return;
+
+		final PendingKind pendingKind = this.pending.computeIfAbsent(kind, k -> new PendingKind());
+		if (pendingKind.entity == null) {
+			pendingKind.entity = entity;
+			pendingKind.cached = cached;
+		}
+
+		// Caching must be known before the kind is built, so that the factory wraps the datastore
+		if (cached)
+			this.cacheEnabled = true;
+	}
+
+	/** Caller must hold the lock */
+	private void addPendingSubclass(final String kind, final PendingClass subclass) {
+		if (this.byKind.containsKey(kind))
+			register(subclass.load());	// Already built, so the translators must know about it now
+		else
+			this.pending.computeIfAbsent(kind, k -> new PendingKind()).subclasses.add(subclass);
+	}
+
+	/**
+	 * <p>Write an index of every registered class (and every indexed class that has not been built yet)
+	 * which {@link #registerIndex(Reader, ClassLoader)} can read back. Each line is tab-separated: the kind,
+	 * 'E' for an @Entity or 'S' for a @Subclass, 'C' if the kind is cached, and the class name. Embedded
+	 * subclasses have an empty kind.</p>
+	 */
+	public synchronized void writeIndex(final Writer writer) throws IOException {
+		final Map<String, List<String>> subclassesByKind = new LinkedHashMap<>();
+		for (final Class<?> clazz: this.subclasses)
+			subclassesByKind.computeIfAbsent(indexKind(clazz), k -> new ArrayList<>()).add(clazz.getName());
+
+		writer.write(INDEX_HEADER);
+		writer.write('\n');
+
+		for (final EntityMetadata<?> meta: this.byKind.values()) {
+			final String kind = Key.getKind(meta.getEntityClass());
+			writeIndexLine(writer, kind, "E", meta.getCacheExpirySeconds() != null, meta.getEntityClass().getName());
+
+			for (final String subclassName: subclassesByKind.getOrDefault(kind, Collections.emptyList()))
+				writeIndexLine(writer, kind, "S", false, subclassName);
+		}
+
+		for (final Map.Entry<String, PendingKind> entry: this.pending.entrySet()) {
+			final PendingKind pendingKind = entry.getValue();
+			if (pendingKind.entity != null)
+				writeIndexLine(writer, entry.getKey(), "E", pendingKind.cached, pendingKind.entity.name);
+
+			for (final PendingClass subclass: pendingKind.subclasses)
+				writeIndexLine(writer, entry.getKey(), "S", false, subclass.name);
+		}
+
+		for (final String subclassName: subclassesByKind.getOrDefault("", Collections.emptyList()))
+			writeIndexLine(writer, "", "S", false, subclassName);
+
+		writer.flush();
+	}
+
+	/**
+	 * <p>Register the classes named in an index written by {@link #writeIndex(Writer)}. Entity classes and their
+	 * subclasses are not loaded until their kind is first used. Embedded subclasses are registered immediately,
+	 * because there is no way to know when they will be needed.</p>
+	 *
+	 * @param loader loads the named classes
+	 */
+	public synchronized void registerIndex(final Reader reader, final ClassLoader loader) throws IOException {
+		final BufferedReader lines = new BufferedReader(reader);
+
+		final String header = lines.readLine();
+		if (!INDEX_HEADER.equals(header))
+			throw new IllegalArgumentException("Not an Objectify index, or an unsupported version: " + header);
+
+		final List<PendingClass> embedded = new ArrayList<>();
+
+		String line;
+		while ((line = lines.readLine()) != null) {
+			if (line.isEmpty())
+				continue;
+
+			final String[] parts = line.split("\t", -1);
+			if (parts.length != 4)
+				throw new IllegalArgumentException("Malformed Objectify index line: " + line);
+
+			final String kind = parts[0];
+			final PendingClass pendingClass = new PendingClass(parts[3], loader);
+
+			if (kind.isEmpty())
+				embedded.add(pendingClass);
+			else if ("E".equals(parts[1]))
+				addPendingEntity(kind, pendingClass, "C".equals(parts[2]));
+			else
+				addPendingSubclass(kind, pendingClass);
+		}
+
+		for (final PendingClass pendingClass: embedded)
+			register(pendingClass.load());
+	}
+
 	/**
 	 * @return the metadata for the specified kind, or null if there was nothing appropriate registered
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> EntityMetadata<T> getMetadata(String kind) {
+		EntityMetadata<T> metadata = (EntityMetadata<T>)this.byKind.get(kind);
+		if (metadata == null && this.pending.containsKey(kind))
+			metadata = buildPending(kind);
+
+		return metadata;
+	}
+
+	/**
+	 * Build a pending kind on first use; synchronized because building translators is not thread-safe.
+	 * If another thread got here first, the kind is already built.
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized <T> EntityMetadata<T> buildPending(final String kind) {
+		final PendingKind pendingKind = this.pending.get(kind);
+		if (pendingKind != null && pendingKind.entity != null)
+			register(pendingKind.entity.load());
+
 		return (EntityMetadata<T>)this.byKind.get(kind);
 	}
 
@@ -117,4 +364,21 @@ public class Registrar
 			return metadata;
 	}
 
+	/** @return the kind of an entity subclass, or empty string for an embedded subclass */
+	private static String indexKind(final Class<?> clazz) {
+		// @Entity is inherited, so this finds entity hierarchies
+		return clazz.isAnnotationPresent(Entity.class) ? Key.getKind(clazz) : "";
+	}
+
+	/** */
+	private static void writeIndexLine(final Writer writer, final String kind, final String type, final boolean cached, final String className) throws IOException {
+		writer.write(kind);
+		writer.write('\t');
+		writer.write(type);
+		writer.write('\t');
+		writer.write(cached ? "C" : "");
+		writer.write('\t');
+		writer.write(className);
+		writer.write('\n');
+	}
 }
\ No newline at end of file
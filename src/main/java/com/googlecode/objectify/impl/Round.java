@@ -124,8 +124,11 @@ class Round {
 		if (needsExecution()) {
 			log.trace("Executing round: {}", pending);
 
-			Result<Map<com.google.cloud.datastore.Key, Entity>> fetched = fetchPending();
-			translated = loadEngine.translate(fetched);
+			final ObjectifyEvents.LoadRound event = new ObjectifyEvents.LoadRound();
+			event.begin();
+
+			final Result<Map<com.google.cloud.datastore.Key, Entity>> fetched = fetchPending();
+			translated = loadEngine.translate(event.isEnabled() ? recorded(fetched, event) : fetched);
 
 			// If we're in a transaction (and beyond the first round), force all subsequent rounds to complete.
 			// This effectively means that only the first round can be asynchronous; all other rounds are
@@ -137,6 +140,27 @@ class Round {
 		}
 	}
 
+	/** Commits the event when the fetch is first materialized */
+	private Result<Map<com.google.cloud.datastore.Key, Entity>> recorded(final Result<Map<com.google.cloud.datastore.Key, Entity>> fetched, final ObjectifyEvents.LoadRound event) {
+		return new ResultCache<Map<com.google.cloud.datastore.Key, Entity>>() {
+			@Override
+			public Map<com.google.cloud.datastore.Key, Entity> nowUncached() {
+				final Map<com.google.cloud.datastore.Key, Entity> result = fetched.now();
+
+				if (event.shouldCommit()) {
+					event.kind = ObjectifyEvents.kinds(pending);
+					event.keys = pending.size();
+					event.fetched = (int)pending.stream().filter(key -> !stuffed.containsKey(key)).count();
+					event.depth = depth;
+					event.bytes = result.values().stream().mapToLong(EntitySize::of).sum();
+					event.commit();
+				}
+
+				return result;
+			}
+		};
+	}
+
 	/** Possibly pulls some values from the stuffed collection */
 	private Result<Map<com.google.cloud.datastore.Key, Entity>> fetchPending() {
 		// We don't need to fetch anything that has been stuffed
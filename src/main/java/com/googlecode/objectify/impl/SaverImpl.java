@@ -1,6 +1,7 @@
 package com.googlecode.objectify.impl;
 
 import com.google.cloud.datastore.FullEntity;
+import com.google.common.base.Preconditions;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Result;
 import com.googlecode.objectify.cmd.Saver;
@@ -54,6 +55,12 @@ public class SaverImpl implements Saver {
 		});
 	}
 
+	@Override
+	public Saver batchByEntityGroup(final int maxPerGroup) {
+		Preconditions.checkArgument(maxPerGroup >= 1, "maxPerGroup must be at least 1");
+		return new SaverImpl(ofy.options(ofy.getOptions().maxWritesPerGroup(maxPerGroup)));
+	}
+
 	@Override
 	public FullEntity<?> toEntity(final Object pojo) {
 		if (pojo instanceof FullEntity<?>) {
@@ -44,12 +44,47 @@ public class Session
 		map.putAll(other.map);
 	}
 
+	/**
+	 * @return a session for a fork which runs on another thread. It gets its own copy of every value which has
+	 * already been loaded or saved; values which are still pending belong to this session's thread, so they are
+	 * left out and the fork loads them again if it needs them.
+	 */
+	public Session fork() {
+		final Session forked = new Session();
+
+		for (final Map.Entry<Key<?>, SessionValue<?>> entry: map.entrySet())
+			if (entry.getValue().isMaterialized())
+				forked.map.put(entry.getKey(), entry.getValue().copy());
+
+		return forked;
+	}
+
+	/** @return a copy of the entries as they are now, for addChanges() */
+	public Map<Key<?>, SessionValue<?>> snapshot() {
+		return new HashMap<>(map);
+	}
+
+	/**
+	 * Add the entries of the other session which have changed since the snapshot was taken of it. Entries the
+	 * other session merely inherited are left alone, so they cannot overwrite anything newer in this one.
+	 */
+	public void addChanges(final Session other, final Map<Key<?>, SessionValue<?>> snapshot) {
+		for (final Map.Entry<Key<?>, SessionValue<?>> entry: other.map.entrySet())
+			if (entry.getValue() != snapshot.get(entry.getKey()))
+				add(entry.getKey(), entry.getValue());
+	}
+
 	/** */
 	@SuppressWarnings("unchecked")
 	public <T> SessionValue<T> get(final Key<T> key) {
 		return (SessionValue<T>)map.get(key);
 	}
 
+	/** Forget the key entirely, so the next load goes past the session */
+	public void remove(final Key<?> key) {
+		map.remove(key);
+	}
+
 	/** */
 	public boolean contains(final Key<?> key) {
 		return map.containsKey(key);
@@ -1,6 +1,8 @@
 package com.googlecode.objectify.impl;
 
 import com.googlecode.objectify.Result;
+import com.googlecode.objectify.util.ResultCache;
+import com.googlecode.objectify.util.ResultNow;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -46,4 +48,19 @@ public class SessionValue<T>
 	public boolean loadWith(LoadArrangement arrangement) {
 		return loadedWith.add(arrangement);
 	}
+
+	/** @return true if the result can be obtained without doing any work */
+	boolean isMaterialized() {
+		return result instanceof ResultNow || (result instanceof ResultCache && ((ResultCache<T>)result).isExecuted());
+	}
+
+	/**
+	 * @return an independent copy, with its own load arrangements, for use on another thread. Must be
+	 * materialized.
+	 */
+	SessionValue<T> copy() {
+		final SessionValue<T> copy = new SessionValue<>(new ResultNow<>(result.now()));
+		copy.loadedWith.addAll(loadedWith);
+		return copy;
+	}
 }
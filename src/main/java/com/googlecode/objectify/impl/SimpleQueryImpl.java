@@ -130,6 +130,16 @@ public abstract class SimpleQueryImpl<T> implements SimpleQuery<T>
 		return q;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#cacheResults(boolean)
+	 */
+	@Override
+	public QueryImpl<T> cacheResults(boolean value) {
+		QueryImpl<T> q = createQuery();
+		q.setCacheResults(value);
+		return q;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#chunkAll()
 	 */
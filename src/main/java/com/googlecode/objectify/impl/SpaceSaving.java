@@ -0,0 +1,85 @@
+package com.googlecode.objectify.impl;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Approximate top-K frequency counter using the Space-Saving algorithm (Metwally, Agrawal &amp; El Abbadi).
+ * At most {@code capacity} items are tracked.  When an untracked item arrives and the table is full, the item
+ * with the lowest count is evicted and the newcomer inherits its count plus one; the inherited portion is
+ * remembered as the error bound.  Any item whose true frequency exceeds N/capacity is guaranteed to be
+ * present, and no count is ever underestimated.</p>
+ *
+ * <p>Memory is bounded by the capacity no matter how many distinct items are offered.  Eviction is a linear
+ * scan, so keep the capacity small (tens, not thousands).</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class SpaceSaving<T>
+{
+	/** A tracked item */
+	@Value
+	public static class Count<T> {
+		T item;
+
+		/** Upper bound on the true frequency */
+		long count;
+
+		/** How much of the count might belong to evicted items; count - error is a lower bound */
+		long error;
+	}
+
+	/** */
+	private final int capacity;
+
+	/** Each value is {count, error} */
+	private final Map<T, long[]> counters = new HashMap<>();
+
+	/** */
+	public SpaceSaving(final int capacity) {
+		this.capacity = capacity;
+	}
+
+	/** Count one occurrence of the item */
+	public synchronized void offer(final T item) {
+		final long[] counter = counters.get(item);
+		if (counter != null) {
+			counter[0]++;
+			return;
+		}
+
+		if (counters.size() < capacity) {
+			counters.put(item, new long[] { 1, 0 });
+			return;
+		}
+
+		T minItem = null;
+		long minCount = Long.MAX_VALUE;
+		for (final Map.Entry<T, long[]> entry: counters.entrySet()) {
+			if (entry.getValue()[0] < minCount) {
+				minCount = entry.getValue()[0];
+				minItem = entry.getKey();
+			}
+		}
+
+		counters.remove(minItem);
+		counters.put(item, new long[] { minCount + 1, minCount });
+	}
+
+	/** @return up to n of the most frequent items, most frequent first */
+	public synchronized List<Count<T>> top(final int n) {
+		final List<Count<T>> all = new ArrayList<>(counters.size());
+		counters.forEach((item, counter) -> all.add(new Count<>(item, counter[0], counter[1])));
+
+		return all.stream()
+				.sorted(Comparator.comparingLong((Count<T> c) -> c.getCount()).reversed())
+				.limit(n)
+				.collect(Collectors.toList());
+	}
+}
@@ -77,4 +77,9 @@ public abstract class Transactor
 	/**
 	 * @param ofy */
 	abstract public AsyncDatastoreReaderWriter asyncDatastore(final ObjectifyImpl ofy);
+
+	/**
+	 * @return a transactor with the same transactional state but a different session, for use on another thread
+	 */
+	abstract Transactor fork(final ObjectifyFactory factory, final Session session);
 }
\ No newline at end of file
@@ -4,14 +4,21 @@ import com.google.cloud.datastore.DatastoreException;
 import com.google.common.base.Preconditions;
 import com.google.protobuf.ByteString;
 import com.google.rpc.Code;
+import com.googlecode.objectify.Key;
 import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.RetryBudget;
+import com.googlecode.objectify.RetryPolicy;
 import com.googlecode.objectify.TxnOptions;
 import com.googlecode.objectify.TxnType;
 import com.googlecode.objectify.Work;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * Transactor which represents the absence of a transaction.
@@ -57,27 +64,58 @@ class TransactorNo extends Transactor {
 
 		Preconditions.checkArgument(limitTries >= 1);
 
+		final RetryPolicy policy = options.retryPolicy();
+		final ContentionStats contention = parent.factory().getContentionStats();
+		final long started = System.nanoTime();
+
 		final AtomicReference<ByteString> prevTxnHandle = new AtomicReference<>();
+		final Set<Key<?>> touched = new HashSet<>();
+		int retry = 0;
+		Duration delay = Duration.ZERO;
+
 		while (true) {
 			try {
-				return transactOnce(parent, work, options, prevTxnHandle);
+				touched.clear();
+				final R result = transactOnce(parent, work, options, prevTxnHandle, touched, retry);
+				policy.budget().ifPresent(RetryBudget::recordSuccess);
+				return result;
 			} catch (DatastoreException ex) {
 
 				if (!isRetryable(ex)) {
 					throw ex;
 				}
 
-				if (--limitTries > 0) {
-					log.warn("Retrying {} failure for {}: {}", ex.getReason(), work, ex);
-					log.trace("Details of transaction failure", ex);
-					try {
-						// Do increasing backoffs with randomness
-						Thread.sleep(Math.min(10000, (long) ((0.5 * Math.random() + 0.5) * 200 * (options.limitTries() - limitTries + 2))));
-					} catch (InterruptedException ignored) {
-					}
-				} else {
+				final Set<Key<?>> groups = touched.stream().map(Key::getRoot).collect(Collectors.toSet());
+				contention.recordAbort(groups);
+
+				if (--limitTries <= 0) {
 					throw new DatastoreException(ex.getCode(), "Failed retrying datastore " +  options.limitTries() + " times ", ex.getReason(), ex);
 				}
+
+				retry++;
+				delay = policy.delay(retry, delay);
+
+				if (!policy.withinDeadline(Duration.ofNanos(System.nanoTime() - started), delay)) {
+					throw new DatastoreException(ex.getCode(), "Retry deadline exceeded after " + retry + " tries ", ex.getReason(), ex);
+				}
+
+				if (policy.budget().isPresent() && !policy.budget().get().tryAcquire()) {
+					throw new DatastoreException(ex.getCode(), "Retry budget exhausted after " + retry + " tries ", ex.getReason(), ex);
+				}
+
+				log.warn("Retrying {} failure for {} in {}ms: {}", ex.getReason(), work, delay.toMillis(), ex);
+				log.trace("Details of transaction failure", ex);
+
+				final long sleepStart = System.nanoTime();
+				try {
+					Thread.sleep(delay.toMillis());
+				} catch (InterruptedException interrupted) {
+					// Someone wants this thread back; give up rather than swallowing the interrupt
+					Thread.currentThread().interrupt();
+					throw ex;
+				} finally {
+					contention.recordRetry(groups, System.nanoTime() - sleepStart);
+				}
 			}
 		}
 	}
@@ -98,6 +136,11 @@ class TransactorNo extends Transactor {
         );
     }
 
+	@Override
+	Transactor fork(final ObjectifyFactory factory, final Session session) {
+		return new TransactorNo(factory, session);
+	}
+
 	@Override
 	public AsyncDatastoreReaderWriter asyncDatastore(final ObjectifyImpl ofy) {
 		return ofy.factory().asyncDatastore(ofy.getOptions().isCache());
@@ -105,8 +148,12 @@ class TransactorNo extends Transactor {
 
 	/**
 	 * One attempt at executing a transaction
+	 * @param touched will be filled with the keys loaded or saved by the attempt, successful or not
 	 */
-	private <R> R transactOnce(final ObjectifyImpl parent, final Work<R> work, final TxnOptions options, final AtomicReference<ByteString> prevTxnHandle) {
+	private <R> R transactOnce(final ObjectifyImpl parent, final Work<R> work, final TxnOptions options, final AtomicReference<ByteString> prevTxnHandle, final Set<Key<?>> touched, final int retry) {
+		final ObjectifyEvents.Transaction event = new ObjectifyEvents.Transaction();
+		event.begin();
+
 		final ObjectifyImpl txnOfy = parent.factory().open(
 			parent.getOptions(),
 			new TransactorYes(parent.factory(), options, parent.getOptions().isCache(), this, Optional.ofNullable(prevTxnHandle.get()))
@@ -130,8 +177,18 @@ class TransactorNo extends Transactor {
 				}
 			}
 
+			// Everything loaded or saved is a candidate for contention
+			touched.addAll(txnOfy.getSession().keys());
+
 			txnOfy.close();
 
+			if (event.shouldCommit()) {
+				event.retry = retry;
+				event.keys = touched.size();
+				event.committed = committedSuccessfully;
+				event.commit();
+			}
+
 			if (committedSuccessfully) {
 				((PrivateAsyncTransaction)txnOfy.getTransaction()).runCommitListeners();
 			}
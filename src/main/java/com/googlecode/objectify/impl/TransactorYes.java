@@ -32,6 +32,17 @@ class TransactorYes extends Transactor {
 		this.parentTransactor = parentTransactor;
 	}
 
+	/**
+	 * Shares an existing transaction. The session is not copied to the parent on commit; whoever
+	 * forked us must merge it into the original transaction's session.
+	 */
+	private TransactorYes(final ObjectifyFactory factory, final Session session, final AsyncTransaction transaction, final TransactorNo parentTransactor) {
+		super(factory, session);
+
+		this.transaction = transaction;
+		this.parentTransactor = parentTransactor;
+	}
+
 	@Override
 	public AsyncTransaction getTransaction() {
 		return this.transaction;
@@ -100,6 +111,11 @@ class TransactorYes extends Transactor {
 		parentTransactor.getSession().addAll(getSession());
 	}
 
+	@Override
+	Transactor fork(final ObjectifyFactory factory, final Session session) {
+		return new TransactorYes(factory, session, transaction, parentTransactor);
+	}
+
 	@Override
 	public AsyncDatastoreReaderWriter asyncDatastore(final ObjectifyImpl ofy) {
 		return this.transaction;
@@ -6,12 +6,16 @@ import com.googlecode.objectify.Key;
 import com.googlecode.objectify.NamespaceManager;
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.Result;
+import com.googlecode.objectify.SaveException;
 import com.googlecode.objectify.impl.translate.SaveContext;
 import com.googlecode.objectify.util.Closeable;
+import com.googlecode.objectify.util.FutureHelper;
+import com.googlecode.objectify.util.FutureNow;
 import com.googlecode.objectify.util.ResultWrapper;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -55,34 +59,61 @@ public class WriteEngine
 	public <E> Result<Map<Key<E>, E>> save(Iterable<? extends E> entities) {
 		log.trace("Saving {}", entities);
 
+		final ObjectifyEvents.Save event = new ObjectifyEvents.Save();
+		event.begin();
+
 		// A hacky way of doing this but otherwise we have to adjust the save() contracts to take a namespace
 		final Closeable unsetNamespace = ofy.getOptions().getNamespace() == null ? null : NamespaceManager.set(ofy.getOptions().getNamespace());
 		try {
 			final SaveContext ctx = new SaveContext();
+			final OperationStats stats = factory().getOperationStats();
 
 			final List<FullEntity<?>> entityList = new ArrayList<>();
+			final List<Integer> sizes = new ArrayList<>();
+			long bytes = 0;
 			for (final E obj : entities) {
 				if (obj == null)
 					throw new NullPointerException("Attempted to save a null entity");
 
 				deferrer.undefer(ofy.getOptions(), obj);
 
+				final FullEntity<?> translated;
 				if (obj instanceof FullEntity) {
-					entityList.add((FullEntity<?>)obj);
+					translated = (FullEntity<?>)obj;
 				} else {
 					final EntityMetadata<E> metadata = factory().getMetadataForEntity(obj);
-					final FullEntity<?> translated = metadata.save(obj, ctx);
-					entityList.add(translated);
+					translated = metadata.save(obj, ctx);
 				}
+
+				// Better to find out now, with a useful message, than from a failed (and maybe partial) write
+				final int size = EntitySize.of(translated);
+				if (size > EntitySize.MAX_ENTITY_BYTES)
+					throw new SaveException(obj, new IllegalArgumentException(EntitySize.describeOverflow(translated, size)));
+
+				if (stats != null)
+					stats.recordWrite(translated, size);
+
+				bytes += size;
+				entityList.add(translated);
+				sizes.add(size);
 			}
 
 			// Need to make a copy of the original list because someone might clear it while we are async
 			final List<? extends E> original = Lists.newArrayList(entities);
 
 			// The CachingDatastoreService needs its own raw transaction
-			final Future<List<com.google.cloud.datastore.Key>> raw = datastore.put(entityList);
+			final Future<List<com.google.cloud.datastore.Key>> raw = isBatchingByEntityGroup()
+					? putByEntityGroup(entityList, sizes)
+					: datastore.put(entityList, sizes);
 			final Result<List<com.google.cloud.datastore.Key>> adapted = new ResultAdapter<>(raw);
 
+			if (event.shouldCommit()) {
+				event.kind = ObjectifyEvents.kinds(Lists.transform(entityList, FullEntity::getKey));
+				event.keys = entityList.size();
+				event.bytes = bytes;
+				event.commit();
+			}
+
 			final Result<Map<Key<E>, E>> result = new ResultWrapper<List<com.google.cloud.datastore.Key>, Map<Key<E>, E>>(adapted) {
 				private static final long serialVersionUID = 1L;
 
@@ -128,15 +159,69 @@ public class WriteEngine
 		return ofy.factory();
 	}
 
+	/** Only outside of transactions; a transaction is a single commit no matter how we send it */
+	private boolean isBatchingByEntityGroup() {
+		return ofy.getOptions().getMaxWritesPerGroup() > 0 && ofy.getTransaction() == null;
+	}
+
+	/**
+	 * Put each batch in turn, then reassemble the keys in the original order.
+	 */
+	private Future<List<com.google.cloud.datastore.Key>> putByEntityGroup(final List<FullEntity<?>> entityList, final List<Integer> sizes) {
+		final List<List<Integer>> batches = EntityGroupBatcher.batch(entityList, FullEntity::getKey,
+				ofy.getOptions().getMaxWritesPerGroup(), AsyncDatastoreReaderWriterImpl.MAX_WRITE_SIZE);
+
+		final com.google.cloud.datastore.Key[] keys = new com.google.cloud.datastore.Key[entityList.size()];
+
+		for (final List<Integer> batch: batches) {
+			final List<FullEntity<?>> batchEntities = Lists.transform(batch, entityList::get);
+			final List<com.google.cloud.datastore.Key> batchKeys = FutureHelper.quietGet(datastore.put(batchEntities, Lists.transform(batch, sizes::get)));
+
+			for (int i = 0; i < batch.size(); i++)
+				keys[batch.get(i)] = batchKeys.get(i);
+		}
+
+		return new FutureNow<>(Arrays.asList(keys));
+	}
+
+	/** */
+	private Future<Void> deleteByEntityGroup(final List<com.google.cloud.datastore.Key> keyList) {
+		final List<List<Integer>> batches = EntityGroupBatcher.batch(keyList, key -> key,
+				ofy.getOptions().getMaxWritesPerGroup(), AsyncDatastoreReaderWriterImpl.MAX_WRITE_SIZE);
+
+		for (final List<Integer> batch: batches)
+			FutureHelper.quietGet(datastore.delete(Lists.transform(batch, keyList::get)));
+
+		return new FutureNow<>(null);
+	}
+
 	/**
 	 * The fundamental delete() operation.
 	 */
 	public Result<Void> delete(final Iterable<com.google.cloud.datastore.Key> keys) {
-		for (com.google.cloud.datastore.Key key: keys)
+		final ObjectifyEvents.Delete event = new ObjectifyEvents.Delete();
+		event.begin();
+
+		final OperationStats stats = factory().getOperationStats();
+
+		for (com.google.cloud.datastore.Key key: keys) {
 			deferrer.undefer(ofy.getOptions(), Key.create(key));
 
-		final Future<Void> fut = datastore.delete(keys);
+			if (stats != null)
+				stats.recordDelete(key.getKind());
+		}
+
+		final Future<Void> fut = isBatchingByEntityGroup()
+				? deleteByEntityGroup(Lists.newArrayList(keys))
+				: datastore.delete(keys);
 		final Result<Void> adapted = new ResultAdapter<>(fut);
+
+		if (event.shouldCommit()) {
+			final List<com.google.cloud.datastore.Key> keyList = Lists.newArrayList(keys);
+			event.kind = ObjectifyEvents.kinds(keyList);
+			event.keys = keyList.size();
+			event.commit();
+		}
 		final Result<Void> result = new ResultWrapper<Void, Void>(adapted) {
 			@Override
 			protected Void wrap(final Void orig) {
@@ -11,6 +11,12 @@ import com.google.cloud.datastore.ValueType;
  */
 public class BooleanTranslatorFactory extends SimpleTranslatorFactory<Boolean, Boolean> {
 
+	/** Values are immutable, so every save can share these */
+	private static final Value<Boolean> TRUE_INDEXED = BooleanValue.of(true);
+	private static final Value<Boolean> FALSE_INDEXED = BooleanValue.of(false);
+	private static final Value<Boolean> TRUE_UNINDEXED = BooleanValue.newBuilder(true).setExcludeFromIndexes(true).build();
+	private static final Value<Boolean> FALSE_UNINDEXED = BooleanValue.newBuilder(false).setExcludeFromIndexes(true).build();
+
 	public BooleanTranslatorFactory() {
 		super(Boolean.class, ValueType.BOOLEAN);
 	}
@@ -22,6 +28,14 @@ public class BooleanTranslatorFactory extends SimpleTranslatorFactory<Boolean, B
 
 	@Override
 	protected Value<Boolean> toDatastore(final Boolean value) {
-		return BooleanValue.of(value);
+		return value ? TRUE_INDEXED : FALSE_INDEXED;
+	}
+
+	@Override
+	protected Value<Boolean> toDatastore(final Boolean value, final boolean index) {
+		if (index)
+			return value ? TRUE_INDEXED : FALSE_INDEXED;
+		else
+			return value ? TRUE_UNINDEXED : FALSE_UNINDEXED;
 	}
 }
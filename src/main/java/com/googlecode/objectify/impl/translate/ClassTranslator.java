@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * <p>Some common code for Translators which know how to convert a POJO type into a PropertiesContainer.
@@ -61,11 +60,20 @@ public class ClassTranslator<P> extends NullSafeTranslator<P, FullEntity<?>>
 	 */
 	private final List<StringValue> indexedDiscriminators = new ArrayList<>();
 
-	/** Keyed by discriminator value, including alsoload discriminators */
-	private Map<String, ClassTranslator<? extends P>> byDiscriminator = new HashMap<>();
+	/** What we save in the discriminator property; values are immutable so all saves share it. Null if not a @Subclass. */
+	private final StringValue discriminatorValue;
 
-	/** Keyed by Class, includes the base class */
-	private Map<Class<? extends P>, ClassTranslator<? extends P>> byClass = new HashMap<>();
+	/** What we save in the discriminator index property, or null if there are no indexed discriminators */
+	private final ListValue indexedDiscriminatorsValue;
+
+	/**
+	 * Keyed by discriminator value, including alsoload discriminators and ourself (null key for the base class).
+	 * Copy-on-write, because subclasses can be registered while other threads load and save.
+	 */
+	private volatile Map<String, ClassTranslator<? extends P>> byDiscriminator = new HashMap<>();
+
+	/** Keyed by Class, includes the base class. Copy-on-write, like byDiscriminator. */
+	private volatile Map<Class<? extends P>, ClassTranslator<? extends P>> byClass = new HashMap<>();
 
 	/** */
 	public ClassTranslator(final Class<P> declaredClass, final CreateContext ctx, final Path path) {
@@ -79,9 +87,15 @@ public class ClassTranslator<P> extends NullSafeTranslator<P, FullEntity<?>>
 		if (sub != null) {
 			discriminator = (sub.name().length() > 0) ? sub.name() : declaredClass.getSimpleName();
 			addIndexedDiscriminators(declaredClass);
+			discriminatorValue = StringValue.newBuilder(discriminator).setExcludeFromIndexes(true).build();
+			indexedDiscriminatorsValue = indexedDiscriminators.isEmpty() ? null : ListValue.of(indexedDiscriminators);
 		} else {
 			discriminator = null;
+			discriminatorValue = null;
+			indexedDiscriminatorsValue = null;
 		}
+
+		byDiscriminator.put(discriminator, this);
 	}
 
 	/* */
@@ -89,31 +103,28 @@ public class ClassTranslator<P> extends NullSafeTranslator<P, FullEntity<?>>
 	public P loadSafe(final Value<FullEntity<?>> container, final LoadContext ctx, final Path path) throws SkipException {
 		Preconditions.checkArgument(container.get() instanceof FullEntity, "Expected type %s at path '%s' but instead found %s", ValueType.ENTITY, path, container.getType());
 
-		// check if we need to redirect to a different translator
-		final String containerDiscriminator = container.get().contains(DISCRIMINATOR_PROPERTY) ? container.get().getString(DISCRIMINATOR_PROPERTY) : null;	// wow no Optional or nullable get
-		if (!Objects.equals(discriminator, containerDiscriminator)) {
-			final ClassTranslator<? extends P> translator = byDiscriminator.get(containerDiscriminator);
-			if (translator == null) {
-				throw new IllegalStateException("Datastore object has discriminator value '" + containerDiscriminator + "' but no relevant @Subclass is registered");
-			} else {
-				// This fixes alsoLoad names in discriminators by changing the discriminator to what the
-				// translator expects for loading that subclass. Otherwise we'll get the error above since the
-				// translator discriminator and the container discriminator won't match.
-				final StringValue discriminatorValue = StringValue.newBuilder(translator.getDiscriminator()).setExcludeFromIndexes(true).build();
-				final FullEntity<?> updatedEntity = FullEntity.newBuilder(container.get()).set(DISCRIMINATOR_PROPERTY, discriminatorValue).build();
-				return translator.load(EntityValue.of(updatedEntity), ctx, path);
-			}
-		} else {
-			// This is a normal load
-			if (log.isTraceEnabled())
-				log.trace(LogUtils.msg(path, "Instantiating a " + declaredClass.getName()));
+		// One lookup resolves the translator, including alsoLoad discriminators; no copy of the entity is needed
+		// because the target translator populates directly without checking the discriminator again.
+		final Value<?> discriminatorValue = container.get().getProperties().get(DISCRIMINATOR_PROPERTY);
+		final String containerDiscriminator = discriminatorValue == null ? null : (String)discriminatorValue.get();
+
+		final ClassTranslator<? extends P> translator = byDiscriminator.get(containerDiscriminator);
+		if (translator == null)
+			throw new IllegalStateException("Datastore object has discriminator value '" + containerDiscriminator + "' but no relevant @Subclass is registered");
 
-			final P into = forge.construct(declaredClass);
+		return translator.construct(container.get(), ctx, path);
+	}
 
-			populator.load(container.get(), ctx, path, into);
+	/** Instantiate and populate our declared class, without regard to discriminators */
+	private P construct(final FullEntity<?> container, final LoadContext ctx, final Path path) {
+		if (log.isTraceEnabled())
+			log.trace(LogUtils.msg(path, "Instantiating a " + declaredClass.getName()));
 
-			return into;
-		}
+		final P into = forge.construct(declaredClass);
+
+		populator.load(container, ctx, path, into);
+
+		return into;
 	}
 
 	/* */
@@ -134,11 +145,11 @@ public class ClassTranslator<P> extends NullSafeTranslator<P, FullEntity<?>>
 
 			populator.save(pojo, index, ctx, path, into);
 
-			if (discriminator != null) {
-				into.set(DISCRIMINATOR_PROPERTY, StringValue.newBuilder(discriminator).setExcludeFromIndexes(true).build());
+			if (discriminatorValue != null) {
+				into.set(DISCRIMINATOR_PROPERTY, discriminatorValue);
 
-				if (!indexedDiscriminators.isEmpty())
-					into.set(DISCRIMINATOR_INDEX_PROPERTY, ListValue.of(indexedDiscriminators));
+				if (indexedDiscriminatorsValue != null)
+					into.set(DISCRIMINATOR_INDEX_PROPERTY, indexedDiscriminatorsValue);
 			}
 
 			// The question of whether to index this is weird. In order for subthings to be indexed, the entity needs
@@ -169,14 +180,20 @@ public class ClassTranslator<P> extends NullSafeTranslator<P, FullEntity<?>>
 	 * Register a subclass translator with this class translator. That way if we get called upon
 	 * to translate an instance of the subclass, we will forward to the correct translator.
 	 */
-	public void registerSubclass(ClassTranslator<? extends P> translator) {
-		byDiscriminator.put(translator.getDiscriminator(), translator);
+	public synchronized void registerSubclass(ClassTranslator<? extends P> translator) {
+		final Map<String, ClassTranslator<? extends P>> discriminators = new HashMap<>(byDiscriminator);
+		discriminators.put(translator.getDiscriminator(), translator);
 
 		Subclass sub = translator.getDeclaredClass().getAnnotation(Subclass.class);
 		for (String alsoLoad: sub.alsoLoad())
-			byDiscriminator.put(alsoLoad, translator);
+			discriminators.put(alsoLoad, translator);
+
+		final Map<Class<? extends P>, ClassTranslator<? extends P>> classes = new HashMap<>(byClass);
+		classes.put(translator.getDeclaredClass(), translator);
 
-		byClass.put(translator.getDeclaredClass(), translator);
+		// Publish the finished maps; readers never see one half-built
+		byDiscriminator = discriminators;
+		byClass = classes;
 	}
 
 	/** Only works on @Entity classes */
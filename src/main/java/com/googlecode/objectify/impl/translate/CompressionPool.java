@@ -0,0 +1,57 @@
+package com.googlecode.objectify.impl.translate;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Deflaters and Inflaters hold native memory and are expensive to create and to finalize. Serialized
+ * fields borrow them from here instead. The pools are bounded; extras are ended immediately.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class CompressionPool
+{
+	/** Per compression level, and for inflaters */
+	private static final int MAX_POOLED = 32;
+
+	/** Keyed by compression level */
+	private static final Map<Integer, BlockingQueue<Deflater>> deflaters = new ConcurrentHashMap<>();
+
+	/** */
+	private static final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(MAX_POOLED);
+
+	/** @return a deflater ready for use; give it back with release() */
+	static Deflater deflater(final int level) {
+		final Deflater deflater = deflaters(level).poll();
+		return deflater != null ? deflater : new Deflater(level);
+	}
+
+	/** */
+	static void release(final int level, final Deflater deflater) {
+		deflater.reset();
+		if (!deflaters(level).offer(deflater))
+			deflater.end();
+	}
+
+	/** @return an inflater ready for use; give it back with release() */
+	static Inflater inflater() {
+		final Inflater inflater = inflaters.poll();
+		return inflater != null ? inflater : new Inflater();
+	}
+
+	/** */
+	static void release(final Inflater inflater) {
+		inflater.reset();
+		if (!inflaters.offer(inflater))
+			inflater.end();
+	}
+
+	/** */
+	private static BlockingQueue<Deflater> deflaters(final int level) {
+		return deflaters.computeIfAbsent(level, l -> new ArrayBlockingQueue<>(MAX_POOLED));
+	}
+}
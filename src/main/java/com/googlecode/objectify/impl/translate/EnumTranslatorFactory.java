@@ -4,6 +4,7 @@ import com.google.cloud.datastore.StringValue;
 import com.google.cloud.datastore.Value;
 import com.google.cloud.datastore.ValueType;
 import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.util.Values;
 
 /**
  * Knows how to convert Enums to the datastore String
@@ -20,6 +21,19 @@ public class EnumTranslatorFactory<E extends Enum<E>> extends ValueTranslatorFac
 
 	@Override
 	protected ValueTranslator<Enum<E>, String> createValueTranslator(final TypeKey<Enum<E>> tk, final CreateContext ctx, final Path path) {
+		// Values are immutable, so every save can share these; indexed by ordinal. The declared type might
+		// be Enum itself, in which case we don't know the constants and make values as we go.
+		final Class<?> enumClass = tk.getTypeAsClass();
+		final Object[] constants = enumClass.isEnum() ? enumClass.getEnumConstants() : new Object[0];
+
+		final StringValue[] indexedValues = new StringValue[constants.length];
+		final StringValue[] unindexedValues = new StringValue[constants.length];
+		for (int i = 0; i < constants.length; i++) {
+			final String name = ((Enum<?>)constants[i]).name();
+			indexedValues[i] = StringValue.of(name);
+			unindexedValues[i] = StringValue.newBuilder(name).setExcludeFromIndexes(true).build();
+		}
+
 		return new ValueTranslator<Enum<E>, String>(ValueType.STRING) {
 
 			@Override
@@ -30,7 +44,15 @@ public class EnumTranslatorFactory<E extends Enum<E>> extends ValueTranslatorFac
 
 			@Override
 			protected Value<String> saveValue(final Enum<E> value, final SaveContext ctx, final Path path) throws SkipException {
-				return StringValue.of(value.name());
+				return saveValue(value, true, ctx, path);
+			}
+
+			@Override
+			protected Value<String> saveValue(final Enum<E> value, final boolean index, final SaveContext ctx, final Path path) throws SkipException {
+				if (value.getDeclaringClass() != enumClass)
+					return Values.index(StringValue.of(value.name()), index);
+
+				return index ? indexedValues[value.ordinal()] : unindexedValues[value.ordinal()];
 			}
 		};
 	}
@@ -0,0 +1,347 @@
+package com.googlecode.objectify.impl.translate;
+
+import com.google.cloud.datastore.Blob;
+import com.google.cloud.datastore.BlobValue;
+import com.google.cloud.datastore.Value;
+import com.google.cloud.datastore.ValueType;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Packed;
+import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.repackaged.gentyref.GenericTypeReflector;
+import com.googlecode.objectify.util.GenericUtils;
+import com.googlecode.objectify.util.Values;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * <p>Translator for {@code @Packed} arrays and collections of numeric primitives. The blob is a kind byte
+ * (the JVM type descriptor: J, I, S, D, or F), an encoding byte, and then the values. Fixed encoding is
+ * just the values in little-endian order; delta encoding is a varint count followed by the zigzag varint
+ * difference of each value from the one before.</p>
+ *
+ * <p>Values stored as a list by the normal collection and array translators can still be loaded, so
+ * adding {@code @Packed} to an existing field does not require a migration.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class PackedTranslatorFactory implements TranslatorFactory<Object, Blob>
+{
+	/** */
+	private static final byte ENCODING_FIXED = 0;
+
+	/** */
+	private static final byte ENCODING_DELTA = 1;
+
+	/** Size of the kind and encoding bytes */
+	private static final int HEADER_SIZE = 2;
+
+	/** The element types we can pack */
+	enum Kind {
+		LONG('J', Long.BYTES, long.class, Long.class),
+		INT('I', Integer.BYTES, int.class, Integer.class),
+		SHORT('S', Short.BYTES, short.class, Short.class),
+		DOUBLE('D', Double.BYTES, double.class, Double.class),
+		FLOAT('F', Float.BYTES, float.class, Float.class);
+
+		final byte code;
+		final int width;
+		final Class<?> primitive;
+		final Class<?> boxed;
+
+		Kind(final char code, final int width, final Class<?> primitive, final Class<?> boxed) {
+			this.code = (byte)code;
+			this.width = width;
+			this.primitive = primitive;
+			this.boxed = boxed;
+		}
+
+		boolean isIntegral() {
+			return this != DOUBLE && this != FLOAT;
+		}
+
+		/** @return null if the class is not packable */
+		static Kind of(final Class<?> clazz) {
+			for (final Kind kind: values())
+				if (kind.primitive == clazz || kind.boxed == clazz)
+					return kind;
+
+			return null;
+		}
+
+		/** @return null if the code is unknown */
+		static Kind of(final byte code) {
+			for (final Kind kind: values())
+				if (kind.code == code)
+					return kind;
+
+			return null;
+		}
+	}
+
+	@Override
+	public Translator<Object, Blob> create(final TypeKey<Object> tk, final CreateContext ctx, final Path path) {
+		final Packed packed = tk.getAnnotation(Packed.class);
+
+		if (packed == null)
+			return null;
+
+		final Class<?> type = tk.getTypeAsClass();
+		final boolean isArray = type.isArray();
+
+		final Kind kind;
+		if (isArray && type.getComponentType().isPrimitive())
+			kind = Kind.of(type.getComponentType());
+		else if (Collection.class.isAssignableFrom(type))
+			kind = Kind.of(GenericTypeReflector.erase(GenericUtils.getCollectionComponentType(tk.getType())));
+		else
+			kind = null;
+
+		if (kind == null)
+			path.throwIllegalState("@Packed requires a primitive array or a collection of long, int, short, double, or float; found " + tk.getType());
+
+		final ObjectifyFactory fact = ctx.getFactory();
+
+		return new NullSafeTranslator<Object, Blob>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			protected Object loadSafe(final Value<Blob> node, final LoadContext ctx, final Path path) throws SkipException {
+				final Object primitives;
+				if (node.getType() == ValueType.BLOB)
+					primitives = decode(kind, node.get().toByteArray(), path);
+				else if (node.getType() == ValueType.LIST)
+					primitives = fromList(kind, (List<? extends Value<?>>)(Object)node.get(), path);
+				else
+					return path.throwIllegalState("Expected a packed BLOB or a LIST, got " + node.getType() + ": " + node);
+
+				if (isArray)
+					return primitives;
+
+				final int length = Array.getLength(primitives);
+				final Collection<Object> collection = (Collection<Object>)fact.constructCollection((Class<? extends Collection<?>>)type, length);
+				for (int i = 0; i < length; i++)
+					collection.add(Array.get(primitives, i));
+
+				return collection;
+			}
+
+			@Override
+			protected Value<Blob> saveSafe(final Object pojo, final boolean index, final SaveContext ctx, final Path path) throws SkipException {
+				final Object primitives = isArray ? pojo : toPrimitives(kind, (Collection<?>)pojo, path);
+				final byte[] bytes = encode(kind, primitives, packed.delta() && kind.isIntegral());
+
+				// Never indexed; packed blobs are meaningless to queries
+				return Values.index(BlobValue.of(Blob.copyFrom(bytes)), false);
+			}
+		};
+	}
+
+	/** @return a primitive array of the kind */
+	private static Object toPrimitives(final Kind kind, final Collection<?> collection, final Path path) {
+		final Object primitives = Array.newInstance(kind.primitive, collection.size());
+
+		int i = 0;
+		for (final Object element: collection) {
+			if (element == null)
+				path.throwIllegalState("@Packed collections cannot contain null");
+
+			Array.set(primitives, i++, element);
+		}
+
+		return primitives;
+	}
+
+	/** Loads values that were stored unpacked, as a list of LongValue or DoubleValue */
+	private static Object fromList(final Kind kind, final List<? extends Value<?>> list, final Path path) {
+		final Object primitives = Array.newInstance(kind.primitive, list.size());
+
+		for (int i = 0; i < list.size(); i++) {
+			final Object value = list.get(i).get();
+			if (!(value instanceof Number))
+				path.throwIllegalState("Cannot load " + list.get(i) + " into a @Packed " + kind.primitive + " field");
+
+			setNumber(kind, primitives, i, (Number)value);
+		}
+
+		return primitives;
+	}
+
+	/** */
+	private static void setNumber(final Kind kind, final Object primitives, final int index, final Number value) {
+		switch (kind) {
+			case LONG: ((long[])primitives)[index] = value.longValue(); break;
+			case INT: ((int[])primitives)[index] = value.intValue(); break;
+			case SHORT: ((short[])primitives)[index] = value.shortValue(); break;
+			case DOUBLE: ((double[])primitives)[index] = value.doubleValue(); break;
+			case FLOAT: ((float[])primitives)[index] = value.floatValue(); break;
+		}
+	}
+
+	/** Integral kinds only; avoids boxing */
+	private static long longAt(final Kind kind, final Object primitives, final int index) {
+		switch (kind) {
+			case LONG: return ((long[])primitives)[index];
+			case INT: return ((int[])primitives)[index];
+			case SHORT: return ((short[])primitives)[index];
+			default: throw new IllegalArgumentException("Not integral: " + kind);
+		}
+	}
+
+	/** Integral kinds only; avoids boxing */
+	private static void setLong(final Kind kind, final Object primitives, final int index, final long value) {
+		switch (kind) {
+			case LONG: ((long[])primitives)[index] = value; break;
+			case INT: ((int[])primitives)[index] = (int)value; break;
+			case SHORT: ((short[])primitives)[index] = (short)value; break;
+			default: throw new IllegalArgumentException("Not integral: " + kind);
+		}
+	}
+
+	/** @param primitives must be a primitive array of the kind */
+	static byte[] encode(final Kind kind, final Object primitives, final boolean delta) {
+		final int length = Array.getLength(primitives);
+
+		if (delta) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_SIZE + length * 2);
+			out.write(kind.code);
+			out.write(ENCODING_DELTA);
+			writeVarLong(length, out);
+
+			long previous = 0;
+			for (int i = 0; i < length; i++) {
+				final long value = longAt(kind, primitives, i);
+				writeVarLong(zigzag(value - previous), out);
+				previous = value;
+			}
+
+			return out.toByteArray();
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length * kind.width).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(kind.code);
+		buffer.put(ENCODING_FIXED);
+
+		switch (kind) {
+			case LONG: buffer.asLongBuffer().put((long[])primitives); break;
+			case INT: buffer.asIntBuffer().put((int[])primitives); break;
+			case SHORT: buffer.asShortBuffer().put((short[])primitives); break;
+			case DOUBLE: buffer.asDoubleBuffer().put((double[])primitives); break;
+			case FLOAT: buffer.asFloatBuffer().put((float[])primitives); break;
+		}
+
+		return buffer.array();
+	}
+
+	/** @return a primitive array of the requested kind, converting if the blob holds a different kind */
+	static Object decode(final Kind kind, final byte[] bytes, final Path path) {
+		if (bytes.length < HEADER_SIZE)
+			path.throwIllegalState("Packed blob is too short");
+
+		final Kind stored = Kind.of(bytes[0]);
+		if (stored == null)
+			path.throwIllegalState("Unknown packed kind " + bytes[0]);
+
+		final Object primitives;
+		if (bytes[1] == ENCODING_DELTA)
+			primitives = decodeDelta(stored, bytes, path);
+		else if (bytes[1] == ENCODING_FIXED)
+			primitives = decodeFixed(stored, bytes, path);
+		else
+			return path.throwIllegalState("Unknown packed encoding " + bytes[1]);
+
+		if (stored == kind)
+			return primitives;
+
+		// The field type changed since this was saved
+		if (!stored.isIntegral() && kind.isIntegral())
+			path.throwIllegalState("Cannot load packed " + stored.primitive + " values into " + kind.primitive);
+
+		final int length = Array.getLength(primitives);
+		final Object converted = Array.newInstance(kind.primitive, length);
+		for (int i = 0; i < length; i++)
+			setNumber(kind, converted, i, (Number)Array.get(primitives, i));
+
+		return converted;
+	}
+
+	/** */
+	private static Object decodeFixed(final Kind stored, final byte[] bytes, final Path path) {
+		final int size = bytes.length - HEADER_SIZE;
+		if (size % stored.width != 0)
+			path.throwIllegalState("Packed blob has a partial value");
+
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes, HEADER_SIZE, size).slice().order(ByteOrder.LITTLE_ENDIAN);
+		final int length = size / stored.width;
+
+		switch (stored) {
+			case LONG: { final long[] array = new long[length]; buffer.asLongBuffer().get(array); return array; }
+			case INT: { final int[] array = new int[length]; buffer.asIntBuffer().get(array); return array; }
+			case SHORT: { final short[] array = new short[length]; buffer.asShortBuffer().get(array); return array; }
+			case DOUBLE: { final double[] array = new double[length]; buffer.asDoubleBuffer().get(array); return array; }
+			default: { final float[] array = new float[length]; buffer.asFloatBuffer().get(array); return array; }
+		}
+	}
+
+	/** */
+	private static Object decodeDelta(final Kind stored, final byte[] bytes, final Path path) {
+		final int[] position = { HEADER_SIZE };
+		final long length = readVarLong(bytes, position, path);
+
+		// Every value takes at least one byte, so a corrupt count can't make us allocate more than the blob
+		if (length < 0 || length > bytes.length - position[0])
+			path.throwIllegalState("Packed blob claims " + length + " values but has only " + (bytes.length - position[0]) + " bytes left");
+
+		final Object primitives = Array.newInstance(stored.primitive, (int)length);
+
+		long previous = 0;
+		for (int i = 0; i < length; i++) {
+			previous += unzigzag(readVarLong(bytes, position, path));
+			setLong(stored, primitives, i, previous);
+		}
+
+		if (position[0] != bytes.length)
+			path.throwIllegalState("Packed blob has " + (bytes.length - position[0]) + " bytes after the last value");
+
+		return primitives;
+	}
+
+	/** */
+	private static long zigzag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/** */
+	private static long unzigzag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/** Seven bits at a time, low bits first */
+	private static void writeVarLong(long value, final ByteArrayOutputStream out) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int)value);
+	}
+
+	/** @param position is a one-element array holding the read position, which is advanced */
+	private static long readVarLong(final byte[] bytes, final int[] position, final Path path) {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			if (shift >= 64)
+				path.throwIllegalState("Malformed varint in packed blob");
+			if (position[0] >= bytes.length)
+				path.throwIllegalState("Packed blob is truncated");
+
+			final byte b = bytes[position[0]++];
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+	}
+}
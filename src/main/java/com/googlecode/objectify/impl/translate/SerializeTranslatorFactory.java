@@ -6,28 +6,47 @@ import com.google.cloud.datastore.Value;
 import com.google.cloud.datastore.ValueType;
 import com.googlecode.objectify.annotation.Serialize;
 import com.googlecode.objectify.impl.Path;
-import lombok.extern.slf4j.Slf4j;
+import com.googlecode.objectify.serializer.JavaSerializer;
+import com.googlecode.objectify.serializer.Serializer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
+import java.io.StreamCorruptedException;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 
 /**
  * <p>Loader which can load any serialized thing from a Blob.</p>
  *
+ * <p>Fields using the {@link JavaSerializer} are written in the original headerless format, which older
+ * versions of Objectify can read; it is recognized by the first byte of the java serialization stream
+ * magic (or of the zlib header, if compressed). Other serializers' blobs start with a format byte which
+ * says whether the rest is compressed, so there is no need to guess.</p>
+ *
  * @author Jeff Schnitzer <jeff@infohazard.org>
  */
-@Slf4j
 public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blob>
 {
+	/** Format byte: the serializer's output follows */
+	static final byte FORMAT_PLAIN = 0x01;
+
+	/** Format byte: the serializer's output follows, deflated */
+	static final byte FORMAT_DEFLATED = 0x02;
+
+	/** First byte of a headerless, uncompressed java serialization stream (STREAM_MAGIC is 0xACED) */
+	private static final byte LEGACY_PLAIN = (byte)0xAC;
+
+	/** First byte of a headerless zlib stream with the default window size, as written by Deflater */
+	private static final byte LEGACY_DEFLATED = (byte)0x78;
+
+	/** For headerless blobs */
+	private static final Serializer LEGACY_SERIALIZER = new JavaSerializer();
+
 	@Override
 	public Translator<Object, Blob> create(final TypeKey<Object> tk, final CreateContext ctx, final Path path) {
 		final Serialize serializeAnno = tk.getAnnotationAnywhere(Serialize.class);
@@ -36,34 +55,34 @@ public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blo
 		if (serializeAnno == null)
 			return null;
 
+		final Serializer serializer = ctx.getFactory().construct(serializeAnno.serializer());
+
+		// Headerless java serialization identifies itself, and keeps the data readable by older versions
+		final boolean framed = serializer.getClass() != JavaSerializer.class;
+
 		return new ValueTranslator<Object, Blob>(ValueType.BLOB) {
 			@Override
-
 			protected Object loadValue(final Value<Blob> value, final LoadContext ctx, final Path path) throws SkipException {
-				Exception initialException = null;
-				// Need to be careful here because we don't really know if the data was serialized or not.  Start
-				// with whatever the annotation says, and if that doesn't work, try the other option.
 				try {
-					final ByteArrayInputStream bais = new ByteArrayInputStream(value.get().toByteArray());
-
-					// Start with the annotation's zip setting
-					final boolean unzip = serializeAnno.zip();
-
-					try {
-						return readObject(bais, unzip);
-					} catch (IOException ex) {	// will be one of ZipException or StreamCorruptedException
-
-						initialException = ex;
-						if (log.isInfoEnabled())
-							log.info("Error trying to deserialize object using unzip=" + unzip + ", retrying with " + !unzip, ex);
-
-						return readObject(bais, !unzip);	// this will pass the exception up
+					final byte[] bytes = value.get().toByteArray();
+					if (bytes.length == 0)
+						throw new StreamCorruptedException("Empty blob");
+
+					final byte format = bytes[0];
+					switch (format) {
+						case FORMAT_PLAIN:
+							return read(serializer, bytes, 1, false);
+						case FORMAT_DEFLATED:
+							return read(serializer, bytes, 1, true);
+						case LEGACY_PLAIN:
+							return read(LEGACY_SERIALIZER, bytes, 0, false);
+						case LEGACY_DEFLATED:
+							return read(LEGACY_SERIALIZER, bytes, 0, true);
+						default:
+							throw new StreamCorruptedException("Unknown serialization format " + format);
 					}
 				} catch (Exception ex) {
-					if (initialException == null) {
-						initialException = ex;
-					}
-					path.throwIllegalState("Unable to deserialize " + value, initialException);
+					path.throwIllegalState("Unable to deserialize " + value, ex);
 					return null;	// never gets here
 				}
 			}
@@ -72,17 +91,26 @@ public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blo
 			protected Value<Blob> saveValue(final Object value, final SaveContext ctx, final Path path) throws SkipException {
 				try {
 					final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-					OutputStream out = baos;
 
 					if (serializeAnno.zip()) {
-						final Deflater deflater = new Deflater(serializeAnno.compressionLevel());
-						out = new DeflaterOutputStream(out, deflater);
+						if (framed)
+							baos.write(FORMAT_DEFLATED);
+
+						final Deflater deflater = CompressionPool.deflater(serializeAnno.compressionLevel());
+						try {
+							final DeflaterOutputStream out = new DeflaterOutputStream(baos, deflater);
+							serializer.write(value, out);
+							out.finish();
+						} finally {
+							CompressionPool.release(serializeAnno.compressionLevel(), deflater);
+						}
+					} else {
+						if (framed)
+							baos.write(FORMAT_PLAIN);
+
+						serializer.write(value, baos);
 					}
 
-					final ObjectOutputStream oos = new ObjectOutputStream(out);
-					oos.writeObject(value);
-					oos.close();
-
 					return BlobValue.of(Blob.copyFrom(baos.toByteArray()));
 
 				} catch (IOException ex) {
@@ -90,19 +118,21 @@ public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blo
 					return null;	// never gets here
 				}
 			}
+		};
+	}
 
-			/** Try reading an object from the stream */
-			private Object readObject(final ByteArrayInputStream bais, final boolean unzip) throws IOException, ClassNotFoundException {
-				bais.reset();
-				InputStream in = bais;
+	/** Read an object from the bytes, starting at offset */
+	private static Object read(final Serializer serializer, final byte[] bytes, final int offset, final boolean inflate) throws IOException, ClassNotFoundException {
+		final InputStream in = new ByteArrayInputStream(bytes, offset, bytes.length - offset);
 
-				if (unzip)
-					in = new InflaterInputStream(in);
+		if (!inflate)
+			return serializer.read(in);
 
-				try (final ObjectInputStream ois = new ObjectInputStream(in)) {
-					return ois.readObject();
-				}
-			}
-		};
+		final Inflater inflater = CompressionPool.inflater();
+		try {
+			return serializer.read(new InflaterInputStream(in, inflater));
+		} finally {
+			CompressionPool.release(inflater);
+		}
 	}
 }
@@ -3,6 +3,7 @@ package com.googlecode.objectify.impl.translate;
 import com.google.cloud.datastore.Value;
 import com.google.cloud.datastore.ValueType;
 import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.util.Values;
 
 /**
  * Simplest base class for most value translations. Easy to subclass.
@@ -21,6 +22,11 @@ abstract public class SimpleTranslatorFactory<P, D> extends ValueTranslatorFacto
 
 	abstract protected P toPojo(final Value<D> value);
 	abstract protected Value<D> toDatastore(final P value);
+
+	/** Override to return cached values which already have the index flag set; see ValueTranslator */
+	protected Value<D> toDatastore(final P value, final boolean index) {
+		return Values.index(toDatastore(value), index);
+	}
 	
 	@Override
 	final protected ValueTranslator<P, D> createValueTranslator(final TypeKey<P> tk, final CreateContext ctx, final Path path) {
@@ -34,6 +40,11 @@ abstract public class SimpleTranslatorFactory<P, D> extends ValueTranslatorFacto
 			protected Value<D> saveValue(final P value, final SaveContext ctx, final Path path) throws SkipException {
 				return toDatastore(value);
 			}
+
+			@Override
+			protected Value<D> saveValue(final P value, final boolean index, final SaveContext ctx, final Path path) throws SkipException {
+				return toDatastore(value, index);
+			}
 		};
 	}
 }
\ No newline at end of file
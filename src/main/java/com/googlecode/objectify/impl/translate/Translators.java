@@ -58,6 +58,7 @@ public class Translators
 		// Annotation based translators go first
 		this.translatorFactories.add(new ContainerTranslatorFactory());
 		this.translatorFactories.add(new SerializeTranslatorFactory());	// Serialize has priority over everything
+		this.translatorFactories.add(new PackedTranslatorFactory());	// Before arrays and collections, which it replaces
 		this.translatorFactories.add(new MapifyTranslatorFactory());
 
 		// Magic inflection point at which we want to prioritize added normal translators
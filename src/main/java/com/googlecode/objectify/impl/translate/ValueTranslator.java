@@ -62,7 +62,7 @@ abstract public class ValueTranslator<P, D> extends NullSafeTranslator<P, D>
 
 	@Override
 	final protected Value<D> saveSafe(final P pojo, final boolean index, final SaveContext ctx, final Path path) throws SkipException {
-		return Values.index(saveValue(pojo, ctx, path), index);
+		return saveValue(pojo, index, ctx, path);
 	}
 
 	/**
@@ -83,4 +83,15 @@ abstract public class ValueTranslator<P, D> extends NullSafeTranslator<P, D>
 	 * @throws SkipException if this subtree should be skipped
 	 */
 	abstract protected Value<D> saveValue(P value, SaveContext ctx, Path path) throws SkipException;
+
+	/**
+	 * Encode with the index flag already set. The default sets the flag on whatever {@link #saveValue(Object, SaveContext, Path)}
+	 * returns, which makes a copy if the flag differs. Translators with a small set of possible values can override
+	 * this to return cached values instead; datastore values are immutable, so they can be shared between entities.
+	 *
+	 * @param value will not be null
+	 */
+	protected Value<D> saveValue(final P value, final boolean index, final SaveContext ctx, final Path path) throws SkipException {
+		return Values.index(saveValue(value, ctx, path), index);
+	}
 }
@@ -0,0 +1,372 @@
+package com.googlecode.objectify.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * <p>A fast, schema-less binary codec for the JDK types that make up most @Serialize fields: boxed
+ * primitives, Strings, primitive arrays, the common List/Set/Map implementations, enums, Date, Instant,
+ * UUID, BigInteger and BigDecimal. Each value is a one-byte tag followed by its content; lengths are
+ * varints. Anything else which is Serializable is embedded using java serialization.</p>
+ *
+ * <p>Unlike {@link JavaSerializer}, the supported types are written as trees, not graphs: an object which is
+ * referenced twice comes back as two separate copies, and a collection which contains itself (directly or
+ * indirectly) overflows the stack.</p>
+ *
+ * <p>Collection types are preserved exactly for the supported implementations (eg a LinkedHashMap comes
+ * back as a LinkedHashMap). Other collection types, and sorted collections with a custom comparator,
+ * fall back to java serialization.</p>
+ *
+ * <p>The format is not compatible with {@link JavaSerializer}; changing the serializer of an existing
+ * field requires migrating its data.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class BinarySerializer implements Serializer
+{
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte BYTE = 3;
+	private static final byte SHORT = 4;
+	private static final byte INT = 5;
+	private static final byte LONG = 6;
+	private static final byte FLOAT = 7;
+	private static final byte DOUBLE = 8;
+	private static final byte CHAR = 9;
+	private static final byte STRING = 10;
+	private static final byte BYTES = 11;
+	private static final byte INTS = 12;
+	private static final byte LONGS = 13;
+	private static final byte DOUBLES = 14;
+	private static final byte ARRAY_LIST = 15;
+	private static final byte HASH_SET = 16;
+	private static final byte LINKED_HASH_SET = 17;
+	private static final byte TREE_SET = 18;
+	private static final byte HASH_MAP = 19;
+	private static final byte LINKED_HASH_MAP = 20;
+	private static final byte TREE_MAP = 21;
+	private static final byte ENUM = 22;
+	private static final byte DATE = 23;
+	private static final byte INSTANT = 24;
+	private static final byte UUID_ = 25;
+	private static final byte BIG_INTEGER = 26;
+	private static final byte BIG_DECIMAL = 27;
+	private static final byte JAVA = 28;
+
+	/** */
+	private final JavaSerializer java = new JavaSerializer();
+
+	@Override
+	public void write(final Object value, final OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		writeValue(value, data);
+		data.flush();
+	}
+
+	@Override
+	public Object read(final InputStream in) throws IOException, ClassNotFoundException {
+		return readValue(new DataInputStream(in));
+	}
+
+	/** */
+	private void writeValue(final Object value, final DataOutputStream out) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean)value ? TRUE : FALSE);
+		} else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte)value);
+		} else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short)value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INT);
+			writeVarLong(zigzag((Integer)value), out);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			writeVarLong(zigzag((Long)value), out);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float)value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double)value);
+		} else if (value instanceof Character) {
+			out.writeByte(CHAR);
+			out.writeChar((Character)value);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeString((String)value, out);
+		} else if (value instanceof byte[]) {
+			final byte[] array = (byte[])value;
+			out.writeByte(BYTES);
+			writeVarLong(array.length, out);
+			out.write(array);
+		} else if (value instanceof int[]) {
+			final int[] array = (int[])value;
+			out.writeByte(INTS);
+			writeVarLong(array.length, out);
+			for (final int element: array)
+				writeVarLong(zigzag(element), out);
+		} else if (value instanceof long[]) {
+			final long[] array = (long[])value;
+			out.writeByte(LONGS);
+			writeVarLong(array.length, out);
+			for (final long element: array)
+				writeVarLong(zigzag(element), out);
+		} else if (value instanceof double[]) {
+			final double[] array = (double[])value;
+			out.writeByte(DOUBLES);
+			writeVarLong(array.length, out);
+			for (final double element: array)
+				out.writeDouble(element);
+		} else if (value.getClass() == ArrayList.class) {
+			writeCollection(ARRAY_LIST, (Collection<?>)value, out);
+		} else if (value.getClass() == HashSet.class) {
+			writeCollection(HASH_SET, (Collection<?>)value, out);
+		} else if (value.getClass() == LinkedHashSet.class) {
+			writeCollection(LINKED_HASH_SET, (Collection<?>)value, out);
+		} else if (value.getClass() == TreeSet.class && ((TreeSet<?>)value).comparator() == null) {
+			writeCollection(TREE_SET, (Collection<?>)value, out);
+		} else if (value.getClass() == HashMap.class) {
+			writeMap(HASH_MAP, (Map<?, ?>)value, out);
+		} else if (value.getClass() == LinkedHashMap.class) {
+			writeMap(LINKED_HASH_MAP, (Map<?, ?>)value, out);
+		} else if (value.getClass() == TreeMap.class && ((TreeMap<?, ?>)value).comparator() == null) {
+			writeMap(TREE_MAP, (Map<?, ?>)value, out);
+		} else if (value instanceof Enum<?>) {
+			final Enum<?> enumValue = (Enum<?>)value;
+			out.writeByte(ENUM);
+			writeString(enumValue.getDeclaringClass().getName(), out);
+			writeString(enumValue.name(), out);
+		} else if (value.getClass() == Date.class) {
+			out.writeByte(DATE);
+			out.writeLong(((Date)value).getTime());
+		} else if (value instanceof Instant) {
+			final Instant instant = (Instant)value;
+			out.writeByte(INSTANT);
+			out.writeLong(instant.getEpochSecond());
+			out.writeInt(instant.getNano());
+		} else if (value instanceof UUID) {
+			final UUID uuid = (UUID)value;
+			out.writeByte(UUID_);
+			out.writeLong(uuid.getMostSignificantBits());
+			out.writeLong(uuid.getLeastSignificantBits());
+		} else if (value.getClass() == BigInteger.class) {
+			out.writeByte(BIG_INTEGER);
+			writeBytes(((BigInteger)value).toByteArray(), out);
+		} else if (value.getClass() == BigDecimal.class) {
+			final BigDecimal decimal = (BigDecimal)value;
+			out.writeByte(BIG_DECIMAL);
+			writeVarLong(zigzag(decimal.scale()), out);
+			writeBytes(decimal.unscaledValue().toByteArray(), out);
+		} else {
+			if (!(value instanceof Serializable))
+				throw new NotSerializableException(value.getClass().getName());
+
+			final ByteArrayOutputStream embedded = new ByteArrayOutputStream();
+			java.write(value, embedded);
+
+			out.writeByte(JAVA);
+			writeBytes(embedded.toByteArray(), out);
+		}
+	}
+
+	/** */
+	private Object readValue(final DataInputStream in) throws IOException, ClassNotFoundException {
+		final byte tag = in.readByte();
+		switch (tag) {
+			case NULL: return null;
+			case TRUE: return Boolean.TRUE;
+			case FALSE: return Boolean.FALSE;
+			case BYTE: return in.readByte();
+			case SHORT: return in.readShort();
+			case INT: return (int)unzigzag(readVarLong(in));
+			case LONG: return unzigzag(readVarLong(in));
+			case FLOAT: return in.readFloat();
+			case DOUBLE: return in.readDouble();
+			case CHAR: return in.readChar();
+			case STRING: return readString(in);
+			case BYTES: return readBytes(in);
+			case INTS: {
+				final int[] array = new int[readLength(in)];
+				for (int i = 0; i < array.length; i++)
+					array[i] = (int)unzigzag(readVarLong(in));
+				return array;
+			}
+			case LONGS: {
+				final long[] array = new long[readLength(in)];
+				for (int i = 0; i < array.length; i++)
+					array[i] = unzigzag(readVarLong(in));
+				return array;
+			}
+			case DOUBLES: {
+				final double[] array = new double[readLength(in)];
+				for (int i = 0; i < array.length; i++)
+					array[i] = in.readDouble();
+				return array;
+			}
+			case ARRAY_LIST: return readCollection(ArrayList::new, in);
+			case HASH_SET: return readCollection(size -> new HashSet<>(capacity(size)), in);
+			case LINKED_HASH_SET: return readCollection(size -> new LinkedHashSet<>(capacity(size)), in);
+			case TREE_SET: return readCollection(size -> new TreeSet<>(), in);
+			case HASH_MAP: return readMap(size -> new HashMap<>(capacity(size)), in);
+			case LINKED_HASH_MAP: return readMap(size -> new LinkedHashMap<>(capacity(size)), in);
+			case TREE_MAP: return readMap(size -> new TreeMap<>(), in);
+			case ENUM: return readEnum(in);
+			case DATE: return new Date(in.readLong());
+			case INSTANT: return Instant.ofEpochSecond(in.readLong(), in.readInt());
+			case UUID_: return new UUID(in.readLong(), in.readLong());
+			case BIG_INTEGER: return new BigInteger(readBytes(in));
+			case BIG_DECIMAL: {
+				final int scale = (int)unzigzag(readVarLong(in));
+				return new BigDecimal(new BigInteger(readBytes(in)), scale);
+			}
+			case JAVA: return java.read(new ByteArrayInputStream(readBytes(in)));
+			default: throw new StreamCorruptedException("Unknown tag " + tag);
+		}
+	}
+
+	/** */
+	private void writeCollection(final byte tag, final Collection<?> collection, final DataOutputStream out) throws IOException {
+		out.writeByte(tag);
+		writeVarLong(collection.size(), out);
+		for (final Object element: collection)
+			writeValue(element, out);
+	}
+
+	/** */
+	private void writeMap(final byte tag, final Map<?, ?> map, final DataOutputStream out) throws IOException {
+		out.writeByte(tag);
+		writeVarLong(map.size(), out);
+		for (final Map.Entry<?, ?> entry: map.entrySet()) {
+			writeValue(entry.getKey(), out);
+			writeValue(entry.getValue(), out);
+		}
+	}
+
+	/** */
+	private Collection<Object> readCollection(final IntFunction<Collection<Object>> factory, final DataInputStream in) throws IOException, ClassNotFoundException {
+		final int size = readLength(in);
+		final Collection<Object> collection = factory.apply(size);
+		for (int i = 0; i < size; i++)
+			collection.add(readValue(in));
+		return collection;
+	}
+
+	/** */
+	private Map<Object, Object> readMap(final IntFunction<Map<Object, Object>> factory, final DataInputStream in) throws IOException, ClassNotFoundException {
+		final int size = readLength(in);
+		final Map<Object, Object> map = factory.apply(size);
+		for (int i = 0; i < size; i++) {
+			final Object key = readValue(in);
+			map.put(key, readValue(in));
+		}
+		return map;
+	}
+
+	/** */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object readEnum(final DataInputStream in) throws IOException, ClassNotFoundException {
+		final String className = readString(in);
+		final String name = readString(in);
+
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		final Class<?> enumClass = Class.forName(className, false, loader != null ? loader : BinarySerializer.class.getClassLoader());
+
+		return Enum.valueOf((Class<Enum>)enumClass, name);
+	}
+
+	/** */
+	private void writeString(final String value, final DataOutputStream out) throws IOException {
+		writeBytes(value.getBytes(StandardCharsets.UTF_8), out);
+	}
+
+	/** */
+	private String readString(final DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	/** */
+	private void writeBytes(final byte[] bytes, final DataOutputStream out) throws IOException {
+		writeVarLong(bytes.length, out);
+		out.write(bytes);
+	}
+
+	/** */
+	private byte[] readBytes(final DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/** */
+	private int readLength(final DataInputStream in) throws IOException {
+		final long length = readVarLong(in);
+		if (length < 0 || length > Integer.MAX_VALUE)
+			throw new StreamCorruptedException("Bad length " + length);
+		return (int)length;
+	}
+
+	/** HashMap capacity which will not need to rehash for size elements */
+	private static int capacity(final int size) {
+		return size < 3 ? size + 1 : (int)(size / 0.75f + 1.0f);
+	}
+
+	/** Maps signed to unsigned so small negative numbers stay small as varints */
+	private static long zigzag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/** */
+	private static long unzigzag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/** Seven bits at a time, low bits first */
+	private static void writeVarLong(long value, final DataOutputStream out) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	/** */
+	private static long readVarLong(final DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.readByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new StreamCorruptedException("Malformed varint");
+	}
+}
@@ -0,0 +1,28 @@
+package com.googlecode.objectify.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Standard java serialization; the default for @Serialize. Handles any object graph that follows
+ * Java serialization rules, at the cost of speed and size.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public class JavaSerializer implements Serializer
+{
+	@Override
+	public void write(final Object value, final OutputStream out) throws IOException {
+		final ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(value);
+		oos.flush();
+	}
+
+	@Override
+	public Object read(final InputStream in) throws IOException, ClassNotFoundException {
+		return new ObjectInputStream(in).readObject();
+	}
+}
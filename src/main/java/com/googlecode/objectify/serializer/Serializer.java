@@ -0,0 +1,22 @@
+package com.googlecode.objectify.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Used with the @Serialize annotation to convert arbitrary objects to and from bytes. Objectify takes
+ * care of framing and compression; a Serializer only needs to write the object to a stream and read it
+ * back. Each field which names a serializer gets its own instance, which may be used by several threads at
+ * once, so implementations must be thread-safe.</p>
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+public interface Serializer
+{
+	/** Write the object to the stream. Flush anything buffered, but do not close the stream. */
+	void write(Object value, OutputStream out) throws IOException;
+
+	/** Read an object written by write() from the stream */
+	Object read(InputStream in) throws IOException, ClassNotFoundException;
+}
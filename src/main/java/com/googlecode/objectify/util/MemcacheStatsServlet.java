@@ -3,9 +3,14 @@
 
 package com.googlecode.objectify.util;
 
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.PathElement;
+import com.google.common.html.HtmlEscapers;
 import com.googlecode.objectify.ObjectifyService;
 import com.googlecode.objectify.impl.EntityMemcacheStats;
 import com.googlecode.objectify.impl.EntityMemcacheStats.Stat;
+import com.googlecode.objectify.impl.EntityMemcacheStats.ValueSize;
+import com.googlecode.objectify.impl.SpaceSaving.Count;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -18,7 +23,9 @@ import java.util.Map;
 
 /**
  * <p>You can mount this servlet to see the memcache stats for an instance. This is nothing fancy,
- * but it should give you an idea of what's going on.</p>
+ * but it should give you an idea of what's going on.  Besides hit rates by kind, it shows the hottest
+ * keys and the largest cached values seen in sampled operations, which is usually enough to track down
+ * a hot-spotted cache node.</p>
  *  
  * @author Jeff Schnitzer
  */
@@ -60,8 +67,53 @@ public class MemcacheStatsServlet extends HttpServlet
 			out.println("</tr>");
 		}
 		
+		out.println("    </table>");
+
+		out.println("    <h3>Hot keys (sampled reads)</h3>");
+		out.println("    <table cellpadding='3' cellspacing='0' border='1'>");
+		out.println("      <tr>");
+		out.println("        <th>Count</th><th>Error</th><th>Key</th>");
+		out.println("      </tr>");
+
+		for (final Count<Key> hot: getMemcacheStats().getHotKeys()) {
+			out.println("<tr>");
+			out.println("  <td>" + hot.getCount() + "</td>");
+			out.println("  <td>" + hot.getError() + "</td>");
+			out.println("  <td>" + describe(hot.getItem()) + "</td>");
+			out.println("</tr>");
+		}
+
+		out.println("    </table>");
+
+		out.println("    <h3>Largest values (sampled writes)</h3>");
+		out.println("    <table cellpadding='3' cellspacing='0' border='1'>");
+		out.println("      <tr>");
+		out.println("        <th>Bytes</th><th>Key</th>");
+		out.println("      </tr>");
+
+		for (final Stat stat: stats.values()) {
+			for (final ValueSize size: stat.getLargestValues()) {
+				out.println("<tr>");
+				out.println("  <td>" + size.getBytes() + "</td>");
+				out.println("  <td>" + describe(size.getKey()) + "</td>");
+				out.println("</tr>");
+			}
+		}
+
 		out.println("    </table>");
 		out.println("  </body>");
 		out.println("</html>");
 	}
+
+	/** Something like Parent(123)/Child("foo"), escaped for html */
+	private String describe(final Key key) {
+		final StringBuilder bld = new StringBuilder();
+
+		for (final PathElement element: key.getAncestors())
+			bld.append(element.getKind()).append('(').append(element.getNameOrId()).append(")/");
+
+		bld.append(key.getKind()).append('(').append(key.getNameOrId()).append(')');
+
+		return HtmlEscapers.htmlEscaper().escape(bld.toString());
+	}
 }
\ No newline at end of file
@@ -18,8 +18,8 @@ abstract public class ResultCache<T> implements Result<T>, Serializable
 	/** */
 	protected abstract T nowUncached();
 
-	/** */
-	protected boolean isExecuted() {
+	/** @return true if the value has been computed */
+	public boolean isExecuted() {
 		return cached;
 	}
 
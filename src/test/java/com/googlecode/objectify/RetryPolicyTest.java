@@ -0,0 +1,77 @@
+package com.googlecode.objectify;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class RetryPolicyTest {
+	private static final Duration BASE = Duration.ofMillis(100);
+	private static final Duration MAX = Duration.ofSeconds(2);
+
+	@Test
+	void exponentialDelaysStayWithinCeiling() throws Exception {
+		final RetryPolicy policy = RetryPolicy.exponential(BASE, MAX);
+
+		for (int retry = 1; retry < 40; retry++) {
+			final long ceiling = Math.min(MAX.toMillis(), BASE.toMillis() << Math.min(retry - 1, 30));
+			final Duration delay = policy.delay(retry, Duration.ZERO);
+			assertThat(delay.toMillis()).isAtLeast(0L);
+			assertThat(delay.toMillis()).isAtMost(ceiling);
+		}
+	}
+
+	@Test
+	void decorrelatedJitterGrowsFromPrevious() throws Exception {
+		final RetryPolicy policy = RetryPolicy.decorrelatedJitter(BASE, MAX);
+
+		Duration previous = Duration.ZERO;
+		for (int retry = 1; retry < 20; retry++) {
+			final Duration delay = policy.delay(retry, previous);
+			assertThat(delay.toMillis()).isAtLeast(BASE.toMillis());
+			assertThat(delay.toMillis()).isAtMost(Math.min(MAX.toMillis(), Math.max(BASE.toMillis(), previous.toMillis() * 3)));
+			previous = delay;
+		}
+	}
+
+	@Test
+	void defaultMatchesHistoricalLinearBackoff() throws Exception {
+		final RetryPolicy policy = RetryPolicy.deflt();
+
+		// Historically 200 x (retry + 2), scaled randomly by 50-100%
+		final Duration first = policy.delay(1, Duration.ZERO);
+		assertThat(first.toMillis()).isAtLeast(300L);
+		assertThat(first.toMillis()).isAtMost(600L);
+
+		final Duration second = policy.delay(2, first);
+		assertThat(second.toMillis()).isAtLeast(400L);
+		assertThat(second.toMillis()).isAtMost(800L);
+
+		assertThat(policy.delay(1000, Duration.ZERO)).isAtMost(Duration.ofSeconds(10));
+	}
+
+	@Test
+	void deadlineStopsRetries() throws Exception {
+		final RetryPolicy policy = RetryPolicy.exponential(BASE, MAX).deadline(Duration.ofSeconds(1));
+
+		assertThat(policy.withinDeadline(Duration.ofMillis(500), Duration.ofMillis(100))).isTrue();
+		assertThat(policy.withinDeadline(Duration.ofMillis(900), Duration.ofMillis(200))).isFalse();
+		assertThat(RetryPolicy.deflt().withinDeadline(Duration.ofDays(1), MAX)).isTrue();
+	}
+
+	@Test
+	void budgetIsReplenishedBySuccesses() throws Exception {
+		final RetryBudget budget = new RetryBudget(0.5, 2);
+
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isFalse();
+
+		budget.recordSuccess();
+		assertThat(budget.tryAcquire()).isFalse();
+
+		budget.recordSuccess();
+		assertThat(budget.tryAcquire()).isTrue();
+	}
+}
@@ -0,0 +1,31 @@
+package com.googlecode.objectify.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class CacheValueCodecTest {
+	@Test
+	void smallValuesAreLeftAsPlainSerialization() throws Exception {
+		final byte[] bytes = CacheValueCodec.DEFAULT.encode("small");
+
+		assertThat(bytes[0]).isEqualTo((byte)0xAC);
+		assertThat(CacheValueCodec.isEncoded(bytes)).isTrue();
+		assertThat(CacheValueCodec.DEFAULT.decode(bytes)).isEqualTo("small");
+	}
+
+	@Test
+	void largeValuesAreCompressedBehindHeader() throws Exception {
+		final String big = String.join("", Collections.nCopies(10_000, "compressible "));
+		final byte[] bytes = CacheValueCodec.DEFAULT.encode(big);
+
+		assertThat(bytes[0]).isEqualTo(CacheValueCodec.COMPRESSED);
+		assertThat(bytes.length).isLessThan(big.length());
+		assertThat(CacheValueCodec.DEFAULT.decode(bytes)).isEqualTo(big);
+
+		// A codec with compression disabled can still read compressed values
+		assertThat(CacheValueCodec.UNCOMPRESSED.decode(bytes)).isEqualTo(big);
+	}
+}
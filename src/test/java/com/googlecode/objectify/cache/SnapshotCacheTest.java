@@ -0,0 +1,81 @@
+package com.googlecode.objectify.cache;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.googlecode.objectify.util.FutureNow;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class SnapshotCacheTest {
+	private final Key present = Key.newBuilder("project", "thing", 1).build();
+	private final Key absent = Key.newBuilder("project", "thing", 2).build();
+	private final Instant past = Instant.now().minus(Duration.ofHours(1));
+
+	/** Records what was asked for */
+	private final List<Collection<Key>> fetched = new ArrayList<>();
+
+	private final Function<Collection<Key>, Future<Map<Key, Entity>>> source = keys -> {
+		fetched.add(new ArrayList<>(keys));
+
+		final Map<Key, Entity> result = new HashMap<>();
+		if (keys.contains(present))
+			result.put(present, Entity.newBuilder(present).set("foo", "bar").build());
+
+		return new FutureNow<>(result);
+	};
+
+	@Test
+	void repeatedReadsAtSameTimeDoNotFetchAgain() throws Exception {
+		final SnapshotCache cache = new SnapshotCache(100);
+
+		final Map<Key, Entity> first = cache.get(Arrays.asList(present, absent), past, source).get();
+		assertThat(first.keySet()).containsExactly(present);
+
+		final Map<Key, Entity> second = cache.get(Arrays.asList(present, absent), past, source).get();
+		assertThat(second).isEqualTo(first);
+
+		assertThat(fetched).hasSize(1);
+	}
+
+	@Test
+	void differentReadTimesAreSeparate() throws Exception {
+		final SnapshotCache cache = new SnapshotCache(100);
+
+		cache.get(Collections.singleton(present), past, source).get();
+		cache.get(Collections.singleton(present), past.minusSeconds(1), source).get();
+
+		assertThat(fetched).hasSize(2);
+	}
+
+	@Test
+	void leastRecentlyUsedIsEvicted() throws Exception {
+		final SnapshotCache cache = new SnapshotCache(1);
+
+		cache.get(Collections.singleton(present), past, source).get();
+		cache.get(Collections.singleton(absent), past, source).get();
+		cache.get(Collections.singleton(present), past, source).get();
+
+		assertThat(fetched).hasSize(3);
+	}
+
+	@Test
+	void recentReadTimesAreNotCacheable() throws Exception {
+		final SnapshotCache cache = new SnapshotCache(100);
+
+		assertThat(cache.isCacheable(past)).isTrue();
+		assertThat(cache.isCacheable(Instant.now())).isFalse();
+	}
+}
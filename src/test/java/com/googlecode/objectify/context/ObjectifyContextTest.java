@@ -0,0 +1,93 @@
+package com.googlecode.objectify.context;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.datastore.DatastoreOptions;
+import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.util.Closeable;
+import io.opentelemetry.context.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class ObjectifyContextTest {
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+		ObjectifyContext.setStorage(new ThreadLocalContextStorage());
+	}
+
+	@Test
+	void wrappedExecutorCarriesContext() throws Exception {
+		try (final Closeable ignored = NamespaceManager.set("carried")) {
+			final ObjectifyContext context = ObjectifyContext.current();
+
+			final String plain = CompletableFuture.supplyAsync(NamespaceManager::get, executor).get();
+			assertThat(plain).isNull();
+
+			final String wrapped = CompletableFuture.supplyAsync(NamespaceManager::get, context.wrap(executor)).get();
+			assertThat(wrapped).isEqualTo("carried");
+		}
+	}
+
+	@Test
+	void previousContextIsRestored() throws Exception {
+		final ObjectifyContext outer = ObjectifyContext.current();
+		final ObjectifyContext inner = new ObjectifyContext();
+
+		final ObjectifyContext seen = inner.call(ObjectifyContext::current);
+
+		assertThat(seen).isSameInstanceAs(inner);
+		assertThat(ObjectifyContext.current()).isSameInstanceAs(outer);
+	}
+
+	@Test
+	void openTelemetryStorageFollowsOtelContext() throws Exception {
+		ObjectifyContext.setStorage(new OpenTelemetryContextStorage());
+
+		final ObjectifyContext context = new ObjectifyContext();
+		context.setNamespace("otel");
+
+		final Runnable[] task = new Runnable[1];
+		final String[] seen = new String[1];
+
+		// Capture the otel context while ours is bound; run it later on another thread
+		context.call(() -> task[0] = Context.current().wrap((Runnable)() -> seen[0] = NamespaceManager.get()));
+
+		assertThat(NamespaceManager.get()).isNull();
+
+		CompletableFuture.runAsync(task[0], executor).get();
+		assertThat(seen[0]).isEqualTo("otel");
+	}
+
+	@Test
+	void openTelemetryStorageBindsRequests() throws Exception {
+		ObjectifyContext.setStorage(new OpenTelemetryContextStorage());
+
+		final ObjectifyFactory factory = new ObjectifyFactory(DatastoreOptions.newBuilder()
+				.setProjectId("test")
+				.setCredentials(NoCredentials.getInstance())
+				.build().getService());
+		final ExecutorService otelExecutor = Context.taskWrapping(executor);
+
+		factory.run(() -> {
+			final Objectify ofy = factory.ofy();
+			assertThat(CompletableFuture.supplyAsync(factory::ofy, otelExecutor).join()).isSameInstanceAs(ofy);
+		});
+
+		try (final Closeable ignored = factory.begin()) {
+			final Objectify ofy = factory.ofy();
+			assertThat(CompletableFuture.supplyAsync(factory::ofy, otelExecutor).join()).isSameInstanceAs(ofy);
+		}
+
+		assertThat(ObjectifyContext.isBound()).isFalse();
+	}
+}
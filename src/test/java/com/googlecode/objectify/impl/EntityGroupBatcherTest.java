@@ -0,0 +1,88 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.PathElement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class EntityGroupBatcherTest {
+	private static final Key HOT = Key.newBuilder("project", "Parent", 1).build();
+	private static final Key COLD = Key.newBuilder("project", "Parent", 2).build();
+
+	private static Key child(final Key parent, final long id) {
+		return Key.newBuilder("project", "Child", id).addAncestor(PathElement.of(parent.getKind(), parent.getId())).build();
+	}
+
+	@Test
+	void rootOfWalksToTheTop() throws Exception {
+		final Key grandchild = Key.newBuilder(child(HOT, 5), "Grandchild", 7).build();
+		assertThat(EntityGroupBatcher.rootOf(grandchild)).isEqualTo(HOT);
+		assertThat(EntityGroupBatcher.rootOf(HOT)).isEqualTo(HOT);
+		assertThat(EntityGroupBatcher.rootOf(IncompleteKey.newBuilder("project", "Thing").build())).isNull();
+	}
+
+	@Test
+	void noBatchExceedsPerGroupLimit() throws Exception {
+		final List<IncompleteKey> keys = new ArrayList<>();
+		for (int i = 1; i <= 10; i++)
+			keys.add(child(HOT, i));
+		for (int i = 1; i <= 3; i++)
+			keys.add(child(COLD, i));
+		keys.add(IncompleteKey.newBuilder("project", "Thing").build());
+
+		final List<List<Integer>> batches = EntityGroupBatcher.batch(keys, key -> key, 3, 500);
+
+		// 10 hot children at 3 per batch
+		assertThat(batches).hasSize(4);
+
+		final Set<Integer> seen = new HashSet<>();
+		for (final List<Integer> batch: batches) {
+			final Map<Key, Integer> perGroup = new HashMap<>();
+			for (final Integer index: batch) {
+				assertThat(seen.add(index)).isTrue();
+
+				final Key root = EntityGroupBatcher.rootOf(keys.get(index));
+				if (root != null)
+					perGroup.merge(root, 1, Integer::sum);
+			}
+			assertThat(perGroup.values().stream().allMatch(count -> count <= 3)).isTrue();
+		}
+
+		assertThat(seen).hasSize(keys.size());
+	}
+
+	@Test
+	void orderWithinGroupIsPreserved() throws Exception {
+		final List<Key> keys = new ArrayList<>();
+		for (int i = 1; i <= 5; i++)
+			keys.add(child(HOT, i));
+
+		final List<List<Integer>> batches = EntityGroupBatcher.batch(keys, key -> key, 2, 500);
+
+		final List<Integer> flattened = new ArrayList<>();
+		batches.forEach(flattened::addAll);
+		assertThat(flattened).containsExactly(0, 1, 2, 3, 4).inOrder();
+	}
+
+	@Test
+	void batchSizeIsRespected() throws Exception {
+		final List<Key> keys = new ArrayList<>();
+		for (int i = 1; i <= 20; i++)
+			keys.add(Key.newBuilder("project", "Parent", i).build());
+
+		final List<List<Integer>> batches = EntityGroupBatcher.batch(keys, key -> key, 1, 8);
+
+		assertThat(batches).hasSize(3);
+		assertThat(batches.get(0)).hasSize(8);
+		assertThat(batches.get(2)).hasSize(4);
+	}
+}
@@ -0,0 +1,59 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.Blob;
+import com.google.cloud.datastore.BlobValue;
+import com.google.cloud.datastore.EntityValue;
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class EntitySizeTest {
+	private static final Key KEY = Key.newBuilder("project", "Thing", 1).build();
+
+	@Test
+	void countsKeyNamesAndValues() throws Exception {
+		final FullEntity<IncompleteKey> entity = FullEntity.newBuilder(KEY)
+				.set("name", "abc")
+				.set("count", 5L)
+				.build();
+
+		final int keySize = "project".length() + "Thing".length() + 8;
+		assertThat(EntitySize.of(entity)).isEqualTo(keySize + "name".length() + 3 + "count".length() + 8);
+	}
+
+	@Test
+	void overflowNamesLargestEmbeddedProperty() throws Exception {
+		final FullEntity<IncompleteKey> inner = FullEntity.newBuilder()
+				.set("small", "x")
+				.set("big", BlobValue.of(Blob.copyFrom(new byte[2000])))
+				.build();
+		final FullEntity<IncompleteKey> entity = FullEntity.newBuilder(KEY)
+				.set("other", "abc")
+				.set("inner", EntityValue.of(inner))
+				.build();
+
+		final String message = EntitySize.describeOverflow(entity, EntitySize.of(entity));
+		assertThat(message).contains("'inner.big' at about 2000 bytes");
+	}
+
+	@Test
+	void partitionsByCountAndBytes() throws Exception {
+		final List<Integer> sizes = Arrays.asList(4, 4, 4, 1, 1, 1, 1, 20, 1);
+
+		final List<List<Integer>> batches = EntitySize.partition(sizes, size -> size, 3, 10);
+
+		// 20 is over the byte limit on its own but still has to go somewhere
+		assertThat(batches).containsExactly(
+				Arrays.asList(4, 4),
+				Arrays.asList(4, 1, 1),
+				Arrays.asList(1, 1),
+				Arrays.asList(20),
+				Arrays.asList(1)).inOrder();
+	}
+}
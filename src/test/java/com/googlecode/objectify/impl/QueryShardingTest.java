@@ -0,0 +1,99 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.cmd.Query;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+class QueryShardingTest extends TestBase {
+	private static Key<Object> key(final String kind, final long id) {
+		return Key.create(com.google.cloud.datastore.Key.newBuilder("project", kind, id).build());
+	}
+
+	private static Key<Object> key(final String kind, final String name) {
+		return Key.create(com.google.cloud.datastore.Key.newBuilder("project", kind, name).build());
+	}
+
+	private static Key<Object> key(final Key<?> parent, final String kind, final long id) {
+		return Key.create(com.google.cloud.datastore.Key.newBuilder(parent.getRaw(), kind, id).build());
+	}
+
+	@Test
+	void splitPointsAreEvenlySpaced() throws Exception {
+		final List<Integer> sample = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+		assertThat(QueryImpl.splitPoints(sample, 4)).containsExactly(25, 50, 75).inOrder();
+		assertThat(QueryImpl.splitPoints(sample, 1)).isEmpty();
+	}
+
+	@Test
+	void smallSamplesGiveNoSplitPoints() throws Exception {
+		assertThat(QueryImpl.splitPoints(Arrays.asList(1, 2, 3), 4)).isEmpty();
+		assertThat(QueryImpl.splitPoints(Collections.<Integer>emptyList(), 4)).isEmpty();
+	}
+
+	@Test
+	void repeatedSplitPointsAreDropped() throws Exception {
+		assertThat(QueryImpl.splitPoints(Arrays.asList(1, 1, 1, 1, 2, 2, 2, 2), 4)).containsExactly(1, 2).inOrder();
+	}
+
+	@Test
+	void keysSortInDatastorePathOrder() throws Exception {
+		final Key<Object> a1 = key("A", 1);
+		final Key<Object> a1z1 = key(a1, "Z", 1);
+		final Key<Object> a2 = key("A", 2);
+		final Key<Object> b1 = key("B", 1);
+		final Key<Object> bName = key("B", "a");
+
+		final List<Key<Object>> keys = new ArrayList<>(Arrays.asList(bName, b1, a2, a1z1, a1));
+		keys.sort(QueryImpl.DATASTORE_KEY_ORDER);
+
+		assertThat(keys).containsExactly(a1, a1z1, a2, b1, bName).inOrder();
+
+		// Key.compareTo() puts the root B/1 before the child A/1/Z/1, which the datastore does not
+		assertThat(b1.compareTo(a1z1)).isLessThan(0);
+	}
+
+	@Test
+	void namesSortAsUtf8() throws Exception {
+		final Key<Object> fullwidthTilde = key("A", "\uFF5E");
+		final Key<Object> emoji = key("A", "\uD83D\uDE00");
+
+		assertThat(QueryImpl.DATASTORE_KEY_ORDER.compare(fullwidthTilde, emoji)).isLessThan(0);
+	}
+
+	@Test
+	void shardsAreHalfOpenKeyRanges() throws Exception {
+		factory().register(Trivial.class);
+
+		final List<Trivial> all = new ArrayList<>();
+		for (long i = 1; i <= 10; i++)
+			all.add(new Trivial(i, "foo", i));
+
+		ofy().save().entities(all).now();
+
+		final QueryImpl<Trivial> query = ((LoadTypeImpl<Trivial>)ofy().load().type(Trivial.class)).createQuery();
+		final List<Query<Trivial>> shards = query.shardAt(Arrays.asList(Key.create(Trivial.class, 4), Key.create(Trivial.class, 7)));
+
+		assertThat(shards).hasSize(3);
+		assertThat(ids(shards.get(0))).containsExactly(1L, 2L, 3L).inOrder();
+		assertThat(ids(shards.get(1))).containsExactly(4L, 5L, 6L).inOrder();
+		assertThat(ids(shards.get(2))).containsExactly(7L, 8L, 9L, 10L).inOrder();
+	}
+
+	private static List<Long> ids(final Query<Trivial> shard) {
+		return shard.keys().list().stream().map(Key::getId).collect(Collectors.toList());
+	}
+}
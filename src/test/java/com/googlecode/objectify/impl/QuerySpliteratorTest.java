@@ -0,0 +1,99 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+class QuerySpliteratorTest extends TestBase {
+	private static final List<Integer> RESULTS = IntStream.range(0, 2500).boxed().collect(Collectors.toList());
+
+	private static QuerySpliterator<Integer> spliterator(final int chunkSize) {
+		return new QuerySpliterator<>((ObjectifyImpl)ofy(), fork -> RESULTS.iterator(), chunkSize);
+	}
+
+	@Test
+	void splitsAtChunkBoundaries() throws Exception {
+		final QuerySpliterator<Integer> spliterator = spliterator(1000);
+
+		final Spliterator<Integer> first = spliterator.trySplit();
+		assertThat(first.estimateSize()).isEqualTo(1000);
+		assertThat(first.hasCharacteristics(Spliterator.ORDERED)).isTrue();
+
+		assertThat(spliterator.trySplit().estimateSize()).isEqualTo(1000);
+		assertThat(spliterator.trySplit().estimateSize()).isEqualTo(500);
+		assertThat(spliterator.trySplit()).isNull();
+	}
+
+	@Test
+	void parallelStreamPreservesOrder() throws Exception {
+		final List<Integer> doubled = StreamSupport.stream(spliterator(100), true)
+				.map(i -> i * 2)
+				.collect(Collectors.toList());
+
+		assertThat(doubled).isEqualTo(RESULTS.stream().map(i -> i * 2).collect(Collectors.toList()));
+	}
+
+	@Test
+	void queryStartsLazily() throws Exception {
+		final AtomicInteger started = new AtomicInteger();
+		final QuerySpliterator<Integer> spliterator = new QuerySpliterator<>((ObjectifyImpl)ofy(), fork -> {
+			started.incrementAndGet();
+			return RESULTS.iterator();
+		}, 100);
+
+		assertThat(started.get()).isEqualTo(0);
+		assertThat(StreamSupport.stream(spliterator, false).count()).isEqualTo(2500);
+		assertThat(started.get()).isEqualTo(1);
+	}
+
+	@Test
+	void splitQueriesRunInAForkOfTheirOwn() throws Exception {
+		final ObjectifyImpl parent = (ObjectifyImpl)ofy();
+		final Set<ObjectifyImpl> startedIn = ConcurrentHashMap.newKeySet();
+
+		final long count = StreamSupport.stream(new QuerySpliterator<>(parent, fork -> {
+			startedIn.add(fork);
+			return RESULTS.iterator();
+		}, 100), true).count();
+
+		assertThat(count).isEqualTo(2500);
+		assertThat(startedIn).hasSize(1);
+		assertThat(startedIn).doesNotContain(parent);
+	}
+
+	@Test
+	void parallelStreamsCanUseOfyDownstream() throws Exception {
+		factory().register(Trivial.class);
+
+		final List<Trivial> all = new ArrayList<>();
+		for (long i = 1; i <= 200; i++)
+			all.add(new Trivial(i, "foo", i));
+		ofy().save().entities(all).now();
+		ofy().clear();
+
+		final List<Long> numbers = ofy().load().type(Trivial.class).chunk(10).keys().stream()
+				.parallel()
+				.map(key -> ofy().load().key(key).now().getSomeNumber())
+				.collect(Collectors.toList());
+
+		assertThat(numbers).isEqualTo(all.stream().map(Trivial::getSomeNumber).collect(Collectors.toList()));
+
+		// The caller's own context is still usable
+		assertThat(ofy().load().key(Key.create(Trivial.class, 1L)).now().getSomeNumber()).isEqualTo(1L);
+	}
+}
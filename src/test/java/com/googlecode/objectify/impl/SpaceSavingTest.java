@@ -0,0 +1,66 @@
+package com.googlecode.objectify.impl;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.googlecode.objectify.cache.EntityMemcache;
+import com.googlecode.objectify.cache.EntityMemcache.Refreshable;
+import com.googlecode.objectify.impl.EntityMemcacheStats.ValueSize;
+import com.googlecode.objectify.impl.SpaceSaving.Count;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class SpaceSavingTest {
+	@Test
+	void findsHeavyHittersInLongTail() throws Exception {
+		final SpaceSaving<String> counter = new SpaceSaving<>(10);
+
+		for (int i = 0; i < 1000; i++) {
+			counter.offer("hot");
+			if (i % 2 == 0)
+				counter.offer("warm");
+			counter.offer("cold" + i);
+		}
+
+		final List<Count<String>> top = counter.top(2);
+		assertThat(top).hasSize(2);
+		assertThat(top.get(0).getItem()).isEqualTo("hot");
+		assertThat(top.get(0).getCount()).isAtLeast(1000L);
+		assertThat(top.get(1).getItem()).isEqualTo("warm");
+	}
+
+	@Test
+	void statsTrackHotKeysAndLargestValues() throws Exception {
+		final EntityMemcacheStats stats = new EntityMemcacheStats(1);
+
+		final Key small = Key.newBuilder("project", "thing", 1).build();
+		final Key big = Key.newBuilder("project", "thing", 2).build();
+
+		for (int i = 0; i < 5; i++)
+			stats.recordHit(small);
+		stats.recordMiss(big);
+
+		stats.recordPut(small, Entity.newBuilder(small).set("foo", "bar").build());
+		stats.recordPut(big, Entity.newBuilder(big).set("foo", new String(new char[10000])).build());
+
+		assertThat(stats.getHotKeys().get(0).getItem()).isEqualTo(small);
+		assertThat(stats.getStats().get("thing").getLargestValues().get(0).getKey()).isEqualTo(big);
+	}
+
+	@Test
+	void putSizesAreEntitySizes() throws Exception {
+		final EntityMemcacheStats stats = new EntityMemcacheStats(1);
+
+		final Key refreshable = Key.newBuilder("project", "thing", 1).build();
+		final Key negative = Key.newBuilder("project", "thing", 2).build();
+		final Entity entity = Entity.newBuilder(refreshable).set("foo", "bar").build();
+
+		stats.recordPut(refreshable, new Refreshable(entity, 0));
+		stats.recordPut(negative, EntityMemcache.NEGATIVE);
+
+		final List<ValueSize> largest = stats.getStats().get("thing").getLargestValues();
+		assertThat(largest).containsExactly(new ValueSize(refreshable, EntitySize.of(entity)));
+	}
+}
@@ -0,0 +1,58 @@
+package com.googlecode.objectify.impl.translate;
+
+import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.impl.translate.PackedTranslatorFactory.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedTranslatorFactoryTest {
+	private static final long[] VALUES = { 1_700_000_000_000L, 1_700_000_001_000L, 1_700_000_000_500L };
+
+	private static Object decode(final byte[] bytes) {
+		return PackedTranslatorFactory.decode(Kind.LONG, bytes, Path.root());
+	}
+
+	@Test
+	void deltaRoundTrips() throws Exception {
+		assertThat((long[])decode(PackedTranslatorFactory.encode(Kind.LONG, VALUES, true))).isEqualTo(VALUES);
+	}
+
+	@Test
+	void truncatedDeltaBlobIsReported() throws Exception {
+		final byte[] bytes = PackedTranslatorFactory.encode(Kind.LONG, VALUES, true);
+
+		final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> decode(Arrays.copyOf(bytes, bytes.length - 1)));
+		assertThat(ex).hasMessageThat().contains("truncated");
+	}
+
+	@Test
+	void countLargerThanTheBlobIsReported() throws Exception {
+		// A count of Integer.MAX_VALUE followed by a single value
+		final byte[] bytes = { 'J', 1, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 0x02 };
+
+		final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> decode(bytes));
+		assertThat(ex).hasMessageThat().contains("claims 2147483647 values");
+	}
+
+	@Test
+	void bytesAfterTheLastValueAreReported() throws Exception {
+		final byte[] bytes = { 'J', 1, 0x01, 0x02, 0x03 };
+
+		assertThrows(IllegalStateException.class, () -> decode(bytes));
+	}
+
+	@Test
+	void overlongVarintIsReported() throws Exception {
+		final byte[] bytes = new byte[2 + 11];
+		bytes[0] = 'J';
+		bytes[1] = 1;
+		Arrays.fill(bytes, 2, bytes.length, (byte)0x80);
+
+		final IllegalStateException ex = assertThrows(IllegalStateException.class, () -> decode(bytes));
+		assertThat(ex).hasMessageThat().contains("Malformed varint");
+	}
+}
@@ -0,0 +1,82 @@
+package com.googlecode.objectify.serializer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+class BinarySerializerTest {
+	private final BinarySerializer serializer = new BinarySerializer();
+
+	private Object roundTrip(final Object value) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serializer.write(value, out);
+		return serializer.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	void commonTypesSurvive() throws Exception {
+		final Map<Object, Object> map = new LinkedHashMap<>();
+		map.put("string", "héllo");
+		map.put(1, -5L);
+		map.put(TimeUnit.SECONDS, new TreeSet<>(Arrays.asList(3, 1, 2)));
+		map.put(UUID.randomUUID(), new BigDecimal("-12.3400"));
+		map.put(Instant.now(), new ArrayList<>(Arrays.asList(null, true, (byte)1, (short)2, 3f, 4.0, 'c')));
+
+		final Object fetched = roundTrip(map);
+
+		assertThat(fetched).isInstanceOf(LinkedHashMap.class);
+		assertThat(fetched).isEqualTo(map);
+	}
+
+	@Test
+	void primitiveArraysSurvive() throws Exception {
+		final long[] longs = { 1L, -2L, Long.MIN_VALUE, Long.MAX_VALUE };
+		assertThat((long[])roundTrip(longs)).isEqualTo(longs);
+
+		final double[] doubles = { 1.5, Double.NaN };
+		assertThat((double[])roundTrip(doubles)).isEqualTo(doubles);
+	}
+
+	@Test
+	void otherSerializablesFallBackToJava() throws Exception {
+		final List<Integer> linked = new LinkedList<>(Arrays.asList(1, 2, 3));
+
+		final Object fetched = roundTrip(linked);
+
+		assertThat(fetched).isInstanceOf(LinkedList.class);
+		assertThat(fetched).isEqualTo(linked);
+	}
+
+	@Test
+	void muchSmallerThanJavaSerialization() throws Exception {
+		final Map<Long, Long> numbers = new HashMap<>();
+		numbers.put(1L, 2L);
+		numbers.put(3L, 4L);
+
+		final ByteArrayOutputStream java = new ByteArrayOutputStream();
+		try (final ObjectOutputStream oos = new ObjectOutputStream(java)) {
+			oos.writeObject(numbers);
+		}
+
+		final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		serializer.write(numbers, binary);
+
+		assertThat(binary.size()).isLessThan(java.size() / 4);
+	}
+}
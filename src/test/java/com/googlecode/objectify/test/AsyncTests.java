@@ -0,0 +1,118 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of ofy().async()
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class AsyncTests extends TestBase {
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Trivial.class);
+	}
+
+	/** */
+	@Test
+	void saveThenLoad() throws Exception {
+		final Trivial triv = new Trivial("foo", 5);
+
+		final Key<Trivial> key = ofy().async().save().entity(triv).toCompletableFuture().join();
+		assertThat(triv.getId()).isNotNull();
+
+		final Trivial fetched = ofy().async().load().key(key).toCompletableFuture().join();
+		assertThat(fetched).isEqualTo(triv);
+	}
+
+	/** */
+	@Test
+	void stagesCanBeChained() throws Exception {
+		final Trivial triv = new Trivial(123L, "foo", 5);
+		ofy().save().entity(triv).now();
+
+		final Trivial saved = ofy().async().load().key(Key.create(triv))
+				.thenCompose(fetched -> {
+					fetched.setSomeNumber(6);
+					return ofy().async().save().entity(fetched).thenApply(key -> fetched);
+				})
+				.toCompletableFuture().join();
+
+		assertThat(saved.getSomeNumber()).isEqualTo(6L);
+
+		ofy().clear();
+		assertThat(ofy().load().entity(triv).now().getSomeNumber()).isEqualTo(6L);
+	}
+
+	/** */
+	@Test
+	void keysAndDelete() throws Exception {
+		final Key<Trivial> k1 = ofy().save().entity(new Trivial("foo", 1)).now();
+		final Key<Trivial> k2 = ofy().save().entity(new Trivial("bar", 2)).now();
+
+		final Map<Key<Trivial>, Trivial> fetched = ofy().async().load().keys(k1, k2).toCompletableFuture().join();
+		assertThat(fetched.keySet()).containsExactly(k1, k2).inOrder();
+
+		ofy().async().delete().keys(k1, k2).toCompletableFuture().join();
+
+		ofy().clear();
+		assertThat(ofy().load().keys(k1, k2)).isEmpty();
+	}
+
+	/** */
+	@Test
+	void asyncDeleteIsSeenByTheCallersSession() throws Exception {
+		final Key<Trivial> key = ofy().save().entity(new Trivial("foo", 1)).now();
+		assertThat(ofy().load().key(key).now()).isNotNull();
+
+		ofy().async().delete().key(key).toCompletableFuture().join();
+
+		assertThat(ofy().load().key(key).now()).isNull();
+	}
+
+	/** */
+	@Test
+	void asyncSaveIsSeenByTheCallersSession() throws Exception {
+		final Key<Trivial> key = ofy().save().entity(new Trivial(123L, "foo", 1)).now();
+		assertThat(ofy().load().key(key).now().getSomeNumber()).isEqualTo(1L);
+
+		ofy().async().save().entity(new Trivial(123L, "foo", 2)).toCompletableFuture().join();
+
+		assertThat(ofy().load().key(key).now().getSomeNumber()).isEqualTo(2L);
+	}
+
+	/** */
+	@Test
+	void queriesRunAsWork() throws Exception {
+		ofy().save().entities(new Trivial("foo", 1), new Trivial("bar", 2)).now();
+
+		final List<Trivial> found = ofy().async().run(() -> ofy().load().type(Trivial.class).filter("someString", "bar").list())
+				.toCompletableFuture().join();
+
+		assertThat(found).hasSize(1);
+		assertThat(found.get(0).getSomeString()).isEqualTo("bar");
+	}
+
+	/** */
+	@Test
+	void notAllowedInTransactions() throws Exception {
+		assertThrows(IllegalStateException.class, () -> ofy().transact(() -> ofy().async()));
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.googlecode.objectify.cache.CacheControl;
+import com.googlecode.objectify.cache.CachingAsyncDatastore;
+import com.googlecode.objectify.cache.EntityMemcache;
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of refresh-ahead in the caching datastore.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class CacheRefreshAheadTests extends TestBase {
+	/** Caching */
+	private CachingAsyncDatastore cads;
+
+	/** */
+	private Key key;
+
+	/**
+	 * Entries are due for refresh as soon as they are written
+	 */
+	@BeforeEach
+	void setUpExtra() {
+		final CacheControl control = new CacheControl() {
+			@Override public Integer getExpirySeconds(final Key key) { return 60; }
+			@Override public int getExpiryJitterPercent(final Key key) { return 50; }
+			@Override public int getRefreshAheadPercent(final Key key) { return 100; }
+		};
+
+		cads = new CachingAsyncDatastore(asyncDatastore(), new EntityMemcache(memcache(), "somenamespace", control));
+		key = datastore().newKeyFactory().setKind("thing").newKey(1);
+	}
+
+	/** */
+	@Test
+	void nearExpiryHitIsRefreshedAtEndOfRequest() throws Exception {
+		datastore().put(Entity.newBuilder(key).set("foo", "bar").build());
+
+		// Prime the cache
+		assertThat(cads.get(Collections.singleton(key)).get().get(key).getString("foo")).isEqualTo("bar");
+		PendingFutures.completeAllPendingFutures();
+
+		// Change the datastore underneath the cache
+		datastore().put(Entity.newBuilder(key).set("foo", "baz").build());
+
+		// Still get the cached value, but this schedules a refresh
+		final Map<Key, Entity> stale = cads.get(Collections.singleton(key)).get();
+		assertThat(stale.get(key).getString("foo")).isEqualTo("bar");
+
+		PendingFutures.completeAllPendingFutures();
+
+		final Map<Key, Entity> fresh = cads.get(Collections.singleton(key)).get();
+		assertThat(fresh.get(key).getString("foo")).isEqualTo("baz");
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.Query;
+import com.googlecode.objectify.cache.CacheWarmer;
+import com.googlecode.objectify.cache.CachingAsyncDatastore;
+import com.googlecode.objectify.cache.EntityMemcache;
+import com.googlecode.objectify.impl.AsyncDatastore;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of preloading the cache.
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class CacheWarmerTests extends TestBase {
+	/** */
+	private CacheWarmer warmer;
+
+	/** No datastore, so everything must come from the cache */
+	private CachingAsyncDatastore nods;
+
+	/** */
+	private List<Key> keys;
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		final EntityMemcache mc = new EntityMemcache(memcache(), "somenamespace");
+		warmer = new CacheWarmer(asyncDatastore(), mc).withBatchSize(2).withConcurrency(2).withRateLimit(0);
+		nods = new CachingAsyncDatastore(allOperationsUnsupported(), mc);
+
+		keys = Arrays.asList(
+				datastore().newKeyFactory().setKind("thing").newKey(1),
+				datastore().newKeyFactory().setKind("thing").newKey(2),
+				datastore().newKeyFactory().setKind("thing").newKey(3));
+
+		for (final Key key: keys)
+			datastore().put(Entity.newBuilder(key).set("foo", "bar" + key.getId()).build());
+	}
+
+	private AsyncDatastore allOperationsUnsupported() {
+		return (AsyncDatastore)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { AsyncDatastore.class }, (p, m, a) -> { throw new UnsupportedOperationException(); });
+	}
+
+	/** */
+	@Test
+	void warmingKeysFillsCache() throws Exception {
+		assertThat(warmer.warm(keys)).isEqualTo(3);
+
+		final Map<Key, Entity> cached = nods.get(keys).get();
+		assertThat(cached).hasSize(3);
+		assertThat(cached.get(keys.get(1)).getString("foo")).isEqualTo("bar2");
+
+		// Second time around there is nothing to do
+		assertThat(warmer.warm(keys)).isEqualTo(0);
+	}
+
+	/** */
+	@Test
+	void warmingQueryFillsCache() throws Exception {
+		assertThat(warmer.warm(Query.newKeyQueryBuilder().setKind("thing").build())).isEqualTo(3);
+
+		assertThat(nods.get(keys).get()).hasSize(3);
+	}
+}
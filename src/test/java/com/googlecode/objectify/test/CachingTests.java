@@ -7,12 +7,14 @@ import com.googlecode.objectify.Key;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.cache.PendingFutures;
 import com.googlecode.objectify.test.util.TestBase;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -111,4 +113,33 @@ class CachingTests extends TestBase {
 //		final Object thing2 = ms.get(key.toWebSafeString());
 //		assertThat(thing2).isNull();
 	}
+
+	/** */
+	@Test
+	void asyncCommitInvalidationFinishesBeforeSessionCloses() throws Exception {
+		final List<Runnable> queued = new ArrayList<>();
+		factory().setAsyncCacheInvalidation(queued::add);
+
+		final Cached ca = new Cached("before");
+		final Key<Cached> key = ofy().save().entity(ca).now();
+		ofy().clear();
+		ofy().load().key(key).now();
+
+		final String cacheKey = key.getRaw().toUrlSafe();
+		assertThat(memcache().get(cacheKey)).isNotNull();
+
+		ofy().transact(() -> {
+			ca.setStuff("after");
+			ofy().save().entity(ca);
+		});
+
+		// The commit did not wait for the cache
+		assertThat(queued).hasSize(1);
+		assertThat(memcache().get(cacheKey)).isNotNull();
+
+		queued.forEach(Runnable::run);
+		PendingFutures.completeAllPendingFutures();
+
+		assertThat(memcache().get(cacheKey)).isNull();
+	}
 }
\ No newline at end of file
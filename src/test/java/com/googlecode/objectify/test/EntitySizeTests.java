@@ -0,0 +1,78 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.SaveException;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.test.util.TestBase;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the entity size checks and of splitting big writes
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class EntitySizeTests extends TestBase {
+
+	/** */
+	@Entity
+	@Data
+	@NoArgsConstructor
+	private static class HasBytes {
+		@Id Long id;
+		byte[] bytes;
+
+		HasBytes(final long id, final int size) {
+			this.id = id;
+			this.bytes = new byte[size];
+		}
+	}
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(HasBytes.class);
+	}
+
+	/** */
+	@Test
+	void oversizeEntityFailsBeforeAnythingIsWritten() throws Exception {
+		final HasBytes small = new HasBytes(1, 10);
+		final HasBytes big = new HasBytes(2, 2 * 1024 * 1024);
+
+		final SaveException ex = assertThrows(SaveException.class, () -> ofy().save().entities(small, big).now());
+		assertThat(ex.getMessage()).contains("'bytes'");
+
+		ofy().clear();
+		assertThat(ofy().load().entity(small).now()).isNull();
+	}
+
+	/** */
+	@Test
+	void bigEntitiesAreSplitAcrossRequests() throws Exception {
+		final List<HasBytes> things = new ArrayList<>();
+		for (int i = 1; i <= 12; i++)
+			things.add(new HasBytes(i, 900 * 1024));
+
+		final Map<Key<HasBytes>, HasBytes> saved = ofy().save().entities(things).now();
+		assertThat(saved).hasSize(12);
+
+		ofy().clear();
+		assertThat(ofy().load().entities(things)).hasSize(12);
+	}
+}
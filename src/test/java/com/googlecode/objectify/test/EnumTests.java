@@ -3,10 +3,12 @@
 
 package com.googlecode.objectify.test;
 
+import com.google.cloud.datastore.FullEntity;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.Index;
+import com.googlecode.objectify.annotation.Unindex;
 import com.googlecode.objectify.test.util.TestBase;
 import lombok.Data;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +41,7 @@ class EnumTests extends TestBase {
 		private @Id Long id;
 
 		private Color color;
+		@Unindex private Color quietColor;
 		private List<Color> colors;
 		private Color[] colorsArray;
 	}
@@ -93,4 +96,20 @@ class EnumTests extends TestBase {
 		final HasEnums fetched = ofy().load().type(HasEnums.class).filter("color =", Color.GREEN).first().now();
 		assertThat(fetched).isEqualTo(he);
 	}
+
+	/** */
+	@Test
+	void savedValuesAreSharedBetweenEntities() throws Exception {
+		final HasEnums he = new HasEnums();
+		he.color = Color.GREEN;
+		he.quietColor = Color.GREEN;
+
+		final FullEntity<?> first = ofy().save().toEntity(he);
+		final FullEntity<?> second = ofy().save().toEntity(he);
+
+		assertThat(first.getValue("color")).isSameInstanceAs(second.getValue("color"));
+		assertThat(first.getValue("color").excludeFromIndexes()).isFalse();
+		assertThat(first.getValue("quietColor").excludeFromIndexes()).isTrue();
+		assertThat(first.getString("quietColor")).isEqualTo("GREEN");
+	}
 }
\ No newline at end of file
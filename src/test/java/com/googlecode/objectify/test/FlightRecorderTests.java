@@ -0,0 +1,118 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+/**
+ * Tests of the flight recorder events
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class FlightRecorderTests extends TestBase {
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Trivial.class);
+	}
+
+	/** Run the work in a recording of the objectify events, returning the events */
+	private List<RecordedEvent> record(final Runnable work) throws Exception {
+		final Path file = Files.createTempFile("objectify", ".jfr");
+		try {
+			try (final Recording recording = new Recording()) {
+				for (final String name: new String[] { "LoadRound", "Save", "Delete", "Query", "MemcacheGet", "MemcachePut", "Transaction" })
+					recording.enable("objectify." + name);
+
+				recording.start();
+				work.run();
+				recording.stop();
+				recording.dump(file);
+			}
+
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().startsWith("objectify."))
+					.collect(Collectors.toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/** */
+	private RecordedEvent only(final List<RecordedEvent> events, final String name) {
+		final List<RecordedEvent> matching = events.stream()
+				.filter(event -> event.getEventType().getName().equals(name))
+				.collect(Collectors.toList());
+
+		assertThat(matching).hasSize(1);
+		return matching.get(0);
+	}
+
+	/** */
+	@Test
+	void saveAndLoadAreRecorded() throws Exception {
+		final List<RecordedEvent> events = record(() -> {
+			final Key<Trivial> key = ofy().save().entity(new Trivial("foo", 1)).now();
+			ofy().clear();
+			ofy().load().key(key).now();
+		});
+
+		final RecordedEvent save = only(events, "objectify.Save");
+		assertThat(save.getString("kind")).isEqualTo(Key.getKind(Trivial.class));
+		assertThat(save.getInt("keys")).isEqualTo(1);
+		assertThat(save.getLong("bytes")).isGreaterThan(0L);
+
+		final RecordedEvent round = only(events, "objectify.LoadRound");
+		assertThat(round.getString("kind")).isEqualTo(Key.getKind(Trivial.class));
+		assertThat(round.getInt("keys")).isEqualTo(1);
+
+		final RecordedEvent get = only(events, "objectify.MemcacheGet");
+		assertThat(get.getInt("keys")).isEqualTo(1);
+	}
+
+	/** */
+	@Test
+	void queriesAndDeletesAreRecorded() throws Exception {
+		final Key<Trivial> key = ofy().save().entity(new Trivial("foo", 1)).now();
+
+		final List<RecordedEvent> events = record(() -> {
+			ofy().load().type(Trivial.class).keys().list();
+			ofy().delete().key(key).now();
+		});
+
+		final RecordedEvent query = only(events, "objectify.Query");
+		assertThat(query.getString("kind")).isEqualTo(Key.getKind(Trivial.class));
+		assertThat(query.getString("type")).isEqualTo("keys");
+
+		assertThat(only(events, "objectify.Delete").getInt("keys")).isEqualTo(1);
+	}
+
+	/** */
+	@Test
+	void transactionsAreRecorded() throws Exception {
+		final List<RecordedEvent> events = record(() ->
+				ofy().transact(() -> ofy().save().entity(new Trivial("foo", 1)).now()));
+
+		final RecordedEvent txn = only(events, "objectify.Transaction");
+		assertThat(txn.getInt("retry")).isEqualTo(0);
+		assertThat(txn.getBoolean("committed")).isTrue();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.impl.NPlusOneDetector;
+import com.googlecode.objectify.impl.OperationStats;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of detecting N+1 load patterns
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class NPlusOneTests extends TestBase {
+
+	/** */
+	private ObjectifyFactory fact2;
+	private final AtomicReference<OperationStats> received = new AtomicReference<>();
+	private final List<Key<Trivial>> keys = new ArrayList<>();
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		fact2 = new ObjectifyFactory(datastore(), memcache());
+		fact2.register(Trivial.class);
+		fact2.setNPlusOneThreshold(5);
+		fact2.setOperationStatsListener(received::set);
+
+		fact2.run(() -> {
+			for (int i = 0; i < 10; i++)
+				keys.add(fact2.ofy().save().entity(new Trivial("foo" + i, i)).now());
+		});
+
+		received.set(null);
+	}
+
+	/** */
+	@Test
+	void loadsInALoopAreReported() throws Exception {
+		fact2.run(() -> {
+			for (final Key<Trivial> key: keys)
+				fact2.ofy().load().key(key).now();
+		});
+
+		final List<NPlusOneDetector.Finding> findings = received.get().getNPlusOneLoads();
+		assertThat(findings).hasSize(1);
+		assertThat(findings.get(0).getKind()).isEqualTo(Key.getKind(Trivial.class));
+		assertThat(findings.get(0).getRounds()).isEqualTo(10);
+
+		final NPlusOneDetector.CallSite site = findings.get(0).getCallSites().get(0);
+		assertThat(site.getCount()).isEqualTo(10);
+		assertThat(site.getFrame().getClassName()).startsWith(NPlusOneTests.class.getName());
+	}
+
+	/** */
+	@Test
+	void batchLoadsAreNotReported() throws Exception {
+		fact2.run(() -> {
+			fact2.ofy().load().keys(keys);
+		});
+
+		assertThat(received.get().getNPlusOneLoads()).isEmpty();
+	}
+
+	/** */
+	@Test
+	void shortRunsAreNotReported() throws Exception {
+		fact2.run(() -> {
+			for (final Key<Trivial> key: keys.subList(0, 4))
+				fact2.ofy().load().key(key).now();
+		});
+
+		assertThat(received.get().getNPlusOneLoads()).isEmpty();
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.impl.OperationStats;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.util.Closeable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests of counting the operations of a request
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class OperationStatsTests extends TestBase {
+
+	/** Counts operations; the default factory does not */
+	private ObjectifyFactory fact2;
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		fact2 = new ObjectifyFactory(datastore(), memcache());
+		fact2.register(Trivial.class);
+		fact2.setOperationStatsEnabled(true);
+	}
+
+	/** */
+	private OperationStats.Stat trivialStat() {
+		return fact2.getOperationStats().getStats().get(Key.getKind(Trivial.class));
+	}
+
+	/** */
+	@Test
+	void savesAreCounted() throws Exception {
+		fact2.run(() -> {
+			fact2.ofy().save().entity(new Trivial("foo", 1)).now();
+
+			final OperationStats.Stat stat = trivialStat();
+			assertThat(stat.getWrites()).isEqualTo(1);
+			assertThat(stat.getBytesWritten()).isGreaterThan(0L);
+			// The kind entry plus ascending and descending entries for the one indexed property
+			assertThat(stat.getIndexWrites()).isEqualTo(3);
+		});
+	}
+
+	/** */
+	@Test
+	void loadsAreCountedWithTheCache() throws Exception {
+		fact2.run(() -> {
+			final Key<Trivial> key = fact2.ofy().save().entity(new Trivial("foo", 1)).now();
+			fact2.ofy().clear();
+
+			fact2.ofy().load().key(key).now();
+			fact2.ofy().load().key(key).now();	// from the session; not a read
+
+			final OperationStats.Stat stat = trivialStat();
+			assertThat(stat.getReads()).isEqualTo(1);
+			assertThat(stat.getBytesRead()).isGreaterThan(0L);
+			assertThat(stat.getCacheHits() + stat.getCacheMisses()).isAtLeast(1L);
+		});
+	}
+
+	/** */
+	@Test
+	void queriesAndDeletesAreCounted() throws Exception {
+		fact2.run(() -> {
+			final Key<Trivial> key = fact2.ofy().save().entity(new Trivial("foo", 1)).now();
+
+			fact2.ofy().load().type(Trivial.class).list();
+			fact2.ofy().delete().key(key).now();
+
+			final OperationStats.Stat stat = trivialStat();
+			assertThat(stat.getQueries()).isEqualTo(1);
+			assertThat(stat.getDeletes()).isEqualTo(1);
+		});
+	}
+
+	/** */
+	@Test
+	void parallelTasksCountTowardsTheRequest() throws Exception {
+		fact2.run(() -> {
+			final Key<Trivial> k1 = fact2.ofy().save().entity(new Trivial("foo", 1)).now();
+			final Key<Trivial> k2 = fact2.ofy().save().entity(new Trivial("bar", 2)).now();
+			fact2.ofy().clear();
+
+			final List<Work<Trivial>> tasks = Arrays.asList(
+					() -> fact2.ofy().load().key(k1).now(),
+					() -> fact2.ofy().load().key(k2).now());
+
+			fact2.ofy().parallel(tasks);
+
+			assertThat(trivialStat().getReads()).isEqualTo(2);
+		});
+	}
+
+	/** */
+	@Test
+	void requestsAreNotCountedByDefault() throws Exception {
+		final ObjectifyFactory fact3 = new ObjectifyFactory(datastore(), memcache());
+		fact3.register(Trivial.class);
+
+		fact3.run(() -> {
+			fact3.ofy().save().entity(new Trivial("foo", 1)).now();
+			assertThat(fact3.getOperationStats()).isNull();
+		});
+	}
+
+	/** */
+	@Test
+	void listenerReceivesStatsAtTheEndOfTheRequest() throws Exception {
+		fact2.setOperationStatsEnabled(false);
+
+		final AtomicReference<OperationStats> received = new AtomicReference<>();
+		fact2.setOperationStatsListener(received::set);
+
+		try (final Closeable session = fact2.begin()) {
+			fact2.ofy().save().entity(new Trivial("foo", 1)).now();
+			assertThat(received.get()).isNull();
+		}
+
+		assertThat(received.get()).isNotNull();
+		assertThat(received.get().getTotal().getWrites()).isEqualTo(1);
+		assertThat(fact2.getOperationStats()).isNull();
+	}
+}
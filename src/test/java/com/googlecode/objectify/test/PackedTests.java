@@ -0,0 +1,95 @@
+package com.googlecode.objectify.test;
+
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.ValueType;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Packed;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.util.Closeable;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+/**
+ * Tests of the {@code @Packed} annotation
+ */
+class PackedTests extends TestBase {
+	@Entity
+	@Data
+	private static class HasPacked {
+		@Id Long id;
+		@Packed double[] values;
+		@Packed(delta=true) long[] timestamps;
+		@Packed List<Integer> counts = new ArrayList<>();
+	}
+
+	@Test
+	void packedFieldsRoundTrip() throws Exception {
+		factory().register(HasPacked.class);
+
+		final HasPacked hp = new HasPacked();
+		hp.values = new double[] { 1.5, -2.25, 1e100 };
+		hp.timestamps = new long[1000];
+		for (int i = 0; i < hp.timestamps.length; i++)
+			hp.timestamps[i] = 1_700_000_000_000L + i * 1000L;
+		hp.counts.addAll(Arrays.asList(3, -1, 4));
+
+		final HasPacked fetched = saveClearLoad(hp);
+
+		assertThat(fetched.values).isEqualTo(hp.values);
+		assertThat(fetched.timestamps).isEqualTo(hp.timestamps);
+		assertThat(fetched.counts).containsExactly(3, -1, 4).inOrder();
+	}
+
+	@Test
+	void packedFieldsAreSingleUnindexedBlobs() throws Exception {
+		factory().register(HasPacked.class);
+
+		final HasPacked hp = new HasPacked();
+		hp.values = new double[] { 1, 2, 3 };
+		hp.timestamps = new long[] { 10, 20, 30 };
+
+		final FullEntity<?> entity = ofy().save().toEntity(hp);
+
+		assertThat(entity.getValue("values").getType()).isEqualTo(ValueType.BLOB);
+		assertThat(entity.getValue("values").excludeFromIndexes()).isTrue();
+		assertThat(entity.getBlob("values").length()).isEqualTo(2 + 3 * Double.BYTES);
+
+		// Delta varints; each difference fits in one byte
+		assertThat(entity.getBlob("timestamps").length()).isEqualTo(2 + 1 + 3);
+	}
+
+	@Entity(name="HasPacked")
+	@Data
+	private static class HasUnpacked {
+		@Id Long id;
+		double[] values;
+	}
+
+	@Test
+	void unpackedValuesCanBeLoaded() throws Exception {
+		factory().register(HasUnpacked.class);
+
+		final HasUnpacked hu = new HasUnpacked();
+		hu.values = new double[] { 1.5, 2.5 };
+		ofy().save().entity(hu).now();
+
+		// Now read it using the packed annotation
+		final ObjectifyFactory fact2 = new ObjectifyFactory(datastore(), memcache());
+		fact2.register(HasPacked.class);
+
+		try (final Closeable session = fact2.begin()) {
+			final HasPacked fetched = fact2.ofy().load().type(HasPacked.class).id(hu.id).now();
+			assertThat(fetched.values).isEqualTo(hu.values);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.NamespaceManager;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.util.Closeable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of ofy().parallel()
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class ParallelTests extends TestBase {
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Trivial.class);
+	}
+
+	/** */
+	@Test
+	void loadsRunInParallelAndMergeIntoSession() throws Exception {
+		final Key<Trivial> k1 = ofy().save().entity(new Trivial("foo", 1)).now();
+		final Key<Trivial> k2 = ofy().save().entity(new Trivial("bar", 2)).now();
+		ofy().clear();
+
+		final List<Work<Trivial>> tasks = Arrays.asList(
+				() -> ofy().load().key(k1).now(),
+				() -> ofy().load().key(k2).now());
+
+		final List<Trivial> results = ofy().parallel(tasks);
+
+		assertThat(results.get(0).getSomeString()).isEqualTo("foo");
+		assertThat(results.get(1).getSomeString()).isEqualTo("bar");
+
+		assertThat(ofy().isLoaded(k1)).isTrue();
+		assertThat(ofy().isLoaded(k2)).isTrue();
+	}
+
+	/** */
+	@Test
+	void onlyWhatTasksChangeIsMergedIntoSession() throws Exception {
+		final Key<Trivial> key = ofy().save().entity(new Trivial(1L, "old", 1)).now();
+		ofy().clear();
+		ofy().load().key(key).now();
+
+		// The second task inherits the old value but never touches it, so it must not win the merge
+		ofy().parallel(
+				() -> ofy().save().entity(new Trivial(1L, "new", 2)).now(),
+				() -> null);
+
+		assertThat(ofy().load().key(key).now().getSomeString()).isEqualTo("new");
+	}
+
+	/** */
+	@Test
+	void tasksShareTheTransaction() throws Exception {
+		final Trivial t1 = new Trivial(1L, "foo", 1);
+		final Trivial t2 = new Trivial(2L, "bar", 2);
+
+		ofy().transact(() -> {
+			ofy().parallel(
+					() -> ofy().save().entity(t1),
+					() -> ofy().save().entity(t2));
+
+			// Not visible outside the transaction until commit
+			assertThat(ofy().transactionless(() -> ofy().load().entity(t1).now())).isNull();
+		});
+
+		ofy().clear();
+		assertThat(ofy().load().entity(t1).now()).isEqualTo(t1);
+		assertThat(ofy().load().entity(t2).now()).isEqualTo(t2);
+	}
+
+	/** */
+	@Test
+	void namespaceIsPropagated() throws Exception {
+		try (final Closeable ignored = NamespaceManager.set("other")) {
+			final List<Work<String>> tasks = Arrays.asList(NamespaceManager::get, NamespaceManager::get);
+			assertThat(ofy().parallel(tasks)).containsExactly("other", "other");
+		}
+	}
+
+	/** */
+	@Test
+	void failureIsThrownAfterAllTasksFinish() throws Exception {
+		final Trivial triv = new Trivial(1L, "foo", 1);
+
+		assertThrows(IllegalStateException.class, () -> ofy().parallel(
+				() -> { throw new IllegalStateException("boom"); },
+				() -> ofy().save().entity(triv).now()));
+
+		ofy().clear();
+		assertThat(ofy().load().entity(triv).now()).isEqualTo(triv);
+	}
+}
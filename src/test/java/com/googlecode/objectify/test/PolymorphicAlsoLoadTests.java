@@ -40,6 +40,15 @@ class PolymorphicAlsoLoadTests extends TestBase {
 	public static class Platypus extends Animal {
 	}
 
+	/** */
+	@Subclass(alsoLoad = "Puggle")
+	@Index
+	@Data
+	@EqualsAndHashCode(callSuper = true)
+	public static class BabyPlatypus extends Platypus {
+		String name;
+	}
+
 	/** */
 	@Test
 	void alsoLoadOfSubclass() throws Exception {
@@ -55,4 +64,23 @@ class PolymorphicAlsoLoadTests extends TestBase {
 		assertThat(fetched).isInstanceOf(Platypus.class);
 	}
 
-}
+	/** */
+	@Test
+	void alsoLoadOfDeeperSubclassPopulatesFields() throws Exception {
+		factory().register(Animal.class);
+		factory().register(Platypus.class);
+		factory().register(BabyPlatypus.class);
+
+		final BabyPlatypus baby = new BabyPlatypus();
+		baby.setName("perry");
+
+		final FullEntity<?> babyInitial = ofy().save().toEntity(baby);
+		final FullEntity<?> puggle = FullEntity.newBuilder(babyInitial).set("^d", StringValue.newBuilder("Puggle").setExcludeFromIndexes(true).build()).build();
+
+		final com.google.cloud.datastore.Key key = datastore().put(puggle).getKey();
+
+		final Animal fetched = (Animal)ofy().load().value(key).now();
+		assertThat(fetched).isInstanceOf(BabyPlatypus.class);
+		assertThat(((BabyPlatypus)fetched).getName()).isEqualTo("perry");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.cloud.datastore.Entity;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.annotation.Cache;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.test.util.TestBase;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+/**
+ * Tests of caching keys-only query results
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class QueryKeysCacheTests extends TestBase {
+	/** */
+	@com.googlecode.objectify.annotation.Entity
+	@Cache
+	@Data
+	@NoArgsConstructor
+	private static class Listed {
+		@Id
+		private Long id;
+		private String stuff;
+
+		Listed(final String stuff) {
+			this.stuff = stuff;
+		}
+	}
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Listed.class);
+	}
+
+	/** */
+	private List<Key<Listed>> listKeys() {
+		return ofy().load().type(Listed.class).limit(10).cacheResults(true).keys().list();
+	}
+
+	/** */
+	@Test
+	void repeatedQueryComesFromCacheUntilKindIsWritten() throws Exception {
+		ofy().save().entities(new Listed("one"), new Listed("two")).now();
+
+		assertThat(listKeys()).hasSize(2);
+
+		// Sneak a write past the cache; the cached result should not notice
+		final com.google.cloud.datastore.Key sneaky = datastore().newKeyFactory().setKind(Key.getKind(Listed.class)).newKey(999);
+		datastore().put(Entity.newBuilder(sneaky).set("stuff", "sneaky").build());
+
+		assertThat(listKeys()).hasSize(2);
+
+		// A write through objectify invalidates the kind
+		ofy().save().entity(new Listed("three")).now();
+
+		assertThat(listKeys()).hasSize(4);
+	}
+
+	/** */
+	@Test
+	void hybridQueryUsesCachedKeys() throws Exception {
+		ofy().save().entities(new Listed("one"), new Listed("two")).now();
+		ofy().clear();
+
+		final List<Listed> first = ofy().load().type(Listed.class).limit(10).cacheResults(true).list();
+		assertThat(first).hasSize(2);
+
+		ofy().clear();
+
+		final List<Listed> second = ofy().load().type(Listed.class).limit(10).cacheResults(true).list();
+		assertThat(second).containsExactlyElementsIn(first).inOrder();
+	}
+}
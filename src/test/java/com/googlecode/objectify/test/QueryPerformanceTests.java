@@ -98,6 +98,14 @@ class QueryPerformanceTests extends TestBase {
 		assertThat(getCount).isEqualTo(0);
 	}
 
+	/** Results which can never be cached (here no limit, no global cache) are no reason to hybridize */
+	@Test
+	void uncacheableResultsDoNotForceHybrid() throws Exception {
+		final List<Trivial> list = ofy().cache(false).load().type(Trivial.class).cacheResults(true).list();
+		assertThat(list).containsExactly(triv1);
+		assertThat(getCount).isEqualTo(0);
+	}
+
 	/**
 	 * IN queries not supported by new SDK
 	 * //At one point you couldn't have an IN query with keysonly and sort.
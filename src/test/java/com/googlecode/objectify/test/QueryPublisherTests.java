@@ -0,0 +1,112 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.cmd.Query;
+import com.googlecode.objectify.cmd.QueryPublisher;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+
+/**
+ * Tests of query.publisher()
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class QueryPublisherTests extends TestBase {
+
+	/** Requests a fixed number of items, then stops asking */
+	private static class Collector<T> implements Flow.Subscriber<T> {
+		final List<T> items = new ArrayList<>();
+		final CompletableFuture<List<T>> completed = new CompletableFuture<>();
+		final CompletableFuture<List<T>> enough = new CompletableFuture<>();
+		final long wanted;
+
+		Collector(final long wanted) {
+			this.wanted = wanted;
+		}
+
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription) {
+			subscription.request(wanted);
+		}
+
+		@Override
+		public synchronized void onNext(final T item) {
+			items.add(item);
+			if (items.size() == wanted)
+				enough.complete(new ArrayList<>(items));
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			completed.completeExceptionally(throwable);
+			enough.completeExceptionally(throwable);
+		}
+
+		@Override
+		public synchronized void onComplete() {
+			completed.complete(items);
+			enough.complete(items);
+		}
+	}
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Trivial.class);
+
+		for (int i = 1; i <= 5; i++)
+			ofy().save().entity(new Trivial((long)i, "foo", i)).now();
+	}
+
+	/** */
+	@Test
+	void publishesAllResults() throws Exception {
+		final Collector<Trivial> collector = new Collector<>(Long.MAX_VALUE);
+		ofy().load().type(Trivial.class).publisher().subscribe(collector);
+
+		final List<Trivial> items = collector.completed.get(10, TimeUnit.SECONDS);
+		assertThat(items).hasSize(5);
+		assertThat(items.get(0).getId()).isEqualTo(1L);
+	}
+
+	/** */
+	@Test
+	void respectsDemandAndResumesFromCursor() throws Exception {
+		final Query<Trivial> query = ofy().load().type(Trivial.class).chunk(2);
+
+		final Collector<Trivial> collector = new Collector<>(2);
+		final QueryPublisher<Trivial> publisher = query.publisher();
+		publisher.subscribe(collector);
+
+		final List<Trivial> first = collector.enough.get(10, TimeUnit.SECONDS);
+		assertThat(first).hasSize(2);
+		assertThat(collector.completed.isDone()).isFalse();
+
+		final List<Trivial> rest = query.startAt(publisher.getCursorAfter()).list();
+		assertThat(rest).hasSize(3);
+		assertThat(rest.get(0).getId()).isEqualTo(3L);
+	}
+
+	/** */
+	@Test
+	void keysCanBePublished() throws Exception {
+		final Collector<Object> collector = new Collector<>(Long.MAX_VALUE);
+		ofy().load().type(Trivial.class).keys().publisher().subscribe(collector);
+
+		assertThat(collector.completed.get(10, TimeUnit.SECONDS)).hasSize(5);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.cmd.Query;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static com.googlecode.objectify.ObjectifyService.ofy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of query.shard()
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class QueryShardTests extends TestBase {
+
+	/** */
+	@BeforeEach
+	void setUpExtra() {
+		factory().register(Trivial.class);
+
+		final List<Trivial> all = new ArrayList<>();
+		for (long i = 1; i <= 100; i++)
+			all.add(new Trivial(i, "foo", i));
+
+		ofy().save().entities(all).now();
+	}
+
+	/** */
+	@Test
+	void shardsCoverEverythingExactlyOnce() throws Exception {
+		final List<Query<Trivial>> shards = ofy().load().type(Trivial.class).shard(4);
+
+		assertThat(shards.size()).isAtLeast(1);
+		assertThat(shards.size()).isAtMost(4);
+
+		final Set<Key<Trivial>> seen = new HashSet<>();
+		for (final Query<Trivial> shard: shards) {
+			for (final Key<Trivial> key: shard.keys())
+				assertThat(seen.add(key)).isTrue();
+		}
+
+		assertThat(seen).hasSize(100);
+	}
+
+	/** */
+	@Test
+	void singleShardIsTheWholeQuery() throws Exception {
+		final List<Query<Trivial>> shards = ofy().load().type(Trivial.class).shard(1);
+
+		assertThat(shards).hasSize(1);
+		assertThat(shards.get(0).list()).hasSize(100);
+	}
+
+	/** */
+	@Test
+	void orderedQueriesCannotBeSharded() throws Exception {
+		assertThrows(IllegalStateException.class, () -> ofy().load().type(Trivial.class).order("someString").shard(4));
+	}
+}
@@ -1,13 +1,22 @@
 package com.googlecode.objectify.test;
 
 import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Work;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Subclass;
+import com.googlecode.objectify.impl.EntityMetadata;
 import com.googlecode.objectify.test.util.TestBase;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
 import static com.google.common.truth.Truth.assertThat;
 import static com.googlecode.objectify.ObjectifyService.factory;
 import static com.googlecode.objectify.ObjectifyService.ofy;
@@ -93,4 +102,58 @@ class RegisterTests extends TestBase {
 		// New behavior
 		assertThat(ofy().load().key(k).now()).isNull();
 	}
+
+	@Entity
+	@Data
+	public static class Animal {
+		@Id Long id;
+		String name;
+	}
+
+	@Subclass
+	@Data
+	@EqualsAndHashCode(callSuper = true)
+	public static class Cat extends Animal {
+		int lives;
+	}
+
+	@Test
+	void lazyRegistrationBuildsOnFirstUse() throws Exception {
+		// Subclass first, to be sure order doesn't matter
+		factory().registerLazily(Cat.class);
+		factory().registerLazily(Animal.class);
+
+		final Cat cat = new Cat();
+		cat.setName("felix");
+		cat.setLives(9);
+
+		final Key<Animal> key = ofy().save().<Animal>entity(cat).now();
+		ofy().clear();
+
+		assertThat(ofy().load().key(key).now()).isEqualTo(cat);
+	}
+
+	@Test
+	void lazyRegistrationIsSafeAcrossThreads() throws Exception {
+		factory().registerLazily(Animal.class);
+
+		final List<Work<EntityMetadata<Animal>>> tasks = Collections.nCopies(8, () -> factory().getMetadata(Animal.class));
+		final List<EntityMetadata<Animal>> metadatas = ofy().parallel(tasks);
+
+		assertThat(new HashSet<>(metadatas)).hasSize(1);
+	}
+
+	@Test
+	void registerAllRegistersEverything() throws Exception {
+		factory().registerAll(Arrays.asList(Animal.class, Cat.class, Normal.class));
+
+		assertThat(factory().getMetadata("Animal")).isNotNull();
+		assertThat(factory().getMetadata("Normal")).isNotNull();
+
+		final Cat cat = new Cat();
+		cat.setName("tom");
+
+		final Animal fetched = saveClearLoad(cat);
+		assertThat(fetched).isEqualTo(cat);
+	}
 }
@@ -0,0 +1,108 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Subclass;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.util.Closeable;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.googlecode.objectify.ObjectifyService.factory;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of writing and registering an index of entity classes
+ *
+ * @author Jeff Schnitzer <jeff@infohazard.org>
+ */
+class RegistrationIndexTests extends TestBase {
+
+	/** */
+	@Entity
+	@Data
+	public static class Animal {
+		@Id Long id;
+		String name;
+	}
+
+	/** */
+	@Subclass
+	@Data
+	@EqualsAndHashCode(callSuper = true)
+	public static class Platypus extends Animal {
+		boolean venomous;
+	}
+
+	/** */
+	private String writeIndex() throws Exception {
+		factory().register(Animal.class);
+		factory().register(Platypus.class);
+
+		final StringWriter writer = new StringWriter();
+		factory().writeIndex(writer);
+		return writer.toString();
+	}
+
+	/** */
+	@Test
+	void indexNamesRegisteredClasses() throws Exception {
+		final String index = writeIndex();
+
+		assertThat(index).contains(Animal.class.getName());
+		assertThat(index).contains(Platypus.class.getName());
+	}
+
+	/** */
+	@Test
+	void indexedClassesWorkInAnotherFactory() throws Exception {
+		final String index = writeIndex();
+
+		final ObjectifyFactory fact2 = new ObjectifyFactory(datastore(), memcache());
+		fact2.registerIndex(new StringReader(index));
+
+		final Platypus platy = new Platypus();
+		platy.setName("perry");
+		platy.setVenomous(true);
+
+		try (final Closeable session = fact2.begin()) {
+			final Key<Animal> key = fact2.ofy().save().<Animal>entity(platy).now();
+			fact2.ofy().clear();
+
+			final Animal fetched = fact2.ofy().load().key(key).now();
+			assertThat(fetched).isEqualTo(platy);
+		}
+	}
+
+	/** */
+	@Test
+	void indexRoundTripsBeforeKindsAreUsed() throws Exception {
+		final String index = writeIndex();
+
+		final ObjectifyFactory fact2 = new ObjectifyFactory(datastore(), memcache());
+		fact2.registerIndex(new StringReader(index));
+
+		final StringWriter rewritten = new StringWriter();
+		fact2.writeIndex(rewritten);
+
+		assertThat(rewritten.toString()).contains(Animal.class.getName());
+		assertThat(rewritten.toString()).contains(Platypus.class.getName());
+	}
+
+	/** */
+	@Test
+	void registerIndexRejectsOtherFormats() throws Exception {
+		final ObjectifyFactory fact2 = new ObjectifyFactory(datastore(), memcache());
+		assertThrows(IllegalArgumentException.class, () -> fact2.registerIndex(new StringReader("something else\n")));
+	}
+}
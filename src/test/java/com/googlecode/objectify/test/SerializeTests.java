@@ -1,17 +1,24 @@
 package com.googlecode.objectify.test;
 
+import com.google.cloud.datastore.Blob;
+import com.google.cloud.datastore.BlobValue;
+import com.google.cloud.datastore.FullEntity;
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.Serialize;
+import com.googlecode.objectify.serializer.BinarySerializer;
 import com.googlecode.objectify.test.util.TestBase;
 import com.googlecode.objectify.util.Closeable;
 import lombok.Data;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.googlecode.objectify.ObjectifyService.factory;
@@ -126,4 +133,60 @@ class SerializeTests extends TestBase {
 			assertThat(fetched.numbers).isEqualTo(hs.numbers);
 		}
 	}
-}
+
+	@Entity(name="HasSerialize")
+	@Cache
+	@Data
+	private static class HasSerializeBinary {
+		@Id Long id;
+		@Serialize(serializer=BinarySerializer.class, zip=true) Map<Long, Long> numbers = new HashMap<>();
+	}
+
+	@Test
+	void binarySerializer() throws Exception {
+		factory().register(HasSerializeBinary.class);
+
+		final HasSerializeBinary hs = new HasSerializeBinary();
+		hs.numbers.put(1L, 2L);
+		hs.numbers.put(3L, 4L);
+
+		final HasSerializeBinary fetched = saveClearLoad(hs);
+		assertThat(fetched).isEqualTo(hs);
+	}
+
+	@Test
+	void javaSerializerWritesHeaderlessBlobs() throws Exception {
+		factory().register(HasSerialize.class);
+		factory().register(HasSerializeBinary.class);
+
+		final FullEntity<?> java = ofy().save().toEntity(new HasSerialize());
+		assertThat(java.getBlob("numbers").toByteArray()[0]).isEqualTo((byte)0xAC);
+
+		final FullEntity<?> binary = ofy().save().toEntity(new HasSerializeBinary());
+		assertThat(binary.getBlob("numbers").toByteArray()[0]).isEqualTo((byte)0x02);
+	}
+
+	@Test
+	void readsBlobsWithoutFormatHeader() throws Exception {
+		factory().register(HasSerialize.class);
+
+		final HashMap<Long, Long> numbers = new HashMap<>();
+		numbers.put(1L, 2L);
+
+		// This is how older versions wrote the field: plain java serialization, no header
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (final ObjectOutputStream oos = new ObjectOutputStream(new DeflaterOutputStream(baos))) {
+			oos.writeObject(numbers);
+		}
+
+		final FullEntity<?> initial = ofy().save().toEntity(new HasSerialize());
+		final FullEntity<?> legacy = FullEntity.newBuilder(initial)
+				.set("numbers", BlobValue.newBuilder(Blob.copyFrom(baos.toByteArray())).setExcludeFromIndexes(true).build())
+				.build();
+
+		final com.google.cloud.datastore.Key key = datastore().put(legacy).getKey();
+
+		final HasSerialize fetched = ofy().load().<HasSerialize>value(key).now();
+		assertThat(fetched.numbers).isEqualTo(numbers);
+	}
+}
\ No newline at end of file
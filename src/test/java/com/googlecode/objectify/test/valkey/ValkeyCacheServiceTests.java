@@ -1,5 +1,6 @@
 package com.googlecode.objectify.test.valkey;
 
+import com.googlecode.objectify.cache.CacheValueCodec;
 import com.googlecode.objectify.cache.IdentifiableValue;
 import com.googlecode.objectify.cache.MemcacheService;
 import com.googlecode.objectify.cache.MemcacheService.CasPut;
@@ -76,6 +77,17 @@ class ValkeyCacheServiceTests {
 		assertThat(cache.get("k")).isEqualTo(value);
 	}
 
+	@Test
+	void largeValuesAreCompressedAndRoundTrip() throws Exception {
+		final String big = String.join("", java.util.Collections.nCopies(10_000, "compressible "));
+		cache.put("k", big);
+		assertThat(cache.get("k")).isEqualTo(big);
+
+		final byte[] raw = client.get(glide.api.models.GlideString.gs("k")).get().getBytes();
+		assertThat(raw[0]).isEqualTo(CacheValueCodec.COMPRESSED);
+		assertThat(raw.length).isLessThan(big.length());
+	}
+
 	@Test
 	void getAbsentKeyReturnsNull() {
 		assertThat(cache.get("nope")).isNull();